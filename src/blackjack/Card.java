@@ -5,10 +5,18 @@ package blackjack;
  * value, and face-up/down state.
  */
 public class Card {
+    static final int DECK_SIZE = 52; // Distinct cards, and the number of card codes
+
+    // Canonical orders used for compact card codes (code = suit * 13 + rank)
+    private static final String[] SUITS = {"hearts", "diamonds", "clubs", "spades"};
+    private static final String[] RANKS = {"2", "3", "4", "5", "6", "7", "8", "9", "10",
+                                           "jack", "queen", "king", "ace"};
+
     // Immutable card properties
     private final String suit;   // Card suit (hearts, diamonds, etc.)
     private final String rank;   // Card rank (2, 3, king, ace, etc.)
     private final int value;     // Numeric value in Blackjack
+    private final int code;      // Compact code (0-51), or -1 if non-standard
     private boolean faceUp;      // Whether card is face-up or face-down
 
     /**
@@ -18,9 +26,17 @@ public class Card {
      * @param value The card's Blackjack value
      */
     public Card(String suit, String rank, int value) {
+        this(suit, rank, value, encode(suit, rank)); // Looked up once, not on every checkpoint
+    }
+
+    /**
+     * Constructs a card whose code is already known (skips the lookup).
+     */
+    private Card(String suit, String rank, int value, int code) {
         this.suit = suit;
         this.rank = rank;
         this.value = value;
+        this.code = code;
         this.faceUp = true; // Cards are face-up by default
     }
 
@@ -47,6 +63,56 @@ public class Card {
      */
     public void flip() { faceUp = !faceUp; }
 
+    /**
+     * Creates a face-up card from its compact code.
+     * @param code Card code (0-51), as returned by {@link #getCode()}
+     * @return New card with the matching suit, rank and value
+     */
+    public static Card fromCode(int code) {
+        if (code < 0 || code >= DECK_SIZE) {
+            throw new IllegalArgumentException("Invalid card code: " + code);
+        }
+        // Face cards = 10, ace = 11, others = rank value
+        return new Card(SUITS[code / RANKS.length], RANKS[code % RANKS.length], valueOfCode(code), code);
+    }
+
+    /**
+     * Gets the Blackjack value of a card code without creating a Card.
+     * @param code Card code (0-51)
+     * @return Value 2-11 (ace = 11)
+     */
+    public static int valueOfCode(int code) {
+        int rank = code % RANKS.length;
+        return rank == 12 ? 11 : Math.min(rank + 2, 10);
+    }
+
+    /**
+     * Gets the card's compact code, used by checkpoints and exports.
+     * @return Code 0-51 (suit * 13 + rank), or -1 for a non-standard card
+     */
+    public int getCode() { return code; }
+
+    /**
+     * @return Code for a suit and rank, or -1 if either is non-standard
+     */
+    private static int encode(String suit, String rank) {
+        int suitIndex = indexOf(SUITS, suit);
+        int rankIndex = indexOf(RANKS, rank);
+        return suitIndex < 0 || rankIndex < 0 ? -1 : suitIndex * RANKS.length + rankIndex;
+    }
+
+    /**
+     * @return Position of a value in an array, or -1
+     */
+    private static int indexOf(String[] values, String value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Returns a string representation of the card.
      * @return String in format "[rank] of [suit]" (e.g. "ace of spades")
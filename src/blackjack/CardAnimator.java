@@ -0,0 +1,392 @@
+package blackjack;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.VolatileImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Drives card animations (dealing, flipping the hole card, dealer draws)
+ * from a single 60 fps Swing timer. Views diff each new snapshot against
+ * the last to find which cards moved, and paint them from the frame
+ * clock. Progress depends only on elapsed time, so a slow machine simply
+ * shows fewer frames of the same motion. The timer runs only while
+ * something is animating or a frame has been requested.
+ */
+final class CardAnimator {
+    static final int FRAME_MILLIS = 16;                 // ~60 fps
+    private static final long FRAME_NANOS = 16_666_667L;
+    private static final long DEAL_NANOS = 280_000_000L;    // Card travel time
+    private static final long FLIP_NANOS = 300_000_000L;    // Hole card turn-over time
+    private static final long STAGGER_NANOS = 110_000_000L; // Gap between cards dealt together
+    private static final long MAX_BACKLOG = 1_200_000_000L; // Beyond this, queued cards land together
+
+    /** Seat id used for the dealer's hand */
+    static final int DEALER = -1;
+
+    /** Kind of motion a card is in */
+    enum Kind { DEAL, FLIP }
+
+    private final Timer timer;           // The one animation timer
+    private final List<JComponent> views = new ArrayList<>(); // Repainted every animated frame
+    private final List<Runnable> frameTasks = new ArrayList<>(); // Run at the start of each frame
+    private final List<Runnable> idleTasks = new ArrayList<>();  // Run when an animation burst ends
+    private final Map<Long, Motion> motions = new HashMap<>();   // Cards in motion, by key(seat, card)
+    private volatile boolean frameRequested; // Set from any thread, cleared by the next frame
+    private long frameTime;              // Clock for the frame being painted (EDT only)
+    private long nextSlot;               // Earliest start for the next queued motion
+    private long busyUntil;              // When the last scheduled motion ends
+    private long lastTick;               // Previous frame, or 0 after the timer was idle
+
+    // Frame metrics (EDT only)
+    private final LatencyHistogram frameIntervals = new LatencyHistogram(); // Time between animated frames
+    private final LatencyHistogram paintTimes = new LatencyHistogram();     // Time to paint one view
+    private long droppedFrames;          // Frames that should have been shown but weren't
+
+    /**
+     * Creates an idle animator.
+     */
+    CardAnimator() {
+        timer = new Timer(FRAME_MILLIS, e -> tick());
+        timer.setCoalesce(true); // A late EDT drops ticks instead of queuing them
+    }
+
+    /**
+     * Adds a view to repaint on every animated frame.
+     * @param view View that paints animated cards
+     */
+    void addView(JComponent view) {
+        views.add(view);
+    }
+
+    /**
+     * Adds a task run at the start of every frame, before painting.
+     * @param task Task to run on the EDT
+     */
+    void addFrameTask(Runnable task) {
+        frameTasks.add(task);
+    }
+
+    /**
+     * Adds a task run whenever the timer goes idle after animating.
+     * @param task Task to run on the EDT
+     */
+    void addIdleTask(Runnable task) {
+        idleTasks.add(task);
+    }
+
+    /**
+     * Asks for one frame soon. Safe to call from any thread; many calls
+     * before the next frame still produce a single frame.
+     */
+    void requestFrame() {
+        frameRequested = true;
+        timer.start(); // Starting a running Timer does nothing; safe off the EDT
+    }
+
+    /** Stops the timer. */
+    void stop() {
+        timer.stop();
+    }
+
+    /** @return Clock to paint with: the current frame's time */
+    long now() {
+        return timer.isRunning() && frameTime != 0 ? frameTime : System.nanoTime();
+    }
+
+    /**
+     * Queues a motion behind any already queued, so cards dealt together
+     * arrive one after another.
+     * @param kind Deal or flip
+     * @return The motion, starting at its slot
+     */
+    private Motion schedule(Kind kind) {
+        long now = System.nanoTime();
+        long start = Math.min(Math.max(now, nextSlot), now + MAX_BACKLOG);
+        long duration = kind == Kind.DEAL ? DEAL_NANOS : FLIP_NANOS;
+        nextSlot = start + STAGGER_NANOS;
+        busyUntil = Math.max(busyUntil, start + duration);
+        timer.start();
+        return new Motion(kind, start, duration);
+    }
+
+    /**
+     * Works out which cards moved between two snapshots and queues their
+     * motions in the order a dealer would: card by card around the table,
+     * players first, then the dealer. New cards are dealt; a card turned
+     * face up (the hole card) is flipped. A hand that shrank or whose
+     * cards changed is a new round, so all of its cards are dealt again.
+     * @param before Snapshot shown until now, or null for the first one
+     * @param after Snapshot about to be shown
+     */
+    void update(GameSnapshot before, GameSnapshot after) {
+        List<List<GameSnapshot.CardView>> was = new ArrayList<>();
+        List<List<GameSnapshot.CardView>> now = new ArrayList<>();
+        List<Integer> seats = new ArrayList<>();
+        for (int i = 0; i < after.getPlayers().size(); i++) {
+            boolean known = before != null && i < before.getPlayers().size();
+            was.add(known ? before.getPlayers().get(i).getCards() : Collections.emptyList());
+            now.add(after.getPlayers().get(i).getCards());
+            seats.add(i);
+        }
+        was.add(before != null ? before.getDealer().getCards() : Collections.emptyList());
+        now.add(after.getDealer().getCards());
+        seats.add(DEALER);
+
+        // First card index of each hand that is new on the table
+        int[] dealFrom = new int[now.size()];
+        int longest = 0;
+        for (int h = 0; h < now.size(); h++) {
+            dealFrom[h] = isSameRound(was.get(h), now.get(h)) ? was.get(h).size() : 0;
+            longest = Math.max(longest, now.get(h).size());
+        }
+        for (int i = 0; i < longest; i++) {
+            for (int h = 0; h < now.size(); h++) {
+                List<GameSnapshot.CardView> cards = now.get(h);
+                if (i >= cards.size()) {
+                    continue;
+                }
+                if (i >= dealFrom[h]) {
+                    motions.put(key(seats.get(h), i), schedule(Kind.DEAL));
+                } else if (!was.get(h).get(i).isFaceUp() && cards.get(i).isFaceUp()) {
+                    motions.put(key(seats.get(h), i), schedule(Kind.FLIP));
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Whether a hand only gained cards or turned cards face up
+     */
+    private static boolean isSameRound(List<GameSnapshot.CardView> before, List<GameSnapshot.CardView> after) {
+        if (after.size() < before.size()) {
+            return false;
+        }
+        for (int i = 0; i < before.size(); i++) {
+            GameSnapshot.CardView was = before.get(i);
+            GameSnapshot.CardView now = after.get(i);
+            if (was.isFaceUp() && !(was.getRank().equals(now.getRank()) && was.getSuit().equals(now.getSuit()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param seat Seat index, or {@link #DEALER}
+     * @param card Card index within the hand
+     * @return The card's motion, or null if it is at rest
+     */
+    Motion getMotion(int seat, int card) {
+        return motions.isEmpty() ? null : motions.get(key(seat, card));
+    }
+
+    /** Drops finished motions. */
+    private void prune() {
+        long now = now();
+        for (Iterator<Motion> it = motions.values().iterator(); it.hasNext(); ) {
+            if (it.next().isDone(now)) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * @return Key for a card: seat in the high bits, card index in the low
+     */
+    private static long key(int seat, int card) {
+        return ((long) seat << 16) | card;
+    }
+
+    /**
+     * Paints a card at its resting place, or mid-motion.
+     * @param g Graphics to paint with
+     * @param card The card
+     * @param motion Its motion, or null if at rest
+     * @param now Frame clock, from {@link #now()}
+     * @param x Resting x
+     * @param y Resting y
+     * @param fromX Where dealt cards start (x)
+     * @param fromY Where dealt cards start (y)
+     */
+    static void paintCard(Graphics2D g, GameSnapshot.CardView card, Motion motion, long now,
+                          int x, int y, int fromX, int fromY) {
+        if (motion == null) {
+            g.drawImage(CardImages.get(card), x, y, null);
+            return;
+        }
+        double p = motion.progress(now);
+        if (motion.kind == Kind.DEAL) {
+            if (p <= 0) {
+                return; // Still in the shoe
+            }
+            double e = 1 - (1 - p) * (1 - p) * (1 - p); // Ease out: fast off the shoe, settling into place
+            int cx = (int) Math.round(fromX + (x - fromX) * e);
+            int cy = (int) Math.round(fromY + (y - fromY) * e);
+            g.drawImage(CardImages.get(card), cx, cy, null);
+        } else {
+            // Turn over around the card's vertical centre: back shrinks away, face grows in
+            double width = Math.abs(1 - 2 * p);
+            Image image = p < 0.5 ? CardImages.back() : CardImages.get(card);
+            int w = Math.max(1, (int) Math.round(CardImages.CARD_WIDTH * width));
+            g.drawImage(image, x + (CardImages.CARD_WIDTH - w) / 2, y, w, CardImages.CARD_HEIGHT, null);
+        }
+    }
+
+    /**
+     * Records how long a view took to paint.
+     * @param nanos Paint time
+     */
+    void recordPaint(long nanos) {
+        paintTimes.record(nanos);
+    }
+
+    /**
+     * @return Frame metrics since the last reset, e.g. "58 fps, frame p99 18.1ms, 2 dropped, paint p99 0.9ms"
+     */
+    String getFrameStats() {
+        long frames = frameIntervals.getCount();
+        if (frames == 0) {
+            return "no animated frames yet";
+        }
+        double fps = 1e9 / Math.max(1, frameIntervals.getPercentile(50));
+        return String.format("%.0f fps, frame p99 %s, %d dropped of %d, paint p99 %s",
+            fps, LatencyHistogram.format(frameIntervals.getPercentile(99)), droppedFrames,
+            frames + droppedFrames, LatencyHistogram.format(paintTimes.getPercentile(99)));
+    }
+
+    /** Clears the frame metrics. */
+    void resetFrameStats() {
+        frameIntervals.reset();
+        paintTimes.reset();
+        droppedFrames = 0;
+    }
+
+    /**
+     * One frame: run frame tasks, repaint the views, and go idle once
+     * nothing is moving and nothing more was requested.
+     */
+    private void tick() {
+        long now = System.nanoTime();
+        if (lastTick != 0) {
+            long interval = now - lastTick;
+            frameIntervals.record(interval);
+            droppedFrames += Math.max(0, Math.round((double) interval / FRAME_NANOS) - 1);
+        }
+        lastTick = now;
+        frameTime = now;
+
+        if (frameRequested) {
+            frameRequested = false;
+            for (Runnable task : frameTasks) {
+                task.run(); // May schedule new motions
+            }
+        }
+        prune();
+        for (JComponent view : views) {
+            view.repaint();
+        }
+        if (now >= busyUntil && !frameRequested) {
+            timer.stop();
+            lastTick = 0; // Idle gaps aren't frame times
+            frameTime = 0;
+            for (Runnable task : idleTasks) {
+                task.run();
+            }
+        }
+    }
+
+    /**
+     * One card's motion: what it does and when.
+     */
+    static final class Motion {
+        final Kind kind;
+        private final long start;    // Frame clock at which it begins
+        private final long duration; // Nanoseconds
+
+        Motion(Kind kind, long start, long duration) {
+            this.kind = kind;
+            this.start = start;
+            this.duration = duration;
+        }
+
+        /** @return Progress at a time: below 0 before it starts, 1 once done */
+        double progress(long now) {
+            return Math.min(1, (double) (now - start) / duration);
+        }
+
+        /** @return Whether the motion has finished */
+        boolean isDone(long now) {
+            return now - start >= duration;
+        }
+    }
+
+    /**
+     * Accelerated off-screen buffer for one view: the dirty region is
+     * rendered into a VolatileImage (video memory where the pipeline
+     * supports it) and copied to the screen in one blit. Recreated when
+     * the display changes or its contents are lost.
+     */
+    static final class BackBuffer {
+        private final int transparency; // Transparency.OPAQUE or TRANSLUCENT
+        private VolatileImage image;
+
+        /**
+         * @param transparency Transparency.OPAQUE for opaque views, else TRANSLUCENT
+         */
+        BackBuffer(int transparency) {
+            this.transparency = transparency;
+        }
+
+        /**
+         * Renders a region through the buffer.
+         * @param view The view being painted
+         * @param g The view's graphics
+         * @param area Region to render, in view coordinates
+         * @param renderer Paints the region in view coordinates
+         */
+        void paint(JComponent view, Graphics g, Rectangle area, Consumer<Graphics2D> renderer) {
+            GraphicsConfiguration gc = view.getGraphicsConfiguration();
+            if (gc == null || area.isEmpty()) {
+                renderer.accept((Graphics2D) g); // Not on screen: paint directly
+                return;
+            }
+            AffineTransform screen = gc.getDefaultTransform(); // HiDPI scale
+            double scale = Math.max(screen.getScaleX(), 1);
+            int w = (int) Math.ceil(area.width * scale);
+            int h = (int) Math.ceil(area.height * scale);
+            do {
+                if (image == null || image.getWidth() < w || image.getHeight() < h
+                        || image.validate(gc) == VolatileImage.IMAGE_INCOMPATIBLE) {
+                    if (image != null) {
+                        image.flush();
+                    }
+                    // Grow with headroom so scrolling and resizing don't reallocate every frame
+                    int iw = Math.max(w, image == null ? 0 : image.getWidth());
+                    int ih = Math.max(h, image == null ? 0 : image.getHeight());
+                    image = gc.createCompatibleVolatileImage(iw, ih, transparency);
+                }
+                Graphics2D bg = image.createGraphics();
+                if (transparency != Transparency.OPAQUE) {
+                    bg.setComposite(AlphaComposite.Clear);
+                    bg.fillRect(0, 0, w, h);
+                    bg.setComposite(AlphaComposite.SrcOver);
+                }
+                bg.scale(scale, scale);
+                bg.translate(-area.x, -area.y);
+                bg.setClip(area);
+                renderer.accept(bg);
+                bg.dispose();
+                g.drawImage(image, area.x, area.y, area.x + area.width, area.y + area.height,
+                            0, 0, w, h, null);
+            } while (image.contentsLost());
+        }
+    }
+}
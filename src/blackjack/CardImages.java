@@ -0,0 +1,140 @@
+package blackjack;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared cache of scaled card images. Each face is loaded and scaled
+ * once per run, so repainting a table never touches the image files.
+ */
+final class CardImages {
+    static final int CARD_WIDTH = 80;     // Width of each card in pixels
+    static final int CARD_HEIGHT = 120;   // Height of each card in pixels
+
+    private static final Map<String, BufferedImage> FACES = new ConcurrentHashMap<>(); // Keyed by image name
+    private static final BufferedImage BACK = createCardBackImage(); // Shared card back
+
+    private CardImages() {}
+
+    /**
+     * Gets the image for a card: its face if face-up, otherwise the back.
+     * @param card The card to display
+     * @return The scaled card image
+     */
+    static BufferedImage get(GameSnapshot.CardView card) {
+        if (!card.isFaceUp()) {
+            return BACK;
+        }
+        String imageName = card.getRank().toLowerCase() + "_of_" + card.getSuit().toLowerCase() + ".png";
+        return FACES.computeIfAbsent(imageName, name -> loadFace(name, card));
+    }
+
+    /**
+     * @return The shared card back image
+     */
+    static BufferedImage back() {
+        return BACK;
+    }
+
+    /**
+     * Loads and scales a card face from resources
+     * @param imageName Resource file name
+     * @param card The card to represent if loading fails
+     * @return The scaled card image
+     */
+    private static BufferedImage loadFace(String imageName, GameSnapshot.CardView card) {
+        URL imageUrl = CardImages.class.getResource("cards/" + imageName);
+        if (imageUrl == null) {
+            return createFallbackCardImage(card); // Fallback if image missing
+        }
+        try {
+            return scale(ImageIO.read(imageUrl));
+        } catch (IOException e) {
+            return createErrorImage(card); // Fallback if image fails to load
+        }
+    }
+
+    /**
+     * Scales an image to the standard card size
+     * @param source The full-size image
+     * @return The scaled image
+     */
+    private static BufferedImage scale(BufferedImage source) {
+        BufferedImage image = new BufferedImage(CARD_WIDTH, CARD_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g2d.drawImage(source, 0, 0, CARD_WIDTH, CARD_HEIGHT, null);
+        g2d.dispose(); // Clean up graphics
+        return image;
+    }
+
+    /**
+     * Creates an error image when a card image fails to load
+     * @param card The card that failed to load
+     * @return Red card image with the card's name
+     */
+    private static BufferedImage createErrorImage(GameSnapshot.CardView card) {
+        BufferedImage image = new BufferedImage(CARD_WIDTH, CARD_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
+
+        // Red background with white error text
+        g2d.setColor(Color.RED);
+        g2d.fillRect(0, 0, CARD_WIDTH, CARD_HEIGHT);
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(new Font("Arial", Font.BOLD, 12));
+        g2d.drawString("Error", 10, 20);
+        g2d.drawString(card.getRank(), 10, 40);
+        g2d.drawString(card.getSuit(), 10, 60);
+
+        g2d.dispose(); // Clean up graphics
+        return image;
+    }
+
+    /**
+     * Creates a fallback card image when image file is missing
+     * @param card The card to represent
+     * @return Generated card image
+     */
+    private static BufferedImage createFallbackCardImage(GameSnapshot.CardView card) {
+        BufferedImage image = new BufferedImage(CARD_WIDTH, CARD_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
+        
+        // Draw white card with black border
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, CARD_WIDTH, CARD_HEIGHT);
+        g2d.setColor(Color.BLACK);
+        g2d.drawRect(0, 0, CARD_WIDTH-1, CARD_HEIGHT-1);
+        
+        // Draw card rank and suit
+        g2d.setFont(new Font("Arial", Font.BOLD, 12));
+        g2d.drawString(card.getRank(), 10, 20); // Rank at top
+        g2d.drawString(card.getSuit(), 10, 40); // Suit below
+        
+        g2d.dispose(); // Clean up graphics
+        return image;
+    }
+
+    /**
+     * Creates the card back image
+     * @return Generated card back image
+     */
+    private static BufferedImage createCardBackImage() {
+        BufferedImage image = new BufferedImage(CARD_WIDTH, CARD_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = image.createGraphics();
+        
+        // Dark blue background with red border
+        g2d.setColor(new Color(0, 0, 139)); // Dark blue
+        g2d.fillRect(0, 0, CARD_WIDTH, CARD_HEIGHT);
+        g2d.setColor(Color.RED);
+        g2d.setStroke(new BasicStroke(3)); // Thick border
+        g2d.drawRect(5, 5, CARD_WIDTH-10, CARD_HEIGHT-10);
+        
+        g2d.dispose(); // Clean up graphics
+        return image;
+    }
+}
@@ -3,10 +3,7 @@ package blackjack;
 import javax.swing.*;
 import javax.swing.border.*;
 import java.awt.*;
-import java.awt.image.BufferedImage;
-import javax.imageio.ImageIO;
-import java.io.IOException;
-import java.net.URL;
+import java.util.List;
 
 /**
  * Custom JPanel that displays a player's or dealer's hand of cards.
@@ -14,24 +11,34 @@ import java.net.URL;
  */
 public class CardPanel extends JPanel {
     // Constants for card display dimensions
-    private static final int CARD_WIDTH = 80;     // Width of each card in pixels
-    private static final int CARD_HEIGHT = 120;   // Height of each card in pixels
+    private static final int CARD_WIDTH = CardImages.CARD_WIDTH;   // Width of each card in pixels
+    private static final int CARD_HEIGHT = CardImages.CARD_HEIGHT; // Height of each card in pixels
     private static final int CARD_OVERLAP = -10;  // Negative overlap for card stacking effect
     
-    private Player player;       // The player whose cards are displayed
-    private boolean isDealer;    // Whether this panel shows dealer's cards
-    private boolean revealAll;   // Whether to show all cards (face-up)
+    private GameSnapshot.HandView hand; // The hand currently displayed
+    private final CardAnimator animator; // Card motions, or null for a static panel
+    private final int seat;      // Seat id of the hand in the animator
     private JLabel totalLabel;   // Displays the hand's total value
-    private JPanel cardsPanel;   // Panel containing the card images
+    private CardsView cardsPanel; // Paints the card images
 
     /**
-     * Constructs a CardPanel for a specific player.
-     * @param player The player whose cards to display (can be Player or Dealer)
+     * Constructs a CardPanel showing the given hand.
+     * @param hand Snapshot of the player's or dealer's hand
      */
-    public CardPanel(Player player) {
-        this.player = player;
-        this.isDealer = player instanceof Dealer; // Determine if player is actually the dealer
-        this.revealAll = false;  // Start with cards hidden if dealer
+    public CardPanel(GameSnapshot.HandView hand) {
+        this(hand, null, 0);
+    }
+
+    /**
+     * Constructs a CardPanel that animates the given hand's cards.
+     * @param hand Snapshot of the player's or dealer's hand
+     * @param animator Animator whose motions to paint, or null for none
+     * @param seat Seat id of the hand in the animator ({@link CardAnimator#DEALER} for the dealer)
+     */
+    CardPanel(GameSnapshot.HandView hand, CardAnimator animator, int seat) {
+        this.hand = hand;
+        this.animator = animator;
+        this.seat = seat;
         
         // Configure main panel properties
         setLayout(new BorderLayout()); // Use BorderLayout for label above cards
@@ -45,8 +52,8 @@ public class CardPanel extends JPanel {
         totalLabel.setHorizontalAlignment(JLabel.CENTER); // Center the total
         totalLabel.setBorder(new EmptyBorder(0, 0, 10, 0)); // Padding below label
         
-        // Create panel for card images with overlapping layout
-        cardsPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, -CARD_OVERLAP, 0));
+        // Painted row of card images, overlapping when space is tight
+        cardsPanel = new CardsView();
         cardsPanel.setOpaque(false); // Transparent background
         cardsPanel.setPreferredSize(new Dimension(300, CARD_HEIGHT)); // Fixed size
         
@@ -58,25 +65,11 @@ public class CardPanel extends JPanel {
     }
 
     /**
-     * Resets the panel for a new round (hides cards if dealer)
+     * Shows a newer snapshot of the hand
+     * @param hand Snapshot of the player's or dealer's hand
      */
-    public void reset() {
-        this.revealAll = false; // Hide dealer's cards again
-        updateCardDisplay(); // Refresh display
-    }
-
-    /**
-     * Reveals all cards in the hand (used when dealer shows cards)
-     */
-    public void revealAllCards() {
-        this.revealAll = true; // Show all cards
-        updateCardDisplay(); // Refresh display
-    }
-
-    /**
-     * Public method to trigger display update
-     */
-    public void update(){
+    public void update(GameSnapshot.HandView hand) {
+        this.hand = hand;
         updateCardDisplay(); // Refresh display
     }
 
@@ -84,128 +77,65 @@ public class CardPanel extends JPanel {
      * Updates the visual display of cards and total value
      */
     private void updateCardDisplay() {
-        cardsPanel.removeAll(); // Clear current card display
-        
-        Hand hand = player.getHand();
-        // Display each card in the hand
-        for (int i = 0; i < hand.getCards().size(); i++) {
-            Card card = hand.getCards().get(i);
-            // Determine if card should be face-up:
-            // - Always show if revealAll is true
-            // - Show if card is face-up
-            // - Show if not dealer
-            // - Show dealer's first card only
-            boolean showCard = revealAll || card.isFaceUp() || !isDealer || (isDealer && i == 0);
-            
-            try {
-                // Create and add card image label
-                ImageIcon cardIcon = new ImageIcon(getCardImage(card, showCard));
-                JLabel cardLabel = new JLabel(cardIcon);
-                cardLabel.setPreferredSize(new Dimension(CARD_WIDTH, CARD_HEIGHT));
-                cardsPanel.add(cardLabel); // Add to display
-            } catch (IOException e) {
-                // Fallback if card image fails to load
-                JLabel errorLabel = createErrorLabel(card);
-                cardsPanel.add(errorLabel);
-            }
-        }
+        cardsPanel.repaint(); // Cards are painted from the current hand
         
         // Update total value display
-        int value = hand.calculateValue();
-        if (revealAll || !isDealer) {
+        if (hand.isRevealed()) {
             // Show actual total for players or when revealed
-            totalLabel.setText("Total: " + value);
+            totalLabel.setText("Total: " + hand.getTotal());
             // Show total in red if player busted
-            totalLabel.setForeground(player.isBusted() ? Color.RED: Color.BLACK);
+            totalLabel.setForeground(hand.isBusted() ? Color.RED: Color.BLACK);
         } else {
             // Show "?" for dealer's hidden total
-            totalLabel.setText(isDealer ? "Total: ?" : "Total: " + value);
+            totalLabel.setText("Total: ?");
+            totalLabel.setForeground(Color.BLACK);
         }
         
-        // Refresh the display
-        revalidate();
-        repaint();
     }
 
     /**
-     * Gets the appropriate card image (face or back)
-     * @param card The card to display
-     * @param showCard Whether to show card face (true) or back (false)
-     * @return The scaled card image
-     * @throws IOException If image file cannot be read
+     * Paints the hand's cards centered in a row, through a back buffer.
+     * Cards being dealt slide in from the right edge.
      */
-    private Image getCardImage(Card card, boolean showCard) throws IOException {
-        BufferedImage image;
-        if (showCard) {
-            // Load card face image from resources
-            String imageName = card.getRank().toLowerCase() + "_of_" + card.getSuit().toLowerCase() + ".png";
-            URL imageUrl = getClass().getResource("cards/" + imageName);
-            image = imageUrl != null ? 
-                ImageIO.read(imageUrl) : // Load from file
-                createFallbackCardImage(card); // Fallback if image missing
-        } else {
-            image = createCardBackImage(); 
-        }
-        // Scale image to standard size
-        return image.getScaledInstance(CARD_WIDTH, CARD_HEIGHT, Image.SCALE_SMOOTH);
-    }
+    private class CardsView extends JComponent {
+        private final CardAnimator.BackBuffer buffer = new CardAnimator.BackBuffer(Transparency.TRANSLUCENT);
 
-    /**
-     * Creates an error label when card image fails to load
-     * @param card The card that failed to load
-     * @return JLabel displaying error information
-     */
-    private JLabel createErrorLabel(Card card) {
-        JLabel label = new JLabel();
-        label.setPreferredSize(new Dimension(CARD_WIDTH, CARD_HEIGHT));
-        label.setOpaque(true); // Make background visible
-        label.setBackground(Color.RED); // Error background
-        label.setForeground(Color.WHITE); // White text
-        // Display error message with card info
-        label.setText("<html><center>Error<br>" + card.toString() + "</center></html>");
-        return label;
-    }
-
-    /**
-     * Creates a fallback card image when image file is missing
-     * @param card The card to represent
-     * @return Generated card image
-     */
-    private BufferedImage createFallbackCardImage(Card card) {
-        BufferedImage image = new BufferedImage(CARD_WIDTH, CARD_HEIGHT, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g2d = image.createGraphics();
-        
-        // Draw white card with black border
-        g2d.setColor(Color.WHITE);
-        g2d.fillRect(0, 0, CARD_WIDTH, CARD_HEIGHT);
-        g2d.setColor(Color.BLACK);
-        g2d.drawRect(0, 0, CARD_WIDTH-1, CARD_HEIGHT-1);
-        
-        // Draw card rank and suit
-        g2d.setFont(new Font("Arial", Font.BOLD, 12));
-        g2d.drawString(card.getRank(), 10, 20); // Rank at top
-        g2d.drawString(card.getSuit(), 10, 40); // Suit below
-        
-        g2d.dispose(); // Clean up graphics
-        return image;
-    }
+        @Override
+        protected void paintComponent(Graphics g) {
+            long start = System.nanoTime();
+            Rectangle clip = g.getClipBounds();
+            if (clip == null) {
+                clip = new Rectangle(0, 0, getWidth(), getHeight());
+            }
+            buffer.paint(this, g, clip, this::paintCards);
+            if (animator != null) {
+                animator.recordPaint(System.nanoTime() - start);
+            }
+        }
 
-    /**
-     * Creates a fallback card back image
-     * @return Generated card back image
-     */
-    private BufferedImage createCardBackImage() {
-        BufferedImage image = new BufferedImage(CARD_WIDTH, CARD_HEIGHT, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g2d = image.createGraphics();
-        
-        // Dark blue background with red border
-        g2d.setColor(new Color(0, 0, 139)); // Dark blue
-        g2d.fillRect(0, 0, CARD_WIDTH, CARD_HEIGHT);
-        g2d.setColor(Color.RED);
-        g2d.setStroke(new BasicStroke(3)); // Thick border
-        g2d.drawRect(5, 5, CARD_WIDTH-10, CARD_HEIGHT-10);
-        
-        g2d.dispose(); // Clean up graphics
-        return image;
+        private void paintCards(Graphics2D g2d) {
+            List<GameSnapshot.CardView> cards = hand.getCards();
+            if (cards.isEmpty()) {
+                return;
+            }
+            int step = CARD_WIDTH - CARD_OVERLAP;
+            if (cards.size() > 1 && CARD_WIDTH + step * (cards.size() - 1) > getWidth()) {
+                step = Math.max(1, (getWidth() - CARD_WIDTH) / (cards.size() - 1));
+            }
+            int x = (getWidth() - CARD_WIDTH - step * (cards.size() - 1)) / 2;
+            long now = animator == null ? 0 : animator.now();
+            // Settled and flipping cards first, then cards in flight on top
+            for (int pass = 0; pass < 2; pass++) {
+                int cx = x;
+                for (int c = 0; c < cards.size(); c++) {
+                    CardAnimator.Motion motion = animator == null ? null : animator.getMotion(seat, c);
+                    boolean dealing = motion != null && motion.kind == CardAnimator.Kind.DEAL;
+                    if (dealing == (pass == 1)) {
+                        CardAnimator.paintCard(g2d, cards.get(c), motion, now, cx, 0, getWidth(), 0);
+                    }
+                    cx += step;
+                }
+            }
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,688 @@
+package blackjack;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Headless commands, selected by Main's arguments. Nothing here touches
+ * AWT or Swing, so a batch job pays only for the JVM and the game core.
+ */
+final class Cli {
+    private static final String USAGE = String.join(System.lineSeparator(),
+        "usage: java -jar blackjack-game.jar [command] [options]",
+        "  (no command)              start the Swing game",
+        "  overview [TABLES] [SEATS] watch bots play many tables in one window (default 24 x 4)",
+        "  simulate ROUNDS           [--seats N] [--stand-on N] [--seed S] [--workers W]",
+        "                            [--csm DECKS] [--history FILE]",
+        "  tournament ROUNDS TABLES  [--seed S] [--threads T] [--stand-on 12,13,...]",
+        "  loadtest TABLES RATE      [--steps N] [--seconds S] [--seats N] [--threads T]",
+        "  leaderboard TABLES ROUNDS [--seats N] [--threads T] [--top K]",
+        "  contention                [--tables N] [--seats N] [--threads T] [--seconds S]",
+        "  spectate ROUNDS SPECTATORS  broadcast one table to many watchers",
+        "                            [--seats N] [--threads T] [--slow-millis MS]",
+        "  replay FILE               [--limit ROWS]",
+        "  query FILE                [--upcard V] [--total T] [--soft|--hard] [--hit|--stand]",
+        "                            [--outcome win|lose|push]",
+        "  table [NAME...]           [--seats N] [--csm DECKS] [--profiles DIR]  play at the terminal",
+        "  profiles [NAME...]        [--profiles DIR]  lifetime stats (default dir ~/.blackjack21)",
+        "  help");
+
+    private Cli() {}
+
+    /**
+     * Runs one command.
+     * @param argv Command followed by its arguments
+     * @return Process exit status: 0 on success, 1 on failure, 2 on bad usage
+     */
+    static int run(String[] argv) {
+        PrintStream out = System.out;
+        try {
+            Args args = new Args(argv);
+            switch (args.command) {
+                case "simulate":
+                    simulate(args, out);
+                    break;
+                case "tournament":
+                    tournament(args, out);
+                    break;
+                case "loadtest":
+                    loadTest(args, out);
+                    break;
+                case "leaderboard":
+                    leaderboard(args, out);
+                    break;
+                case "contention":
+                    contention(args, out);
+                    break;
+                case "spectate":
+                    spectate(args, out);
+                    break;
+                case "replay":
+                    replay(args, out);
+                    break;
+                case "query":
+                    query(args, out);
+                    break;
+                case "table":
+                    table(args, new BufferedReader(new InputStreamReader(System.in)), out);
+                    break;
+                case "profiles":
+                    profiles(args, out);
+                    break;
+                case "help":
+                case "--help":
+                case "-h":
+                    out.println(USAGE);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown command: " + args.command);
+            }
+            return 0;
+        } catch (IllegalArgumentException e) {
+            System.err.println("error: " + e.getMessage());
+            System.err.println(USAGE);
+            return 2;
+        } catch (IOException e) {
+            System.err.println("error: " + e.getMessage());
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        }
+    }
+
+    /**
+     * Plays rounds with every seat on a stand-on-N strategy. Seeded decks
+     * per round by default, or a continuous shuffler with --csm; with
+     * --workers the rounds are sharded across worker JVMs.
+     */
+    private static void simulate(Args args, PrintStream out) throws IOException, InterruptedException {
+        long rounds = args.longAt(0, "ROUNDS");
+        int seats = args.intOption("seats", 1);
+        int standOn = args.intOption("stand-on", 17);
+        long seed = args.longOption("seed", 1L);
+        int workers = args.intOption("workers", 0);
+        int csm = args.intOption("csm", 0);
+        String history = args.option("history", null);
+        checkShoe(csm, seats);
+        long start = System.nanoTime();
+
+        SimulationStats stats;
+        if (workers > 0) {
+            if (csm > 0 || history != null) {
+                throw new IllegalArgumentException("--workers can't be combined with --csm or --history");
+            }
+            long shardRounds = Math.max(1, Math.min(1_000_000, rounds / (workers * 8L)));
+            stats = new SimulationCoordinator(workers, shardRounds, workers * 2).run(seed, rounds, seats, standOn);
+        } else if (csm == 0 && history == null) {
+            stats = Simulator.run(seed, 0, rounds, seats, new ThresholdStrategy(standOn));
+        } else {
+            Supplier<Deck> shoes;
+            if (csm > 0) {
+                ContinuousShuffleDeck machine = new ContinuousShuffleDeck(csm, seed);
+                shoes = () -> machine; // Only asked once; the game keeps feeding it
+            } else {
+                shoes = Simulator.seededShoes(seed, 0, Deck.decksFor(seats));
+            }
+            Game game = new Game(Simulator.seatNames(seats), shoes);
+            HandHistoryWriter writer = history == null ? null  // Batch run: slow down rather than drop hands
+                : new HandHistoryWriter(Paths.get(history), HandHistoryWriter.DEFAULT_ROWS_PER_GROUP, true);
+            try {
+                if (writer != null) {
+                    game.addRoundListener(writer);
+                }
+                stats = rounds > 0 ? Simulator.play(game, rounds, new ThresholdStrategy(standOn))
+                    : new SimulationStats();
+            } finally {
+                if (writer != null) {
+                    writer.close(); // Flushes the last row group and writes the footer
+                }
+            }
+        }
+        out.println(stats);
+        out.printf("%.2f s%n", (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Round-robin tournament between stand-on-N strategies.
+     */
+    private static void tournament(Args args, PrintStream out) throws InterruptedException {
+        long rounds = args.longAt(0, "ROUNDS");
+        int tables = (int) args.longAt(1, "TABLES");
+        long seed = args.longOption("seed", 1L);
+        int threads = args.intOption("threads", Runtime.getRuntime().availableProcessors());
+        List<Strategy> strategies = new ArrayList<>();
+        for (String standOn : args.option("stand-on", "12,13,14,15,16,17,18").split(",")) {
+            strategies.add(new ThresholdStrategy(parseInt(standOn.trim(), "--stand-on")));
+        }
+        long start = System.nanoTime();
+        out.print(new Tournament(strategies, threads).run(seed, tables, rounds));
+        out.printf("%.2f s on %d threads%n", (System.nanoTime() - start) / 1e9, threads);
+    }
+
+    /**
+     * Steps up load on in-process tables until they saturate.
+     */
+    private static void loadTest(Args args, PrintStream out) throws InterruptedException {
+        int tables = (int) args.longAt(0, "TABLES");
+        double rate = args.doubleAt(1, "RATE");
+        int seats = args.intOption("seats", 2);
+        int threads = args.intOption("threads", Runtime.getRuntime().availableProcessors());
+        LoadTest test = new LoadTest(tables, seats, threads, new ThresholdStrategy(17));
+        out.printf("%d tables x %d seats on %d threads%n", tables, seats, threads);
+        test.stepUp(rate, args.intOption("steps", 6), args.doubleOption("seconds", 5), out);
+    }
+
+    /**
+     * Plays many tables at once, every one feeding a shared leaderboard,
+     * and prints the leaders. Each seat is a distinct player standing on
+     * 12-18, so the boards have something to sort.
+     */
+    private static void leaderboard(Args args, PrintStream out) throws InterruptedException {
+        int tables = (int) args.longAt(0, "TABLES");
+        long rounds = args.longAt(1, "ROUNDS");
+        int seats = args.intOption("seats", 3);
+        int threads = args.intOption("threads", Runtime.getRuntime().availableProcessors());
+        Leaderboard board = new Leaderboard(args.intOption("top", 10));
+        List<Thread> workers = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int w = 0; w < threads; w++) {
+            int first = w;
+            Thread worker = new Thread(() -> {
+                // This thread's tables take turns, so every table is live at once
+                List<Game> games = new ArrayList<>();
+                List<List<Strategy>> strategies = new ArrayList<>();
+                for (int t = first; t < tables; t += threads) {
+                    List<String> names = new ArrayList<>();
+                    List<Strategy> bySeat = new ArrayList<>();
+                    for (int s = 0; s < seats; s++) {
+                        names.add("T" + (t + 1) + "-S" + (s + 1));
+                        bySeat.add(new ThresholdStrategy(12 + (t * seats + s) % 7));
+                    }
+                    Game game = new Game(names, Simulator.seededShoes(t, 0, Deck.decksFor(seats)));
+                    game.addRoundListener(board);
+                    games.add(game);
+                    strategies.add(bySeat);
+                }
+                for (long r = 0; r < rounds; r++) {
+                    for (int i = 0; i < games.size(); i++) {
+                        if (r > 0) {
+                            games.get(i).reset();
+                        }
+                        Simulator.playSeats(games.get(i), strategies.get(i));
+                    }
+                }
+            }, "leaderboard-" + w);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        out.print(board);
+        out.printf("%.2f s on %d threads, %,.0f rounds/s%n", seconds, threads, board.getRounds() / seconds);
+    }
+
+    /**
+     * Concurrent seat actions on shared tables, locked versus optimistic.
+     */
+    private static void contention(Args args, PrintStream out) throws InterruptedException {
+        int seats = args.intOption("seats", 4);
+        ContentionBenchmark benchmark = new ContentionBenchmark(args.intOption("tables", 1), seats,
+            args.intOption("threads", seats));
+        benchmark.compare(args.doubleOption("seconds", 3), out);
+    }
+
+    /**
+     * Broadcasts one bot-played table to many spectators: the first one
+     * sleeps after every batch, so it falls behind and is resynced, and
+     * one more joins halfway. Reports what was delivered and whether
+     * every spectator ended with the game's table.
+     */
+    private static void spectate(Args args, PrintStream out) throws InterruptedException {
+        long rounds = args.longAt(0, "ROUNDS");
+        int count = (int) args.longAt(1, "SPECTATORS");
+        if (count < 1) {
+            throw new IllegalArgumentException("SPECTATORS must be at least 1");
+        }
+        int seats = args.intOption("seats", 3);
+        int threads = args.intOption("threads", Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        long slowMillis = args.longOption("slow-millis", 50);
+        List<String> names = Simulator.seatNames(seats);
+        Game game = new Game(names, Simulator.seededShoes(1, 0, Deck.decksFor(seats)));
+        Strategy strategy = new ThresholdStrategy(17);
+        List<Follower> followers = new ArrayList<>();
+        List<TableBroadcaster.Subscription> subscriptions = new ArrayList<>();
+        long start = System.nanoTime();
+        try (TableBroadcaster broadcaster = new TableBroadcaster(game, threads)) {
+            for (int i = 0; i < count; i++) {
+                followers.add(new Follower(i == 0 ? slowMillis : 0));
+                subscriptions.add(broadcaster.subscribe(followers.get(i)));
+            }
+            for (long r = 0; r < rounds; r++) {
+                if (r == rounds / 2) {
+                    followers.add(new Follower(0)); // Late joiner
+                    subscriptions.add(broadcaster.subscribe(followers.get(count)));
+                }
+                Simulator.playSeats(game, strategy);
+                game.nextRound();
+            }
+            double playSeconds = (System.nanoTime() - start) / 1e9;
+
+            SpectatorTable expected = new SpectatorTable(names);
+            TableListener reference = expected::apply;
+            game.attachTableListener(reference); // The table as it is now
+            game.removeTableListener(reference);
+            long deadline = System.nanoTime() + 30_000_000_000L;
+            int behind = followers.size();
+            while (behind > 0 && System.nanoTime() < deadline) {
+                behind = 0;
+                for (Follower follower : followers) {
+                    if (!follower.shows(expected)) {
+                        behind++;
+                    }
+                }
+                if (behind > 0) {
+                    Thread.sleep(10);
+                }
+            }
+
+            long deltas = 0;
+            long batches = 0;
+            long resyncs = 0;
+            for (int i = 0; i < followers.size(); i++) {
+                Follower follower = followers.get(i);
+                synchronized (follower) {
+                    deltas += follower.deltas;
+                    batches += follower.batches;
+                }
+                resyncs += subscriptions.get(i).getResyncCount();
+            }
+            out.printf("%,d rounds, %,d deltas in %.2f s; %d spectators (+1 late) on %d delivery threads%n",
+                rounds, broadcaster.getDeltaCount(), playSeconds, count, threads);
+            out.printf("delivered %,d deltas in %,d batches; %d resyncs, %d of them the slow spectator's%n",
+                deltas, batches, resyncs, subscriptions.get(0).getResyncCount());
+            out.println(behind == 0 ? "every spectator shows the game's table"
+                        : behind + " of " + followers.size() + " spectators did not catch up in 30 s");
+        }
+    }
+
+    /**
+     * Prints the rows of a hand-history file, one seat per line.
+     */
+    private static void replay(Args args, PrintStream out) throws IOException {
+        long limit = args.longOption("limit", Long.MAX_VALUE);
+        long printed = 0;
+        try (HandHistoryReader reader = new HandHistoryReader(path(args))) {
+            out.println("round seat cards     actions upcard total dealer outcome");
+            for (int g = 0; g < reader.getRowGroupCount() && printed < limit; g++) {
+                HandHistoryReader.RowGroup group = reader.readRowGroup(g);
+                for (int row = 0; row < group.size() && printed < limit; row++, printed++) {
+                    out.printf("%5d %4d %-4s %-4s %-7s %-6s %5d %6d %s%n",
+                        group.getRound(row), group.getSeat(row),
+                        shortName(group.getFirstCard(row)), shortName(group.getSecondCard(row)),
+                        group.getActions(row).isEmpty() ? "-" : group.getActions(row),
+                        shortName(group.getDealerUpcard(row)), group.getTotal(row),
+                        group.getDealerTotal(row), group.getOutcome(row).name().toLowerCase());
+                }
+            }
+            out.printf("%,d of %,d rows%n", printed, reader.getRowCount());
+        }
+    }
+
+    /**
+     * Aggregates the hands in a hand-history file matching a filter.
+     */
+    private static void query(Args args, PrintStream out) throws IOException {
+        HandIndex.Query q = HandIndex.Query.all();
+        if (args.has("upcard")) {
+            String upcard = args.option("upcard", null);
+            q.upcard(upcard.equalsIgnoreCase("A") ? 11 : parseInt(upcard, "--upcard"));
+        }
+        if (args.has("total")) {
+            q.startingTotal(args.intOption("total", 0));
+        }
+        if (args.flag("soft") || args.flag("hard")) {
+            q.soft(args.flag("soft"));
+        }
+        if (args.flag("hit") || args.flag("stand")) {
+            q.hit(args.flag("hit"));
+        }
+        if (args.has("outcome")) {
+            q.outcome(parseOutcome(args.option("outcome", null)));
+        }
+
+        HandIndex index = new HandIndex();
+        try (HandHistoryReader reader = new HandHistoryReader(path(args))) {
+            index.addAll(reader);
+        }
+        out.println(q + ": " + index.query(q));
+    }
+
+    /**
+     * Prints lifetime stats for the named players, or for everyone.
+     */
+    private static void profiles(Args args, PrintStream out) throws IOException {
+        try (ProfileStore store = new ProfileStore(profileDirectory(args))) {
+            if (args.positional.isEmpty()) {
+                for (ProfileStore.Profile profile : store.getAll()) {
+                    out.println(profile);
+                }
+            } else {
+                for (String name : args.positional) {
+                    ProfileStore.Profile profile = store.get(name);
+                    out.println(profile != null ? profile : name + ": no hands played");
+                }
+            }
+        }
+    }
+
+    /** @return Directory from --profiles, or the default */
+    private static Path profileDirectory(Args args) {
+        String dir = args.option("profiles", null);
+        return dir == null ? ProfileStore.defaultDirectory() : Paths.get(dir);
+    }
+
+    /**
+     * Text-mode table: hit, stand and new rounds from standard input.
+     * @param in Player commands, one per line
+     * @param out Table display
+     */
+    static void table(Args args, BufferedReader in, PrintStream out) throws IOException {
+        List<String> names = new ArrayList<>(args.positional);
+        if (names.isEmpty()) {
+            names = Simulator.seatNames(args.intOption("seats", 1));
+        }
+        int csm = args.intOption("csm", 0);
+        checkShoe(csm, names.size());
+        Game game;
+        if (csm > 0) {
+            ContinuousShuffleDeck machine = new ContinuousShuffleDeck(csm);
+            game = new Game(names, () -> machine);
+        } else {
+            game = new Game(names);
+        }
+        ProfileStore profiles = null;
+        try {
+            profiles = new ProfileStore(profileDirectory(args));
+            game.addRoundListener(profiles);
+        } catch (IOException e) {
+            out.println("Profiles disabled: " + e.getMessage());
+        }
+        try {
+            play(game, profiles, in, out);
+        } finally {
+            if (profiles != null) {
+                profiles.close(); // Writes anything still queued
+            }
+        }
+    }
+
+    /**
+     * Runs the table's prompt loop until quit or end of input.
+     */
+    private static void play(Game game, ProfileStore profiles, BufferedReader in, PrintStream out)
+            throws IOException {
+        while (true) {
+            printTable(game, out);
+            boolean playing = game.getState() == Game.GameState.PLAYER_TURN;
+            if (playing) {
+                Player current = game.getCurrentPlayer();
+                out.print(current.getName() + " (" + current.getHand().calculateValue()
+                    + ") - [h]it, [s]tand, [q]uit> ");
+            } else {
+                for (String line : game.determineWinners()) {
+                    out.println(line);
+                }
+                if (profiles != null) {
+                    for (Player player : game.getPlayers()) {
+                        out.println("  " + profiles.get(player.getName()));
+                    }
+                }
+                out.print("[n]ew round, [q]uit> ");
+            }
+            out.flush();
+
+            String line = in.readLine();
+            if (line == null) {
+                out.println();
+                return; // End of input
+            }
+            String command = line.trim().toLowerCase();
+            if (command.startsWith("q")) {
+                return;
+            } else if (playing && command.startsWith("h")) {
+                game.playerHit();
+            } else if (playing && command.startsWith("s")) {
+                game.playerStand();
+            } else if (!playing && command.startsWith("n")) {
+                game.reset();
+            } else {
+                out.println("?");
+            }
+        }
+    }
+
+    /**
+     * Prints the dealer and every seat, one line each.
+     */
+    private static void printTable(Game game, PrintStream out) {
+        out.println();
+        out.println("Round " + (game.getRoundNumber() + 1));
+        Hand dealer = game.getDealer().getHand();
+        boolean revealed = game.getState() == Game.GameState.GAME_OVER;
+        out.println("  Dealer    " + cards(dealer) + (revealed ? " = " + dealer.calculateValue() : ""));
+        List<Player> players = game.getPlayers();
+        for (int i = 0; i < players.size(); i++) {
+            Player player = players.get(i);
+            boolean current = !revealed && i == game.getCurrentPlayerIndex();
+            String status = player.isBusted() ? " BUST" : player.isStanding() ? " stand" : "";
+            out.println((current ? "> " : "  ") + pad(player.getName(), 9) + " " + cards(player.getHand())
+                + " = " + player.getHand().calculateValue() + status);
+        }
+    }
+
+    /** @return Cards in short form, face-down ones as "??" */
+    private static String cards(Hand hand) {
+        StringBuilder sb = new StringBuilder();
+        for (Card card : hand.getCards()) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(card.isFaceUp() ? shortName(card.getCode()) : "??");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Rejects a continuous shuffler too small to deal one round at the table.
+     * @param csm Decks in the shuffler, or 0 for none
+     * @param seats Player seats
+     */
+    private static void checkShoe(int csm, int seats) {
+        if (csm > 0 && csm < Deck.decksFor(seats)) {
+            throw new IllegalArgumentException("--csm " + csm + " is too few decks for " + seats
+                                               + " seats; use at least " + Deck.decksFor(seats));
+        }
+    }
+
+    /**
+     * @param code Card code (0-51)
+     * @return Short name such as "10h", "Qs" or "Ad"
+     */
+    static String shortName(int code) {
+        Card card = Card.fromCode(code);
+        String rank = card.getRank();
+        if (rank.length() > 2) {
+            rank = rank.substring(0, 1).toUpperCase(); // jack, queen, king, ace
+        }
+        return rank + card.getSuit().charAt(0);
+    }
+
+    private static String pad(String s, int width) {
+        StringBuilder sb = new StringBuilder(s);
+        while (sb.length() < width) {
+            sb.append(' ');
+        }
+        return sb.toString();
+    }
+
+    private static Path path(Args args) {
+        if (args.positional.isEmpty()) {
+            throw new IllegalArgumentException(args.command + " needs a FILE");
+        }
+        return Paths.get(args.positional.get(0));
+    }
+
+    private static Game.Outcome parseOutcome(String value) {
+        for (Game.Outcome outcome : Game.Outcome.values()) {
+            if (outcome.name().equalsIgnoreCase(value)) {
+                return outcome;
+            }
+        }
+        throw new IllegalArgumentException("--outcome must be win, lose or push");
+    }
+
+    private static int parseInt(String value, String name) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a whole number, got " + value);
+        }
+    }
+
+    /**
+     * A spectator for the spectate command: keeps its own table from the
+     * snapshots and deltas it receives, optionally sleeping after each batch.
+     */
+    private static final class Follower implements TableBroadcaster.Spectator {
+        private final long sleepMillis; // Pause after each batch, to play a slow consumer
+        private SpectatorTable table;   // Null until the first snapshot
+        long deltas;                    // Deltas applied
+        long batches;                   // onDeltas calls
+
+        Follower(long sleepMillis) {
+            this.sleepMillis = sleepMillis;
+        }
+
+        @Override
+        public synchronized void onSnapshot(SpectatorTable snapshot) {
+            table = snapshot;
+        }
+
+        @Override
+        public void onDeltas(long[] batch, int count) {
+            synchronized (this) {
+                for (int i = 0; i < count; i++) {
+                    table.apply(batch[i]);
+                }
+                deltas += count;
+                batches++;
+            }
+            if (sleepMillis > 0) {
+                try {
+                    Thread.sleep(sleepMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        synchronized boolean shows(SpectatorTable expected) {
+            return table != null && table.equals(expected);
+        }
+    }
+
+    /**
+     * Command, positional arguments, "--name value" options and "--flag"s.
+     */
+    static final class Args {
+        private static final List<String> FLAGS = Arrays.asList("soft", "hard", "hit", "stand"); // Take no value
+
+        final String command;
+        final List<String> positional = new ArrayList<>();
+        private final Map<String, String> options = new HashMap<>();
+
+        Args(String[] argv) {
+            command = argv.length == 0 ? "help" : argv[0];
+            for (int i = 1; i < argv.length; i++) {
+                String arg = argv[i];
+                if (arg.startsWith("--") && arg.length() > 2) {
+                    String name = arg.substring(2);
+                    boolean hasValue = !FLAGS.contains(name) && i + 1 < argv.length;
+                    options.put(name, hasValue ? argv[++i] : "");
+                } else {
+                    positional.add(arg);
+                }
+            }
+        }
+
+        boolean has(String name) { return options.containsKey(name); }
+
+        boolean flag(String name) { return options.containsKey(name); }
+
+        String option(String name, String fallback) {
+            String value = options.get(name);
+            if (value != null && value.isEmpty()) {
+                throw new IllegalArgumentException("--" + name + " needs a value");
+            }
+            return value == null ? fallback : value;
+        }
+
+        int intOption(String name, int fallback) {
+            String value = option(name, null);
+            return value == null ? fallback : parseInt(value, "--" + name);
+        }
+
+        long longOption(String name, long fallback) {
+            String value = option(name, null);
+            try {
+                return value == null ? fallback : Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("--" + name + " must be a whole number, got " + value);
+            }
+        }
+
+        double doubleOption(String name, double fallback) {
+            String value = option(name, null);
+            try {
+                return value == null ? fallback : Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("--" + name + " must be a number, got " + value);
+            }
+        }
+
+        long longAt(int index, String name) {
+            if (index >= positional.size()) {
+                throw new IllegalArgumentException(command + " needs " + name);
+            }
+            try {
+                return Long.parseLong(positional.get(index));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(name + " must be a whole number, got " + positional.get(index));
+            }
+        }
+
+        double doubleAt(int index, String name) {
+            if (index >= positional.size()) {
+                throw new IllegalArgumentException(command + " needs " + name);
+            }
+            try {
+                return Double.parseDouble(positional.get(index));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(name + " must be a number, got " + positional.get(index));
+            }
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package blackjack;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Closed-loop benchmark of concurrent seat actions. Threads hammer their
+ * seats as fast as they can, so most attempts are out of turn, and the
+ * run is repeated with the table locked around every attempt (what
+ * callers had to do before Game was thread-safe) for comparison.
+ */
+public class ContentionBenchmark {
+    private static final int SAMPLE = 16; // Time one attempt in this many
+
+    private final int tables;  // Tables shared by the threads
+    private final int seats;   // Seats per table
+    private final int threads; // Threads; seat (table, s) belongs to thread (table * seats + s) % threads
+    private final ShoePool shoes; // Shoes for every run's tables
+
+    /**
+     * @param tables Tables shared by the threads
+     * @param seats Seats per table
+     * @param threads Threads issuing actions
+     */
+    public ContentionBenchmark(int tables, int seats, int threads) {
+        if (tables < 1 || seats < 1 || threads < 1) {
+            throw new IllegalArgumentException("Need at least one table, seat and thread");
+        }
+        this.tables = tables;
+        this.seats = seats;
+        this.threads = threads;
+        this.shoes = ShoePool.forTables(tables, seats);
+    }
+
+    /**
+     * Runs one measurement on fresh tables.
+     * @param locked true to lock the table around every attempt, false
+     *               for Game's lock-free out-of-turn rejection
+     * @param seconds How long to run
+     * @return Measurements
+     * @throws InterruptedException If interrupted while waiting for the threads
+     */
+    public Run run(boolean locked, double seconds) throws InterruptedException {
+        List<Game> games = new ArrayList<>();
+        for (int i = 0; i < tables; i++) {
+            games.add(new Game(Simulator.seatNames(seats), shoes));
+        }
+        Strategy strategy = new ThresholdStrategy(17);
+        Run run = new Run(locked);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        List<Run> parts = new ArrayList<>();
+        long[] end = new long[1];
+
+        for (int t = 0; t < threads; t++) {
+            List<int[]> owned = new ArrayList<>(); // (table, seat) pairs
+            for (int i = t; i < tables * seats; i += threads) {
+                owned.add(new int[] {i / seats, i % seats});
+            }
+            Run part = new Run(locked);
+            parts.add(part);
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long n = 0;
+                while (!owned.isEmpty() && System.nanoTime() < end[0]) {
+                    boolean progressed = false;
+                    for (int[] seat : owned) {
+                        Game game = games.get(seat[0]);
+                        boolean timed = n++ % SAMPLE == 0;
+                        long t0 = timed ? System.nanoTime() : 0;
+                        boolean accepted;
+                        if (locked) {
+                            synchronized (game) {
+                                accepted = attempt(game, seat[1], strategy);
+                            }
+                        } else {
+                            accepted = attempt(game, seat[1], strategy);
+                        }
+                        if (timed) {
+                            (accepted ? part.accepted : part.rejected).record(System.nanoTime() - t0);
+                        }
+                        if (accepted) {
+                            part.acceptedCount++;
+                            progressed = true;
+                        }
+                        part.attempts++;
+                    }
+                    if (!progressed) {
+                        Thread.yield(); // Let the seat whose turn it is run (matters with few cores)
+                    }
+                }
+            }, "contention-" + t);
+            worker.setDaemon(true);
+            workers.add(worker);
+        }
+
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        long begin = System.nanoTime();
+        end[0] = begin + (long) (seconds * 1e9); // Published to the workers by the latch
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        run.elapsed = System.nanoTime() - begin;
+        for (Run part : parts) {
+            run.merge(part);
+        }
+        return run;
+    }
+
+    /**
+     * One attempt by a seat: deal the next round if it's over, otherwise
+     * hit or stand if it's this seat's turn.
+     * @return true if the table changed
+     */
+    private static boolean attempt(Game game, int seat, Strategy strategy) {
+        long round = game.getRoundNumber(); // Read first: a later round turns the action away
+        if (game.nextRound(round)) {
+            return true;
+        }
+        if (game.getActingSeat() != seat) {
+            return false;
+        }
+        Card upcard = game.getDealer().getHand().getCards().get(0);
+        Hand hand = game.getPlayers().get(seat).getHand();
+        return strategy.shouldHit(hand, upcard) ? game.playerHit(seat, round) : game.playerStand(seat, round);
+    }
+
+    /**
+     * Results of one run: attempt counts and sampled latencies, split by
+     * whether the attempt was accepted.
+     */
+    public static class Run {
+        private final boolean locked;
+        private final LatencyHistogram accepted = new LatencyHistogram(); // Sampled accepted attempts
+        private final LatencyHistogram rejected = new LatencyHistogram(); // Sampled out-of-turn attempts
+        private long attempts;
+        private long acceptedCount;
+        private long elapsed; // Nanoseconds
+
+        Run(boolean locked) {
+            this.locked = locked;
+        }
+
+        void merge(Run other) {
+            accepted.merge(other.accepted);
+            rejected.merge(other.rejected);
+            attempts += other.attempts;
+            acceptedCount += other.acceptedCount;
+        }
+
+        /** @return Attempts per second, accepted or not */
+        public double getAttemptRate() { return attempts * 1e9 / elapsed; }
+
+        /** @return Accepted actions per second */
+        public double getAcceptedRate() { return acceptedCount * 1e9 / elapsed; }
+
+        public LatencyHistogram getAcceptedLatency() { return accepted; }
+        public LatencyHistogram getRejectedLatency() { return rejected; }
+
+        @Override
+        public String toString() {
+            return String.format("%-10s %,13.0f attempts/s %,11.0f accepted/s%n"
+                    + "           accepted %s%n           rejected %s",
+                locked ? "locked" : "optimistic", getAttemptRate(), getAcceptedRate(), accepted, rejected);
+        }
+    }
+
+    /**
+     * Compares locked and optimistic runs.
+     * Usage: ContentionBenchmark [tables] [seats] [threads] [seconds]
+     */
+    public static void main(String[] args) throws Exception {
+        int tables = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        int seats = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : seats;
+        double seconds = args.length > 3 ? Double.parseDouble(args[3]) : 3;
+        new ContentionBenchmark(tables, seats, threads).compare(seconds, System.out);
+    }
+
+    /**
+     * Warms up, then runs locked and optimistic once each and prints both.
+     * @param seconds Duration of each measured run
+     * @param out Where results are printed
+     * @throws InterruptedException If interrupted mid-run
+     */
+    public void compare(double seconds, PrintStream out) throws InterruptedException {
+        out.printf("%d table(s) x %d seats, %d threads%n", tables, seats, threads);
+        run(false, Math.min(1, seconds)); // Warm-up
+        run(true, Math.min(1, seconds));
+        out.println(run(true, seconds));
+        out.println(run(false, seconds));
+    }
+}
@@ -0,0 +1,327 @@
+package blackjack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Continuous shuffling machine: the cards of each finished round go back
+ * into the machine at random positions instead of waiting for a new shoe.
+ *
+ * <p>The machine's contents are an implicit treap (a randomized balanced
+ * tree ordered by position rather than by key), so dealing the top card
+ * and inserting a card at any position are both O(log n). Nodes live in
+ * parallel arrays and are recycled, so steady play allocates nothing.
+ * Card order depends only on the seed and the sequence of deals and
+ * discards, so a game using this deck is reproducible and checkpointable.
+ */
+public class ContinuousShuffleDeck extends Deck {
+    private static final int NONE = -1; // Null link
+
+    private final int decks;  // 52-card decks loaded into the machine
+    private long state;       // Random state for insert positions (plain, so it can be checkpointed)
+    private int priorityState; // Random state for tree priorities (order-independent)
+
+    // Treap nodes: card code, heap priority, children and subtree size
+    private byte[] code;
+    private int[] priority;
+    private int[] left;
+    private int[] right;
+    private int[] size;
+    private int root = NONE;
+    private int free = NONE;  // Recycled nodes, linked through left[]
+    private int used;         // Nodes ever allocated
+
+    private final int[] composition = new int[12]; // Cards in the machine by value
+
+    /**
+     * Creates a machine loaded with shuffled decks and a random seed.
+     * @param decks Number of 52-card decks
+     */
+    public ContinuousShuffleDeck(int decks) {
+        this(decks, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Creates a machine whose order is fully determined by the seed.
+     * @param decks Number of 52-card decks
+     * @param seed Seed for the machine's random source
+     */
+    public ContinuousShuffleDeck(int decks, long seed) {
+        this(decks, Collections.emptyList(), seed);
+        for (int d = 0; d < decks; d++) {
+            loadDeck();
+        }
+    }
+
+    /**
+     * Recreates a machine exactly as captured by a checkpoint.
+     * @param decks Number of 52-card decks
+     * @param cards Cards in the machine, top first
+     * @param state Random state for the next insert
+     */
+    ContinuousShuffleDeck(int decks, List<Card> cards, long state) {
+        super(Collections.emptyList(), 0); // The inherited card list stays empty
+        if (decks < 1 || decks > 255) {
+            throw new IllegalArgumentException("A shuffler holds 1-255 decks");
+        }
+        this.decks = decks;
+        this.state = state;
+        this.priorityState = (int) (state ^ (state >>> 32)) | 1; // Xorshift state must be non-zero
+        int capacity = Math.max(decks * Card.DECK_SIZE, cards.size());
+        code = new byte[capacity];
+        priority = new int[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+        size = new int[capacity];
+        for (Card card : cards) {
+            insert(size(root), card.getCode()); // Append in order
+        }
+    }
+
+    /** @return true: discards go back into the machine */
+    @Override
+    public boolean isContinuous() { return true; }
+
+    /** @return Number of 52-card decks in the machine */
+    @Override
+    public int getDecks() { return decks; }
+
+    /** @return Number of cards currently in the machine */
+    public int size() { return size(root); }
+
+    /**
+     * Returns played cards to the machine, each at a uniformly random position.
+     * @param played Cards from a finished round
+     */
+    @Override
+    public void discard(List<Card> played) {
+        for (Card card : played) {
+            int c = card.getCode();
+            if (c < 0) {
+                throw new IllegalArgumentException("Cannot shuffle in non-standard card " + card);
+            }
+            insert(nextInt(size(root) + 1), c);
+        }
+    }
+
+    /**
+     * Deals the top card. If every card is out on the table, another
+     * deck is loaded, as Deck does when it runs out.
+     * @return The dealt card, face up
+     */
+    @Override
+    public Card dealCard() {
+        if (root == NONE) {
+            loadDeck();
+        }
+        // Walk to the leftmost node, shrinking subtree sizes on the way down
+        int parent = NONE;
+        int node = root;
+        while (left[node] != NONE) {
+            size[node]--;
+            parent = node;
+            node = left[node];
+        }
+        if (parent == NONE) {
+            root = right[node];
+        } else {
+            left[parent] = right[node];
+        }
+        int c = code[node];
+        release(node);
+        composition[Card.valueOfCode(c)]--;
+        return Card.fromCode(c); // Fresh card, so a hole card flipped last round comes back face up
+    }
+
+    /**
+     * Shuffles everything currently in the machine.
+     */
+    @Override
+    public void shuffle() {
+        int n = size(root);
+        int[] codes = new int[n];
+        collect(root, codes, 0);
+        for (int i = n - 1; i > 0; i--) {
+            int j = nextInt(i + 1);
+            int t = codes[i];
+            codes[i] = codes[j];
+            codes[j] = t;
+        }
+        clear();
+        for (int c : codes) {
+            insert(size(root), c);
+        }
+    }
+
+    /**
+     * Counts the cards in the machine by Blackjack value (kept up to date
+     * on every deal and discard).
+     * @return Array indexed by value (2-11); other entries are zero
+     */
+    @Override
+    public int[] getComposition() {
+        return composition.clone();
+    }
+
+    /** @return Cards in the machine, top first (a copy, for checkpointing) */
+    @Override
+    List<Card> getRemainingCards() {
+        int[] codes = new int[size(root)];
+        collect(root, codes, 0);
+        List<Card> cards = new ArrayList<>(codes.length);
+        for (int c : codes) {
+            cards.add(Card.fromCode(c));
+        }
+        return cards;
+    }
+
+    /** @return Random state for the next insert */
+    @Override
+    long getShuffleSeed() { return state; }
+
+    /** Loads one fresh 52-card deck at random positions. */
+    private void loadDeck() {
+        for (int c = 0; c < Card.DECK_SIZE; c++) {
+            insert(nextInt(size(root) + 1), c);
+        }
+    }
+
+    /**
+     * Inserts a card so it ends up at the given position (0 = top):
+     * descend while the existing nodes outrank the new one, then split
+     * the subtree found there around it.
+     */
+    private void insert(int position, int c) {
+        int node = allocate(c);
+        int parent = NONE;
+        boolean fromLeft = false;
+        int current = root;
+        while (current != NONE && priority[current] > priority[node]) {
+            size[current]++; // The new node ends up below this one
+            parent = current;
+            int leftSize = size(left[current]);
+            fromLeft = position <= leftSize;
+            if (fromLeft) {
+                current = left[current];
+            } else {
+                position -= leftSize + 1;
+                current = right[current];
+            }
+        }
+        long split = split(current, position);
+        left[node] = (int) (split >> 32);
+        right[node] = (int) split;
+        update(node);
+        if (parent == NONE) {
+            root = node;
+        } else if (fromLeft) {
+            left[parent] = node;
+        } else {
+            right[parent] = node;
+        }
+        composition[Card.valueOfCode(c)]++;
+    }
+
+    /**
+     * Splits a subtree into its first {@code count} nodes and the rest.
+     * @return Both roots packed as (first << 32) | rest
+     */
+    private long split(int node, int count) {
+        if (node == NONE) {
+            return pack(NONE, NONE);
+        }
+        if (size(left[node]) < count) {
+            long rest = split(right[node], count - size(left[node]) - 1);
+            right[node] = (int) (rest >> 32);
+            update(node);
+            return pack(node, (int) rest);
+        }
+        long first = split(left[node], count);
+        left[node] = (int) first;
+        update(node);
+        return pack((int) (first >> 32), node);
+    }
+
+    /** @return Next free index after writing the subtree's codes in order */
+    private int collect(int node, int[] out, int i) {
+        while (node != NONE) {
+            i = collect(left[node], out, i);
+            out[i++] = code[node];
+            node = right[node]; // Loop on the right spine instead of recursing
+        }
+        return i;
+    }
+
+    private int allocate(int c) {
+        int node;
+        if (free != NONE) {
+            node = free;
+            free = left[node];
+        } else {
+            if (used == code.length) {
+                grow();
+            }
+            node = used++;
+        }
+        code[node] = (byte) c;
+        priorityState ^= priorityState << 13; // Xorshift; priorities only balance the tree
+        priorityState ^= priorityState >>> 17;
+        priorityState ^= priorityState << 5;
+        priority[node] = priorityState;
+        left[node] = NONE;
+        right[node] = NONE;
+        size[node] = 1;
+        return node;
+    }
+
+    private void release(int node) {
+        left[node] = free;
+        free = node;
+    }
+
+    /** Drops every node (they are all reallocated from scratch). */
+    private void clear() {
+        root = NONE;
+        free = NONE;
+        used = 0;
+        Arrays.fill(composition, 0);
+    }
+
+    /** Doubles node capacity (only when extra decks were loaded on an empty machine). */
+    private void grow() {
+        int capacity = code.length * 2;
+        code = Arrays.copyOf(code, capacity);
+        priority = Arrays.copyOf(priority, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        size = Arrays.copyOf(size, capacity);
+    }
+
+    private void update(int node) {
+        size[node] = 1 + size(left[node]) + size(right[node]);
+    }
+
+    private int size(int node) {
+        return node == NONE ? 0 : size[node];
+    }
+
+    private static long pack(int first, int rest) {
+        return ((long) first << 32) | (rest & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @param bound Exclusive upper bound (positive)
+     * @return Uniform random int in [0, bound), advancing the seeded state
+     */
+    private int nextInt(int bound) {
+        state += 0x9E3779B97F4A7C15L; // SplitMix64, as Simulator.roundSeed
+        long z = state;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (int) (((z >>> 33) * bound) >>> 31);
+    }
+}
@@ -2,60 +2,159 @@ package blackjack;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
- * Represents a standard 52-card deck for Blackjack with
- * shuffling and dealing capabilities.
+ * Represents a shoe of one or more standard 52-card decks for Blackjack
+ * with shuffling and dealing capabilities.
  */
 public class Deck {
+    private static final int CARDS_PER_HAND = 6; // Generous: a hand averages under three cards
+
     private ArrayList<Card> cards; // Stores the cards in the deck
+    private long shuffleSeed;      // Seed for the next shuffle (plain state, so it can be checkpointed)
+    private final int decks;       // 52-card decks in the shoe
 
     /**
      * Constructs a new deck, initializes it with 52 cards,
      * and shuffles them.
      */
     public Deck() {
-        cards = new ArrayList<>();
-        initializeDeck(); // Create all 52 cards
+        this(ThreadLocalRandom.current().nextLong()); // Unique seed per deck, even when many are built at once
+    }
+
+    /**
+     * Constructs a deck whose order (and every reshuffle) is fully
+     * determined by the seed, so simulations can be reproduced.
+     * @param seed Seed for the deck's random source
+     */
+    public Deck(long seed) {
+        this(1, seed);
+    }
+
+    /**
+     * Constructs a shoe of several decks shuffled together; its order is
+     * fully determined by the seed. One deck orders exactly as Deck(seed).
+     * @param decks Number of 52-card decks
+     * @param seed Seed for the shoe's random source
+     */
+    public Deck(int decks, long seed) {
+        if (decks < 1) {
+            throw new IllegalArgumentException("A shoe needs at least one deck");
+        }
+        this.decks = decks;
+        cards = new ArrayList<>(decks * Card.DECK_SIZE);
+        shuffleSeed = seed;
+        initializeDeck(); // Create all the cards
         shuffle();        // Randomize card order
     }
 
     /**
-     * Initializes the deck with 52 standard playing cards:
+     * Recreates a deck from its remaining cards when the shoe size is
+     * unknown (older checkpoints): it counts as the fewest decks that
+     * hold what's left.
+     * @param cards Remaining cards, top first
+     * @param shuffleSeed Seed for the deck's next shuffle
+     */
+    Deck(List<Card> cards, long shuffleSeed) {
+        this(Math.max(1, (cards.size() + Card.DECK_SIZE - 1) / Card.DECK_SIZE), cards, shuffleSeed);
+    }
+
+    /**
+     * Recreates a deck exactly as captured by a checkpoint.
+     * @param decks Number of 52-card decks the shoe was built with (refills use it)
+     * @param cards Remaining cards, top first
+     * @param shuffleSeed Seed for the deck's next shuffle
+     * @throws IllegalArgumentException If there are fewer than one deck or more cards than the decks hold
+     */
+    Deck(int decks, List<Card> cards, long shuffleSeed) {
+        if (decks < 1) {
+            throw new IllegalArgumentException("A shoe needs at least one deck");
+        }
+        if (cards.size() > decks * Card.DECK_SIZE) {
+            throw new IllegalArgumentException(cards.size() + " cards left in a shoe of " + decks + " decks");
+        }
+        this.cards = new ArrayList<>(cards);
+        this.shuffleSeed = shuffleSeed;
+        this.decks = decks;
+    }
+
+    /**
+     * Decks a shoe needs so that one round at a table never runs out:
+     * room for six cards per hand, dealer included. One deck serves up
+     * to seven seats.
+     * @param seats Player seats at the table
+     * @return Number of 52-card decks
+     */
+    public static int decksFor(int seats) {
+        return Math.max(1, ((seats + 1) * CARDS_PER_HAND + Card.DECK_SIZE - 1) / Card.DECK_SIZE);
+    }
+
+    /**
+     * Initializes the deck with 52 standard playing cards per deck:
      * 13 ranks in each of 4 suits with appropriate Blackjack values.
      */
     private void initializeDeck() {
-        String[] suits = {"hearts", "diamonds", "clubs", "spades"};
-        String[] ranks = {"2", "3", "4", "5", "6", "7", "8", "9", "10", 
-                         "jack", "queen", "king", "ace"};
-        
-        // Create cards for each suit and rank combination
-        for (String suit : suits) {
-            for (int i = 0; i < ranks.length; i++) {
-                // Calculate card value (face cards = 10, ace = 11, others = rank value)
-                int value = (i >= 9) ? 10 : i + 2; // 10, J, Q, K all worth 10
-                if (i == 12) value = 11; // Ace is worth 11
-                
-                // Create and add new card to deck
-                cards.add(new Card(suit, ranks[i], value));
+        // Create cards for each suit and rank combination (codes run suit by suit)
+        for (int d = 0; d < decks; d++) {
+            for (int code = 0; code < Card.DECK_SIZE; code++) {
+                cards.add(Card.fromCode(code));
             }
         }
     }
 
+    /** @return Number of 52-card decks in the shoe */
+    public int getDecks() { return decks; }
+
     /**
-     * Shuffles the deck using current system time as random seed.
+     * Shuffles the deck using this deck's own seed, then advances the
+     * seed for the next shuffle. (Seeding from the clock made decks
+     * shuffled in the same millisecond come out in identical order.)
      */
     public void shuffle() {
-        // Create random number generator with current time as seed
-        Random rnd = new Random(System.currentTimeMillis());
+        Random rnd = new Random(shuffleSeed);
         // Shuffle the cards using Collections utility
         Collections.shuffle(cards, rnd);
+        shuffleSeed = rnd.nextLong(); // Next reshuffle continues the sequence
+    }
+
+    /**
+     * @return true if played cards go back into this deck between rounds
+     *         (a continuous shuffler) instead of the game taking a new shoe
+     */
+    public boolean isContinuous() { return false; }
+
+    /**
+     * Returns played cards to the deck. A discrete shoe keeps its discards
+     * out of play, so this does nothing here.
+     * @param played Cards from a finished round
+     */
+    public void discard(List<Card> played) {}
+
+    /** @return Remaining cards, top first (live list, for checkpointing) */
+    List<Card> getRemainingCards() { return cards; }
+
+    /** @return Seed the next shuffle will use */
+    long getShuffleSeed() { return shuffleSeed; }
+
+    /**
+     * Counts the cards left in the deck by Blackjack value.
+     * @return Array indexed by value (2-11); other entries are zero
+     */
+    public int[] getComposition() {
+        int[] counts = new int[12];
+        for (Card card : cards) {
+            counts[card.getValue()]++;
+        }
+        return counts;
     }
 
     /**
-     * Deals the top card from the deck. If deck is empty,
-     * creates and shuffles a new deck before dealing.
+     * Deals the top card from the deck. If deck is empty, creates and
+     * shuffles a new one before dealing; a shoe sized with decksFor()
+     * doesn't run out mid-round.
      * @return The dealt Card object
      */
     public Card dealCard() {
@@ -1,18 +1,47 @@
 package blackjack;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 /**
  * Core game logic controller for Blackjack.
  * Manages game state, player turns, and win determination.
+ *
+ * <p>Safe for concurrent callers: every change holds the game's monitor,
+ * and the seat allowed to act and the round number are published in
+ * volatile fields, so {@link #playerHit(int, long)} and
+ * {@link #playerStand(int, long)} from a seat whose turn it isn't, or
+ * that decided in an earlier round, are rejected without taking the
+ * lock. Listeners are called after the lock is released, in the order
+ * the changes happened, and one listener throwing doesn't stop the
+ * others. To read several players' hands consistently, hold the game's
+ * monitor (synchronized (game)) or take a GameSnapshot.
  */
 public class Game {
+    private static final int NO_SEAT = -1; // actingSeat when no player may act
+
     private Deck deck;                  // The deck of cards
+    private final Supplier<Deck> shoes; // Source of shuffled decks for each round
     private List<Player> players;      // List of players
     private Dealer dealer;             // The dealer
     private int currentPlayerIndex;     // Index of current active player
-    private GameState state;           // Current game state
+    private volatile GameState state;  // Current game state
+    private volatile long roundNumber; // Rounds started before this one
+    private volatile int actingSeat = NO_SEAT; // Seat allowed to act, read without the lock
+    private final List<RoundListener> roundListeners = new CopyOnWriteArrayList<>(); // Notified as rounds end
+    private final List<TableListener> tableListeners = new ArrayList<>(); // Changed only while delivering
+    private int tableSubscribers;      // Table listeners added minus removed, as of the lock holder
+    private long[] pendingDeltas = new long[64]; // Deltas of the change in progress (under the lock)
+    private int pendingCount;
+    private RoundResult pendingResult; // Round decided by the change in progress (under the lock)
+    private final Queue<Runnable> events = new ConcurrentLinkedQueue<>(); // Deliveries, in change order
+    private final AtomicBoolean delivering = new AtomicBoolean(); // A thread is running deliveries
 
     /**
      * Possible game states
@@ -24,11 +53,31 @@ public class Game {
     }
 
     /**
-     * Creates a new game with specified players.
+     * Result of one player's hand against the dealer
+     */
+    public enum Outcome {
+        WIN,    // Player beat the dealer
+        LOSE,   // Dealer beat the player
+        PUSH    // Tie, bet returned
+    }
+
+    /**
+     * Creates a new game with specified players, drawing shoes from the
+     * shared background-shuffled pool for shoes big enough for the table.
      * @param playerNames List of player names
      */
     public Game(List<String> playerNames) {
-        deck = new Deck(); // Initialize new shuffled deck
+        this(playerNames, ShoePool.shared(Deck.decksFor(playerNames.size())));
+    }
+
+    /**
+     * Creates a new game with specified players and shoe source.
+     * @param playerNames List of player names
+     * @param shoes Supplies a shuffled deck for every round
+     */
+    public Game(List<String> playerNames, Supplier<Deck> shoes) {
+        this.shoes = shoes;
+        deck = shoes.get(); // Take a ready shuffled deck
         players = new ArrayList<>();
         // Create player objects for each name
         for (String name : playerNames) {
@@ -40,15 +89,41 @@ public class Game {
         dealInitialCards(); // Deal starting hands
     }
 
+    /**
+     * Recreates a game exactly as captured by a checkpoint.
+     * @param shoes Supplies decks for later rounds
+     * @param deck The current deck, mid-round
+     * @param players Players with their hands
+     * @param dealer Dealer with its hand
+     * @param currentPlayerIndex Index of the active player
+     * @param state Current game state
+     * @param roundNumber Number of the round in progress
+     */
+    Game(Supplier<Deck> shoes, Deck deck, List<Player> players, Dealer dealer,
+         int currentPlayerIndex, GameState state, long roundNumber) {
+        this.roundNumber = roundNumber;
+        this.shoes = shoes;
+        this.deck = deck;
+        this.players = players;
+        this.dealer = dealer;
+        this.currentPlayerIndex = currentPlayerIndex;
+        this.state = state;
+        this.actingSeat = state == GameState.PLAYER_TURN ? currentPlayerIndex : NO_SEAT;
+    }
+
     /**
      * Deals initial two cards to each player and dealer.
      * Dealer's second card is face down.
      */
     private void dealInitialCards() {
+        emit(TableDelta.ROUND_START, 0, 0, (int) roundNumber);
         // Deal two cards to each player
-        for (Player player : players) {
+        for (int i = 0; i < players.size(); i++) {
+            Player player = players.get(i);
             player.hit(deck.dealCard()); // First card
             player.hit(deck.dealCard()); // Second card
+            emitCard(i, player.getHand().getCards().get(0));
+            emitCard(i, player.getHand().getCards().get(1));
         }
         
         // Deal to dealer (first card face up, second face down)
@@ -56,17 +131,95 @@ public class Game {
         Card secondCard = deck.dealCard();
         secondCard.flip(); // Face down
         dealer.hit(secondCard);
+        emitCard(TableDelta.DEALER, dealer.getHand().getCards().get(0));
+        emitCard(TableDelta.DEALER, secondCard);
+        actingSeat = 0; // Published last: the round is fully dealt
+        emit(TableDelta.TURN, 0, 0, 0);
+    }
+
+    /**
+     * A seat hits, if it is that seat's turn in the round it decided in.
+     * Out-of-turn and stale calls are rejected without locking the game.
+     * @param seat Index of the player asking
+     * @param round Round number the caller saw when deciding ({@link #getRoundNumber()})
+     * @return true if the card was dealt, false if it wasn't this seat's turn in that round
+     */
+    public boolean playerHit(int seat, long round) {
+        if (actingSeat != seat || roundNumber != round) {
+            return false; // Cheap rejection: no lock taken
+        }
+        boolean accepted;
+        synchronized (this) {
+            accepted = actingSeat == seat && roundNumber == round; // Another action may have got there first
+            if (accepted) {
+                hit();
+                publish();
+            }
+        }
+        deliverEvents();
+        return accepted;
+    }
+
+    /**
+     * A seat stands, if it is that seat's turn in the round it decided in.
+     * Out-of-turn and stale calls are rejected without locking the game.
+     * @param seat Index of the player asking
+     * @param round Round number the caller saw when deciding ({@link #getRoundNumber()})
+     * @return true if the seat stood, false if it wasn't this seat's turn in that round
+     */
+    public boolean playerStand(int seat, long round) {
+        if (actingSeat != seat || roundNumber != round) {
+            return false;
+        }
+        boolean accepted;
+        synchronized (this) {
+            accepted = actingSeat == seat && roundNumber == round;
+            if (accepted) {
+                stand();
+                publish();
+            }
+        }
+        deliverEvents();
+        return accepted;
+    }
+
+    /**
+     * Current player hits, whoever that is. For single-threaded drivers
+     * (simulations, the model thread); concurrent clients use
+     * {@link #playerHit(int, long)}.
+     */
+    void playerHit() {
+        synchronized (this) {
+            hit();
+            publish();
+        }
+        deliverEvents();
+    }
+
+    /**
+     * Current player stands, whoever that is. For single-threaded drivers;
+     * concurrent clients use {@link #playerStand(int, long)}.
+     */
+    void playerStand() {
+        synchronized (this) {
+            stand();
+            publish();
+        }
+        deliverEvents();
     }
 
     /**
      * Current player hits (receives another card).
      * Advances turn if player busts or gets 21.
      */
-    public void playerHit() {
+    private void hit() {
         // Only allow during player turn phase
         if (state == GameState.PLAYER_TURN) {
             Player currentPlayer = players.get(currentPlayerIndex);
+            currentPlayer.recordAction('H');
             currentPlayer.hit(deck.dealCard()); // Deal new card
+            List<Card> cards = currentPlayer.getHand().getCards();
+            emitCard(currentPlayerIndex, cards.get(cards.size() - 1));
             
             // Auto-stand on 21 or bust
             if (currentPlayer.isBusted() || currentPlayer.getHand().calculateValue() == 21) {
@@ -78,11 +231,13 @@ public class Game {
     /**
      * Current player stands (ends their turn).
      */
-    public void playerStand() {
+    private void stand() {
         // Only allow during player turn phase
         if (state == GameState.PLAYER_TURN) {
             Player currentPlayer = players.get(currentPlayerIndex);
+            currentPlayer.recordAction('S');
             currentPlayer.stand(); // Mark as standing
+            emit(TableDelta.STAND, currentPlayerIndex, 0, 0);
             nextPlayer(); // Move to next player
         }
     }
@@ -94,8 +249,13 @@ public class Game {
         currentPlayerIndex++;
         // Check if all players have gone
         if (currentPlayerIndex >= players.size()) {
+            actingSeat = NO_SEAT;
             state = GameState.DEALER_TURN; // Switch to dealer's turn
+            emit(TableDelta.TURN, TableDelta.DEALER, 0, 0);
             dealerTurn(); // Start dealer's play
+        } else {
+            actingSeat = currentPlayerIndex;
+            emit(TableDelta.TURN, currentPlayerIndex, 0, 0);
         }
     }
 
@@ -105,13 +265,252 @@ public class Game {
     private void dealerTurn() {
         dealer.play(deck); // Dealer follows house rules
         state = GameState.GAME_OVER; // End the game
+        emitDealerPlay();
+        completeRound();
+    }
+
+    /**
+     * Publishes the dealer's reveal and draws, then every seat's result.
+     */
+    private void emitDealerPlay() {
+        if (tableSubscribers == 0) {
+            return;
+        }
+        List<Card> cards = dealer.getHand().getCards();
+        emit(TableDelta.REVEAL, TableDelta.DEALER, cards.get(1).getCode(), 0); // Hole card
+        for (int i = 2; i < cards.size(); i++) {
+            emitCard(TableDelta.DEALER, cards.get(i));
+        }
+        for (int i = 0; i < players.size(); i++) {
+            emit(TableDelta.RESULT, i, 0, determineOutcome(players.get(i)).ordinal());
+        }
+    }
+
+    /**
+     * Publishes a dealt card; face-down cards are published without their identity.
+     */
+    private void emitCard(int seat, Card card) {
+        if (tableSubscribers > 0) {
+            emit(TableDelta.CARD, seat, card.isFaceUp() ? card.getCode() : TableDelta.HIDDEN, 0);
+        }
+    }
+
+    /**
+     * Records one delta for the table listeners; sent once the change is complete.
+     */
+    private void emit(int type, int seat, int card, int value) {
+        if (tableSubscribers == 0) {
+            return;
+        }
+        if (pendingCount == pendingDeltas.length) {
+            pendingDeltas = Arrays.copyOf(pendingDeltas, pendingCount * 2);
+        }
+        pendingDeltas[pendingCount++] = TableDelta.encode(type, seat, card, value);
+    }
+
+    /**
+     * Queues what the change just made produced for delivery. Called with
+     * the lock held, so changes are queued in the order they happened.
+     */
+    private void publish() {
+        if (pendingCount == 0 && pendingResult == null) {
+            return;
+        }
+        long[] deltas = Arrays.copyOf(pendingDeltas, pendingCount);
+        RoundResult result = pendingResult;
+        pendingCount = 0;
+        pendingResult = null;
+        events.add(() -> {
+            for (TableListener listener : tableListeners) {
+                try {
+                    for (long delta : deltas) {
+                        listener.onDelta(delta);
+                    }
+                } catch (RuntimeException e) {
+                    report(e);
+                }
+            }
+            if (result != null) {
+                for (RoundListener listener : roundListeners) {
+                    try {
+                        listener.roundCompleted(result);
+                    } catch (RuntimeException e) {
+                        report(e);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs queued deliveries without the game lock. One thread delivers at
+     * a time, so listeners see changes in order and one at a time; a
+     * thread that finds another delivering leaves its events to it.
+     */
+    private void deliverEvents() {
+        while (!events.isEmpty()) {
+            if (!delivering.compareAndSet(false, true)) {
+                return; // The delivering thread re-checks the queue before it stops
+            }
+            try {
+                Runnable event;
+                while ((event = events.poll()) != null) {
+                    event.run();
+                }
+            } finally {
+                delivering.set(false);
+            }
+        }
+    }
+
+    /**
+     * Hands a listener's failure to the thread's uncaught-exception handler
+     * (which prints it by default) and carries on with the other listeners.
+     */
+    private static void report(RuntimeException e) {
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+    }
+
+    /**
+     * Sends a listener the deltas that rebuild the current table from
+     * scratch, for a listener attached mid-round. Call with the lock held.
+     * @param listener Receives the deltas
+     */
+    private void describe(TableListener listener) {
+        listener.onDelta(TableDelta.encode(TableDelta.ROUND_START, 0, 0, (int) roundNumber));
+        for (int i = 0; i < players.size(); i++) {
+            for (Card card : players.get(i).getHand().getCards()) {
+                listener.onDelta(TableDelta.encode(TableDelta.CARD, i, card.getCode(), 0));
+            }
+            if (players.get(i).isStanding()) {
+                listener.onDelta(TableDelta.encode(TableDelta.STAND, i, 0, 0));
+            }
+        }
+        for (Card card : dealer.getHand().getCards()) {
+            int code = card.isFaceUp() ? card.getCode() : TableDelta.HIDDEN;
+            listener.onDelta(TableDelta.encode(TableDelta.CARD, TableDelta.DEALER, code, 0));
+        }
+        int turn = state == GameState.PLAYER_TURN ? currentPlayerIndex : TableDelta.DEALER;
+        listener.onDelta(TableDelta.encode(TableDelta.TURN, turn, 0, 0));
+        if (state == GameState.GAME_OVER) {
+            for (int i = 0; i < players.size(); i++) {
+                int outcome = determineOutcome(players.get(i)).ordinal();
+                listener.onDelta(TableDelta.encode(TableDelta.RESULT, i, 0, outcome));
+            }
+        }
+    }
+
+    /**
+     * Registers a listener for every table change from now on.
+     * @param listener Listener to add
+     */
+    public void addTableListener(TableListener listener) {
+        addTableListener(listener, false);
+    }
+
+    /**
+     * Registers a listener that first receives deltas rebuilding the table
+     * as it is now, then every change after, with nothing missed or repeated
+     * in between. Safe to call while other threads play.
+     * @param listener Listener to add
+     */
+    public void attachTableListener(TableListener listener) {
+        addTableListener(listener, true);
+    }
+
+    private void addTableListener(TableListener listener, boolean withTable) {
+        long[] table;
+        synchronized (this) {
+            publish(); // Anything earlier stays with the old listener list
+            if (withTable) {
+                List<Long> description = new ArrayList<>();
+                describe(description::add);
+                table = description.stream().mapToLong(Long::longValue).toArray();
+            } else {
+                table = new long[0];
+            }
+            tableSubscribers++;
+            events.add(() -> {
+                try {
+                    for (long delta : table) {
+                        listener.onDelta(delta);
+                    }
+                } catch (RuntimeException e) {
+                    report(e);
+                }
+                tableListeners.add(listener);
+            });
+        }
+        deliverEvents();
+    }
+
+    /**
+     * Removes a previously added table listener. Changes already made may
+     * still be delivered to it if another thread is delivering them.
+     * @param listener Listener to remove
+     */
+    public void removeTableListener(TableListener listener) {
+        synchronized (this) {
+            publish();
+            tableSubscribers--;
+            events.add(() -> tableListeners.remove(listener));
+        }
+        deliverEvents();
+    }
+
+    /**
+     * Captures the decided round for the round listeners.
+     * Skips building the result entirely when nobody is listening.
+     */
+    private void completeRound() {
+        if (!roundListeners.isEmpty()) {
+            pendingResult = RoundResult.of(this);
+        }
+    }
+
+    /**
+     * Registers a listener called, after the lock is released, each time a round ends.
+     * @param listener Listener to add
+     */
+    public void addRoundListener(RoundListener listener) {
+        roundListeners.add(listener);
+    }
+
+    /**
+     * Removes a previously added round listener.
+     * @param listener Listener to remove
+     */
+    public void removeRoundListener(RoundListener listener) {
+        roundListeners.remove(listener);
+    }
+
+    /**
+     * Determines one player's result against the dealer.
+     * A busted player loses even if the dealer also busts.
+     * @param player The player to evaluate
+     * @return The player's outcome
+     */
+    public synchronized Outcome determineOutcome(Player player) {
+        if (player.isBusted()) {
+            return Outcome.LOSE;
+        }
+        if (dealer.isBusted()) {
+            return Outcome.WIN;
+        }
+        int playerValue = player.getHand().calculateValue();
+        int dealerValue = dealer.getHand().calculateValue();
+        if (playerValue > dealerValue) {
+            return Outcome.WIN;
+        }
+        return playerValue < dealerValue ? Outcome.LOSE : Outcome.PUSH;
     }
 
     /**
      * Determines winners against the dealer.
      * @return List of result messages for each player
      */
-    public List<String> determineWinners() {
+    public synchronized List<String> determineWinners() {
         List<String> results = new ArrayList<>();
         int dealerValue = dealer.getHand().calculateValue();
         boolean dealerBusted = dealer.isBusted();
@@ -119,15 +518,15 @@ public class Game {
         // Evaluate each player's hand against dealer
         for (Player player : players) {
             int playerValue = player.getHand().calculateValue();
-            boolean playerBusted = player.isBusted();
+            Outcome outcome = determineOutcome(player);
             
-            if (playerBusted) {
+            if (player.isBusted()) {
                 results.add(player.getName() + " busted! Dealer wins.");
             } else if (dealerBusted) {
                 results.add("Dealer busted! " + player.getName() + " wins.");
-            } else if (playerValue > dealerValue) {
+            } else if (outcome == Outcome.WIN) {
                 results.add(player.getName() + " wins! " + playerValue + " vs " + dealerValue);
-            } else if (playerValue < dealerValue) {
+            } else if (outcome == Outcome.LOSE) {
                 results.add("Dealer wins against " + player.getName() + "! " + dealerValue + " vs " + playerValue);
             } else {
                 results.add(player.getName() + " pushes with dealer. Both have " + playerValue);
@@ -142,7 +541,7 @@ public class Game {
     /** 
      * @return Current active player or null if not player turn 
      */
-    public Player getCurrentPlayer() {
+    public synchronized Player getCurrentPlayer() {
         if (state == GameState.PLAYER_TURN) {
             return players.get(currentPlayerIndex);
         }
@@ -155,17 +554,67 @@ public class Game {
     /** @return The dealer */
     public Dealer getDealer() { return dealer; }
 
+    /** @return The current deck (for checkpointing) */
+    synchronized Deck getDeck() { return deck; }
+
+    /** @return Index of the active player (may equal the player count once players are done) */
+    synchronized int getCurrentPlayerIndex() { return currentPlayerIndex; }
+
+    /** @return Seat allowed to act now, or -1 if no player may act (read without locking) */
+    public int getActingSeat() { return actingSeat; }
+
     /** @return Current game state */
     public GameState getState() { return state; }
+
+    /** @return Number of the round in progress (0 for the first) */
+    public long getRoundNumber() { return roundNumber; }
+
+    /**
+     * Counts the cards a player cannot see: the rest of the deck plus
+     * any face-down card on the table (the dealer's hole card).
+     * @return Array indexed by Blackjack value (2-11)
+     */
+    public synchronized int[] getUnseenComposition() {
+        int[] counts = deck.getComposition();
+        for (Card card : dealer.getHand().getCards()) {
+            if (!card.isFaceUp()) {
+                counts[card.getValue()]++;
+            }
+        }
+        return counts;
+    }
     
+    /**
+     * Starts a new round whatever state the current one is in. For
+     * single-threaded drivers; anything that may race a live hand uses
+     * {@link #nextRound()}, which only starts a round once this one is over.
+     */
+    void reset() {
+        synchronized (this) {
+            startRound();
+            publish();
+        }
+        deliverEvents();
+    }
+
     /**
      * Resets the game for a new round:
-     * - New shuffled deck
+     * - Swap in a pre-shuffled deck
      * - Reset player/dealer states
      * - Deal new initial cards
      */
-    public void reset() {
-        deck = new Deck(); // Fresh deck
+    private void startRound() {
+        actingSeat = NO_SEAT; // Reject seat actions until the new round is dealt
+        roundNumber++;
+        if (deck.isContinuous()) {
+            // Shuffler: this round's cards go back in before the next deal
+            for (Player player : players) {
+                deck.discard(player.getHand().getCards());
+            }
+            deck.discard(dealer.getHand().getCards());
+        } else {
+            deck = shoes.get(); // Fresh deck, shuffled ahead of time
+        }
         // Reset all players
         for (Player player : players) {
             player.reset();
@@ -175,4 +624,35 @@ public class Game {
         state = GameState.PLAYER_TURN; // Reset state
         dealInitialCards(); // Deal new hands
     }
+
+    /**
+     * Starts the next round only if the current one is over, so several
+     * clients asking for a new round at once start exactly one.
+     * @return true if a new round was dealt
+     */
+    public boolean nextRound() {
+        return nextRound(roundNumber);
+    }
+
+    /**
+     * Starts the next round only if the given round is the one that is
+     * over, so a request made in an earlier round can't end a later one.
+     * @param round Round number the caller saw finish ({@link #getRoundNumber()})
+     * @return true if a new round was dealt
+     */
+    public boolean nextRound(long round) {
+        if (state != GameState.GAME_OVER || roundNumber != round) {
+            return false; // Cheap rejection: no lock taken
+        }
+        boolean started;
+        synchronized (this) {
+            started = state == GameState.GAME_OVER && roundNumber == round;
+            if (started) {
+                startRound();
+                publish();
+            }
+        }
+        deliverEvents();
+        return started;
+    }
 }
\ No newline at end of file
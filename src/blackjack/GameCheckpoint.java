@@ -0,0 +1,318 @@
+package blackjack;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Compact, versioned binary checkpoint of a live Game: shoe order and
+ * next shuffle seed, every hand with face-up state, each seat's
+ * standing/busted flags, the active seat and the game state.
+ * A one-seat game mid-round is well under 100 bytes.
+ *
+ * <p>Layout (big-endian): magic "BJ", version, state, current seat,
+ * round number, shuffle seed, shoe decks, shoe flags (bit 0 set for a
+ * continuous shuffler), deck cards, dealer, then each player (name,
+ * flags, cards, actions). A card is one byte: its code (0-51) with bit 7
+ * set when face-down. Version 1 blobs (no round number or actions),
+ * version 2 blobs (no shoe kind) and version 3 blobs (one shoe byte:
+ * 0 for a discrete deck, else the decks of a continuous shuffler) are
+ * still accepted; their discrete decks count as the fewest decks that
+ * hold the cards left.
+ */
+public final class GameCheckpoint {
+    private static final byte MAGIC_0 = 'B';
+    private static final byte MAGIC_1 = 'J';
+    private static final byte VERSION = 4;      // 2 adds round number and seat actions, 3 the shoe kind,
+                                                // 4 the deck count for both kinds of shoe
+    private static final byte MIN_VERSION = 1;  // Oldest version still readable
+
+    private static final int MAX_SHOE_DECKS = 255; // Shoe decks are one unsigned byte
+    private static final int CONTINUOUS = 1;   // Shoe flag
+    private static final int FACE_DOWN = 0x80; // Card byte flag
+    private static final int STANDING = 1;     // Seat flag
+    private static final int BUSTED = 2;       // Seat flag
+
+    private GameCheckpoint() {}
+
+    /**
+     * Captures a game, locking it so concurrent actions can't tear the capture.
+     * @param game The game to capture
+     * @return The checkpoint bytes
+     * @throws IllegalArgumentException If the game holds a non-standard card
+     */
+    public static byte[] save(Game game) {
+        synchronized (game) {
+            return capture(game);
+        }
+    }
+
+    private static byte[] capture(Game game) {
+        Deck deck = game.getDeck();
+        List<Player> players = game.getPlayers();
+
+        // Size exactly up front: the hot path is one allocation and a fill
+        List<Card> shoe = deck.getRemainingCards();
+        if (deck.getDecks() > MAX_SHOE_DECKS) {
+            throw new IllegalArgumentException("Cannot checkpoint a shoe of " + deck.getDecks() + " decks");
+        }
+        int size = 2 + 1 + 1 + 4 + 8 + 8 + 1 + 1 + 2 + shoe.size() + 2 + seatSize(game.getDealer());
+        List<byte[]> names = new ArrayList<>(players.size());
+        for (Player player : players) {
+            byte[] name = player.getName().getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            size += 2 + name.length + seatSize(player);
+        }
+
+        Writer out = new Writer(size);
+        out.put(MAGIC_0);
+        out.put(MAGIC_1);
+        out.put(VERSION);
+        out.put(game.getState().ordinal());
+        out.putInt(game.getCurrentPlayerIndex());
+        out.putLong(game.getRoundNumber());
+        out.putLong(deck.getShuffleSeed());
+        out.put(deck.getDecks());
+        out.put(deck.isContinuous() ? CONTINUOUS : 0);
+        out.putCards(shoe);
+        writeSeat(out, game.getDealer());
+        out.putShort(players.size());
+        for (int i = 0; i < players.size(); i++) {
+            out.putShort(names.get(i).length);
+            out.putBytes(names.get(i));
+            writeSeat(out, players.get(i));
+        }
+        return out.bytes;
+    }
+
+    /**
+     * Restores a game that draws later shoes from the shared pool for
+     * its table size.
+     * @param data Checkpoint bytes from {@link #save(Game)}
+     * @return The restored game
+     * @throws IllegalArgumentException If the data is not a valid checkpoint
+     */
+    public static Game restore(byte[] data) {
+        return restore(data, null);
+    }
+
+    /**
+     * Restores a game.
+     * @param data Checkpoint bytes from {@link #save(Game)}
+     * @param shoes Supplies decks for rounds after the restored one, or
+     *              null for the shared pool sized for the table
+     * @return The restored game
+     * @throws IllegalArgumentException If the data is not a valid checkpoint
+     */
+    public static Game restore(byte[] data, Supplier<Deck> shoes) {
+        try {
+            Reader in = new Reader(data);
+            if (in.get() != MAGIC_0 || in.get() != MAGIC_1) {
+                throw new IllegalArgumentException("Not a game checkpoint");
+            }
+            int version = in.get();
+            if (version < MIN_VERSION || version > VERSION) {
+                throw new IllegalArgumentException("Unsupported checkpoint version " + version);
+            }
+            int stateOrdinal = in.get();
+            if (stateOrdinal >= Game.GameState.values().length) {
+                throw new IllegalArgumentException("Unknown game state " + stateOrdinal);
+            }
+            Game.GameState state = Game.GameState.values()[stateOrdinal];
+            int currentPlayerIndex = in.getInt();
+            long roundNumber = version >= 2 ? in.getLong() : 0;
+            long shuffleSeed = in.getLong();
+            Deck deck;
+            if (version >= 4) {
+                int decks = in.get();
+                int flags = in.get();
+                if (decks == 0 || (flags & ~CONTINUOUS) != 0) {
+                    throw new IllegalArgumentException("Invalid shoe: " + decks + " decks, flags " + flags);
+                }
+                deck = (flags & CONTINUOUS) != 0 ? new ContinuousShuffleDeck(decks, in.getCards(), shuffleSeed)
+                    : new Deck(decks, in.getCards(), shuffleSeed);
+            } else {
+                int shuffler = version == 3 ? in.get() : 0; // Decks in a continuous shuffler, 0 if discrete
+                deck = shuffler == 0 ? new Deck(in.getCards(), shuffleSeed)
+                    : new ContinuousShuffleDeck(shuffler, in.getCards(), shuffleSeed);
+            }
+
+            Dealer dealer = new Dealer();
+            readSeat(in, dealer, version);
+            int playerCount = in.getShort();
+            List<Player> players = new ArrayList<>(playerCount);
+            for (int i = 0; i < playerCount; i++) {
+                Player player = new Player(in.getString(in.getShort()));
+                readSeat(in, player, version);
+                players.add(player);
+            }
+            if (in.pos != data.length) {
+                throw new IllegalArgumentException("Trailing bytes in checkpoint");
+            }
+            checkTurn(state, currentPlayerIndex, players);
+            if (shoes == null) {
+                shoes = ShoePool.shared(Deck.decksFor(playerCount));
+            }
+            return new Game(shoes, deck, players, dealer, currentPlayerIndex, state, roundNumber);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated or corrupt checkpoint", e);
+        }
+    }
+
+    /**
+     * Checks that the active seat fits the state: during the players'
+     * turns it is a seat still deciding, with no later seat done yet;
+     * once they are done it is one past the last seat.
+     * @throws IllegalArgumentException If they disagree
+     */
+    private static void checkTurn(Game.GameState state, int currentPlayerIndex, List<Player> players) {
+        if (players.isEmpty()) {
+            throw new IllegalArgumentException("Checkpoint has no players");
+        }
+        if (currentPlayerIndex < 0 || currentPlayerIndex > players.size()) {
+            throw new IllegalArgumentException("Active seat " + currentPlayerIndex + " out of range for "
+                                               + players.size() + " players");
+        }
+        if (state != Game.GameState.PLAYER_TURN) {
+            if (currentPlayerIndex != players.size()) {
+                throw new IllegalArgumentException("Seat " + currentPlayerIndex + " active during " + state);
+            }
+            return;
+        }
+        if (currentPlayerIndex == players.size()) {
+            throw new IllegalArgumentException("No active seat during " + state);
+        }
+        for (int i = currentPlayerIndex; i < players.size(); i++) {
+            Player player = players.get(i);
+            if (player.isStanding() || player.isBusted()) {
+                throw new IllegalArgumentException("Seat " + i + " already done before its turn");
+            }
+        }
+    }
+
+    /** @return Bytes used by a seat: flags, card count, cards, action count, actions */
+    private static int seatSize(Player player) {
+        return 1 + 1 + player.getHand().getCards().size() + 1 + player.getActions().length();
+    }
+
+    private static void writeSeat(Writer out, Player player) {
+        out.put((player.isStanding() ? STANDING : 0) | (player.isBusted() ? BUSTED : 0));
+        List<Card> cards = player.getHand().getCards();
+        out.put(cards.size());
+        for (Card card : cards) {
+            out.putCard(card);
+        }
+        String actions = player.getActions();
+        out.put(actions.length());
+        for (int i = 0; i < actions.length(); i++) {
+            out.put(actions.charAt(i)); // 'H' or 'S'
+        }
+    }
+
+    private static void readSeat(Reader in, Player player, int version) {
+        int flags = in.get();
+        int count = in.get();
+        Hand hand = new Hand();
+        for (int i = 0; i < count; i++) {
+            hand.addCard(in.getCard());
+        }
+        String actions = version >= 2 ? in.getString(in.get()) : "";
+        player.restore(hand, (flags & STANDING) != 0, (flags & BUSTED) != 0, actions);
+    }
+
+    /**
+     * Fixed-size big-endian writer (cheaper than a stream for a known size).
+     */
+    private static final class Writer {
+        final byte[] bytes;
+        int pos;
+
+        Writer(int size) { bytes = new byte[size]; }
+
+        void put(int b) { bytes[pos++] = (byte) b; }
+
+        void putShort(int v) {
+            if (v > 0xFFFF) {
+                throw new IllegalArgumentException("Value too large for checkpoint: " + v);
+            }
+            put(v >>> 8);
+            put(v);
+        }
+
+        void putInt(int v) {
+            putShort(v >>> 16);
+            putShort(v & 0xFFFF);
+        }
+
+        void putLong(long v) {
+            putInt((int) (v >>> 32));
+            putInt((int) v);
+        }
+
+        void putBytes(byte[] b) {
+            System.arraycopy(b, 0, bytes, pos, b.length);
+            pos += b.length;
+        }
+
+        void putCard(Card card) {
+            int code = card.getCode();
+            if (code < 0) {
+                throw new IllegalArgumentException("Cannot checkpoint non-standard card " + card);
+            }
+            put(code | (card.isFaceUp() ? 0 : FACE_DOWN));
+        }
+
+        void putCards(List<Card> cards) {
+            putShort(cards.size());
+            for (Card card : cards) {
+                putCard(card);
+            }
+        }
+    }
+
+    /**
+     * Big-endian reader over checkpoint bytes.
+     */
+    private static final class Reader {
+        final byte[] bytes;
+        int pos;
+
+        Reader(byte[] bytes) { this.bytes = bytes; }
+
+        int get() { return bytes[pos++] & 0xFF; }
+
+        int getShort() { return (get() << 8) | get(); }
+
+        int getInt() { return (getShort() << 16) | getShort(); }
+
+        long getLong() { return ((long) getInt() << 32) | (getInt() & 0xFFFFFFFFL); }
+
+        String getString(int length) {
+            if (pos + length > bytes.length) {
+                throw new ArrayIndexOutOfBoundsException(pos + length);
+            }
+            String s = new String(bytes, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return s;
+        }
+
+        Card getCard() {
+            int b = get();
+            Card card = Card.fromCode(b & ~FACE_DOWN);
+            if ((b & FACE_DOWN) != 0) {
+                card.flip(); // Cards are created face-up
+            }
+            return card;
+        }
+
+        List<Card> getCards() {
+            int count = getShort();
+            List<Card> cards = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                cards.add(getCard());
+            }
+            return cards;
+        }
+    }
+}
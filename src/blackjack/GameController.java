@@ -0,0 +1,99 @@
+package blackjack;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Runs a Game on its own model thread. Actions are queued to that
+ * thread, and after each one an immutable GameSnapshot is published
+ * to listeners, so callers (e.g. the Swing EDT) never run game logic.
+ */
+public class GameController {
+    private final Game game;                 // Game owned by the model thread
+    private final ProfileStore profiles;     // Lifetime stats for snapshots, or null
+    private final ExecutorService executor;  // Single model thread
+    private final List<Consumer<GameSnapshot>> listeners; // Snapshot subscribers
+    private volatile GameSnapshot snapshot;  // Most recently published snapshot
+
+    /**
+     * Creates a controller for a new game with the given players.
+     * @param playerNames List of player names
+     */
+    public GameController(List<String> playerNames) {
+        this(playerNames, null);
+    }
+
+    /**
+     * Creates a controller for a new game that records every round to
+     * player profiles and publishes lifetime stats with each finished
+     * round's snapshot.
+     * @param playerNames List of player names
+     * @param profiles Store to record rounds in, or null
+     */
+    public GameController(List<String> playerNames, ProfileStore profiles) {
+        this.game = new Game(playerNames);
+        this.profiles = profiles;
+        if (profiles != null) {
+            game.addRoundListener(profiles); // Cache update only; disk writes are batched off-thread
+        }
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "game-model");
+            thread.setDaemon(true); // Don't keep the app alive after the window closes
+            return thread;
+        });
+        this.snapshot = GameSnapshot.of(game, profiles); // Safe: model thread not started yet
+    }
+
+    /** Queues a hit for the current player. */
+    public void hit() { submit(game::playerHit); }
+
+    /** Queues a stand for the current player. */
+    public void stand() { submit(game::playerStand); }
+
+    /** Queues a new round, dealt only once the current one is over. */
+    public void newRound() { submit(game::nextRound); }
+
+    /** @return Most recently published snapshot (never null) */
+    public GameSnapshot getSnapshot() { return snapshot; }
+
+    /**
+     * Registers a listener for completed rounds, called on the model thread.
+     * @param listener Called with each round's result
+     */
+    public void addRoundListener(RoundListener listener) {
+        game.addRoundListener(listener);
+    }
+
+    /**
+     * Registers a listener for new snapshots. Listeners are called on
+     * the model thread and must hand work off rather than block it.
+     * @param listener Called with each published snapshot
+     */
+    public void addListener(Consumer<GameSnapshot> listener) {
+        listeners.add(listener);
+    }
+
+    /** Stops the model thread; queued actions are discarded. */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs an action on the model thread, then publishes a snapshot.
+     * @param action The game mutation to perform
+     */
+    private void submit(Runnable action) {
+        executor.execute(() -> {
+            action.run();
+            GameSnapshot next = GameSnapshot.of(game, profiles); // Profiles already hold this round
+            snapshot = next;
+            for (Consumer<GameSnapshot> listener : listeners) {
+                listener.accept(next);
+            }
+        });
+    }
+}
@@ -3,7 +3,6 @@ package blackjack;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -11,22 +10,66 @@ import java.util.List;
  * Handles user interaction and visual updates.
  */
 public class GamePanel extends JPanel {
-    private Game game;                  // Game logic controller
+    private GameController controller;  // Runs game logic off the EDT
+    private GameSnapshot snapshot;      // Snapshot currently displayed (EDT only)
+    private final CardAnimator animator = new CardAnimator(); // One timer for refreshes and card motions
     private JButton hitButton;          // Hit action button
     private JButton standButton;        // Stand action button
     private JButton newGameButton;      // New game button
     private JTextPane gameInfo;         // Game status display
-    private List<CardPanel> playerPanels; // Card panels for players
+    private SeatListView seatView;      // Virtualized view of player seats
     private CardPanel dealerPanel;      // Card panel for dealer
+    private JLabel oddsLabel;           // Live odds for the current hand
+    private JLabel frameStatsLabel;     // Animation frame metrics, toggled with F
+    private OddsService odds;           // Computes odds off the EDT
+    private int oddsRequest;            // Id of the latest odds request (EDT only)
 
     /**
      * Creates a new game panel with specified players.
      * @param playerNames List of player names
      */
     public GamePanel(List<String> playerNames) {
-        game = new Game(playerNames); // Initialize game logic
+        this(playerNames, null);
+    }
+
+    /**
+     * Creates a new game panel that records every round to player profiles.
+     * @param playerNames List of player names
+     * @param profiles Store to record rounds in and show lifetime stats from, or null
+     */
+    public GamePanel(List<String> playerNames, ProfileStore profiles) {
+        controller = new GameController(playerNames, profiles); // Game logic on its own thread
+        odds = new OddsService(); // Odds on their own thread
+        snapshot = controller.getSnapshot(); // Initial state
         setupUI(); // Create UI components
+        animator.update(null, snapshot); // Deal the opening hands
         updateGameDisplay(); // Initial display update
+
+        // Coalesce bursts of snapshots into at most one refresh per frame
+        animator.addFrameTask(() -> {
+            GameSnapshot latest = controller.getSnapshot(); // Latest wins; older ones are skipped
+            animator.update(snapshot, latest);
+            snapshot = latest;
+            updateGameDisplay();
+        });
+        animator.addIdleTask(() -> {
+            if (frameStatsLabel.isVisible()) {
+                frameStatsLabel.setText("Frames: " + animator.getFrameStats());
+            }
+        });
+        controller.addListener(s -> animator.requestFrame()); // Safe off the EDT
+    }
+
+    /**
+     * Stops the animation timer, the game thread and the odds thread for
+     * good. Call on the event thread when the panel's window closes; the
+     * panel only leaving the hierarchy (e.g. being re-parented) keeps
+     * them running.
+     */
+    public void dispose() {
+        animator.stop();
+        controller.shutdown();
+        odds.shutdown();
     }
 
     /**
@@ -35,38 +78,14 @@ public class GamePanel extends JPanel {
     private void setupUI() {
         setLayout(new BorderLayout()); // Main layout
         
-        // Player cards area setup
-        int playerCount = game.getPlayers().size();
-        // Use GridLayout to stack player panels vertically
-        JPanel playersPanel = new JPanel(new GridLayout(playerCount, 1, 5, 10));
-        // Calculate height based on number of players (180px each)
-        int playerAreaHeight = playerCount * 180;
-        playersPanel.setPreferredSize(new Dimension(300, playerAreaHeight));
-        
-        playerPanels = new ArrayList<>();
-        
-        // Create card panel for each player
-        for (Player player : game.getPlayers()) {
-            // Container for player name and cards
-            JPanel playerContainer = new JPanel(new BorderLayout());
-            playerContainer.setBorder(BorderFactory.createLineBorder(Color.BLACK, 1));
-            playerContainer.setBackground(new Color(240, 240, 240)); // Light gray
-            
-            // Player name label
-            JLabel playerLabel = new JLabel(player.getName() + ":");
-            playerLabel.setFont(new Font("Arial", Font.BOLD, 16));
-            playerLabel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 0));
-            
-            // Card display panel
-            CardPanel cardPanel = new CardPanel(player);
-            cardPanel.setPreferredSize(new Dimension(300, 150)); // Fixed height
-            playerPanels.add(cardPanel);
-            
-            // Add components to player container
-            playerContainer.add(playerLabel, BorderLayout.NORTH); // Name at top
-            playerContainer.add(cardPanel, BorderLayout.CENTER); // Cards below
-            playersPanel.add(playerContainer); // Add to main player area
-        }
+        // Player seats: painted on demand inside a scrollable viewport,
+        // so only the visible seats cost anything however many there are
+        seatView = new SeatListView(animator);
+        animator.addView(seatView);
+        JScrollPane playersScroll = new JScrollPane(seatView);
+        playersScroll.setBorder(BorderFactory.createEmptyBorder());
+        playersScroll.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
+        playersScroll.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
         
         // Dealer cards area setup
         JPanel dealerContainer = new JPanel(new BorderLayout());
@@ -77,7 +96,8 @@ public class GamePanel extends JPanel {
         dealerLabel.setFont(new Font("Arial", Font.BOLD, 16));
         dealerLabel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 0));
         
-        dealerPanel = new CardPanel(game.getDealer());
+        dealerPanel = new CardPanel(snapshot.getDealer(), animator, CardAnimator.DEALER);
+        animator.addView(dealerPanel);
         dealerPanel.setPreferredSize(new Dimension(300, 160)); // Slightly taller
         
         dealerContainer.add(dealerLabel, BorderLayout.NORTH); // Label at top
@@ -85,7 +105,7 @@ public class GamePanel extends JPanel {
         
         // Combine all card areas
         JPanel cardsPanel = new JPanel(new BorderLayout());
-        cardsPanel.add(playersPanel, BorderLayout.CENTER); // Players in center
+        cardsPanel.add(playersScroll, BorderLayout.CENTER); // Players in center
         cardsPanel.add(dealerContainer, BorderLayout.SOUTH); // Dealer at bottom
         cardsPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10)); // Padding
         
@@ -103,26 +123,10 @@ public class GamePanel extends JPanel {
         styleButton(standButton, new Color(200, 120, 0)); // Orange
         styleButton(newGameButton, new Color(0, 120, 200)); // Blue
         
-        // Set button actions
-        hitButton.addActionListener(e -> {
-            game.playerHit(); // Player hits
-            updateGameDisplay(); // Update UI
-        });
-        
-        standButton.addActionListener(e -> {
-            game.playerStand(); // Player stands
-            updateGameDisplay(); // Update UI
-        });
-        
-        newGameButton.addActionListener(e -> {
-            game.reset(); // Reset game state
-            // Reset all card panels
-            for (CardPanel panel : playerPanels) {
-                panel.reset();
-            }
-            dealerPanel.reset();
-            updateGameDisplay(); // Update UI
-        });
+        // Set button actions (queued to the game thread; UI updates when a snapshot arrives)
+        hitButton.addActionListener(e -> controller.hit());
+        standButton.addActionListener(e -> controller.stand());
+        newGameButton.addActionListener(e -> controller.newRound());
         
         // Add buttons to control panel
         controlPanel.add(hitButton);
@@ -149,6 +153,19 @@ public class GamePanel extends JPanel {
         infoScroll.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
         infoPanel.add(infoScroll, BorderLayout.CENTER);
         
+        // Odds overlay above the status text
+        oddsLabel = new JLabel(" ");
+        oddsLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+        oddsLabel.setBorder(BorderFactory.createEmptyBorder(0, 0, 5, 0));
+        infoPanel.add(oddsLabel, BorderLayout.NORTH);
+        
+        // Frame metrics below the status text, hidden until F is pressed
+        frameStatsLabel = new JLabel(" ");
+        frameStatsLabel.setFont(new Font("Arial", Font.PLAIN, 12));
+        frameStatsLabel.setBorder(BorderFactory.createEmptyBorder(5, 0, 0, 0));
+        frameStatsLabel.setVisible(false);
+        infoPanel.add(frameStatsLabel, BorderLayout.SOUTH);
+        
         // Add all components to main panel
         add(controlPanel, BorderLayout.NORTH); // Controls at top
         add(cardsPanel, BorderLayout.CENTER); // Cards in middle
@@ -185,48 +202,58 @@ public class GamePanel extends JPanel {
         inputMap.put(KeyStroke.getKeyStroke("H"), "hit");
         inputMap.put(KeyStroke.getKeyStroke("S"), "stand");
         inputMap.put(KeyStroke.getKeyStroke("N"), "newGame");
+        inputMap.put(KeyStroke.getKeyStroke("F"), "frameStats");
         
-        // Define actions for each key
+        // Define actions for each key. These queue the action directly:
+        // doClick() would block the EDT for its press animation on every key repeat.
         actionMap.put("hit", new AbstractAction() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                hitButton.doClick(); // Simulate button click
+                if (hitButton.isEnabled()) {
+                    controller.hit();
+                }
             }
         });
         
         actionMap.put("stand", new AbstractAction() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                standButton.doClick(); // Simulate button click
+                if (standButton.isEnabled()) {
+                    controller.stand();
+                }
             }
         });
         
         actionMap.put("newGame", new AbstractAction() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                newGameButton.doClick(); // Simulate button click
+                controller.newRound();
+            }
+        });
+        
+        actionMap.put("frameStats", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                frameStatsLabel.setVisible(!frameStatsLabel.isVisible());
+                frameStatsLabel.setText("Frames: " + animator.getFrameStats());
+                animator.resetFrameStats(); // Next reading covers only what follows
             }
         });
     }
 
     /**
-     * Updates all visual components to reflect current game state.
+     * Updates all visual components to reflect the current snapshot.
      */
     private void updateGameDisplay() {
-        // Update all player card panels
-        for (int i = 0; i < game.getPlayers().size(); i++) {
-            playerPanels.get(i).update();
-        }
+        // Update player seats and keep the active seat in view
+        seatView.setSeats(snapshot.getPlayers(), snapshot.getCurrentPlayerIndex());
+        seatView.scrollToSeat(snapshot.getCurrentPlayerIndex());
         
-        // Reveal dealer cards if game is over
-        if (game.getState() == Game.GameState.GAME_OVER) {
-            dealerPanel.revealAllCards();
-        }
-        dealerPanel.update(); // Update dealer display
+        dealerPanel.update(snapshot.getDealer()); // Update dealer display
         
         // Update game info text
         StringBuilder sb = new StringBuilder();
-        Player currentPlayer = game.getCurrentPlayer();
+        GameSnapshot.HandView currentPlayer = snapshot.getCurrentPlayer();
         
         // Show current player if applicable
         if (currentPlayer != null) {
@@ -234,22 +261,57 @@ public class GamePanel extends JPanel {
         }
         
         // Show results if game is over
-        if (game.getState() == Game.GameState.GAME_OVER) {
-            List<String> results = game.determineWinners();
-            for (String result : results) {
+        if (snapshot.getState() == Game.GameState.GAME_OVER) {
+            for (String result : snapshot.getResults()) {
                 sb.append(result).append("\n"); // Add each result
             }
             
+            // Lifetime stats, read on the game thread (already include this round)
+            for (String stats : snapshot.getLifetimeStats()) {
+                sb.append(stats).append("\n");
+            }
+            
             // Disable action buttons when game is over
             hitButton.setEnabled(false);
             standButton.setEnabled(false);
+            newGameButton.setEnabled(true);
         } else {
-            // Enable buttons during active play
+            // Enable buttons during active play; a new game waits for this one to finish
             hitButton.setEnabled(true);
             standButton.setEnabled(true);
+            newGameButton.setEnabled(false);
         }
         
         gameInfo.setText(sb.toString()); // Update display text
         gameInfo.setCaretPosition(0); // Scroll to top
+        
+        updateOdds();
+    }
+
+    /**
+     * Requests odds for the current hand against the dealer's upcard.
+     * Any older request is cancelled; a result that arrives after the
+     * hand has changed again is ignored.
+     */
+    private void updateOdds() {
+        int request = ++oddsRequest;
+        GameSnapshot.HandView current = snapshot.getCurrentPlayer();
+        List<GameSnapshot.CardView> dealerCards = snapshot.getDealer().getCards();
+        if (current == null || dealerCards.isEmpty()) {
+            odds.cancel();
+            oddsLabel.setText(" "); // Keep the row's height
+            return;
+        }
+        
+        oddsLabel.setText("Odds: calculating...");
+        odds.request(current.getTotal(), current.isSoft(), dealerCards.get(0).getValue(),
+                     snapshot.getUnseenComposition(),
+                     result -> SwingUtilities.invokeLater(() -> {
+                         if (request == oddsRequest) { // Still the hand on screen
+                             oddsLabel.setText(String.format(
+                                 "Bust if hit: %.1f%%   EV hit: %+.3f   EV stand: %+.3f",
+                                 result.getBustProbability() * 100, result.getHitEv(), result.getStandEv()));
+                         }
+                     }));
     }
 }
\ No newline at end of file
@@ -0,0 +1,220 @@
+package blackjack;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable view of a Game at one moment, built on the game thread
+ * and handed to the UI so rendering never touches live game objects.
+ */
+public final class GameSnapshot {
+    private final Game.GameState state;   // Game state when captured
+    private final int currentPlayerIndex; // Active seat, or -1 outside player turn
+    private final List<HandView> players; // One view per seat, in seat order
+    private final HandView dealer;        // Dealer's hand
+    private final List<String> results;   // Result messages (empty until game over)
+    private final int[] unseen;           // Unseen cards by value (2-11)
+    private final List<String> lifetime;  // Players' lifetime stats (empty until game over)
+
+    private GameSnapshot(Game.GameState state, int currentPlayerIndex, List<HandView> players,
+                         HandView dealer, List<String> results, int[] unseen, List<String> lifetime) {
+        this.state = state;
+        this.currentPlayerIndex = currentPlayerIndex;
+        this.players = players;
+        this.dealer = dealer;
+        this.results = results;
+        this.unseen = unseen;
+        this.lifetime = lifetime;
+    }
+
+    /**
+     * Captures the current state of a game, consistently even while
+     * other threads act on it (the game is locked while it is read).
+     * @param game The game to capture
+     * @return Snapshot of the game
+     */
+    public static GameSnapshot of(Game game) {
+        synchronized (game) {
+            return capture(game);
+        }
+    }
+
+    /**
+     * Captures a game and, once its round is over, each player's
+     * lifetime stats, so the UI never reads the profile store itself.
+     * The profiles are read after the game lock is released.
+     * @param game The game to capture
+     * @param profiles Store to read lifetime stats from, or null for none
+     * @return Snapshot of the game
+     */
+    public static GameSnapshot of(Game game, ProfileStore profiles) {
+        GameSnapshot snapshot = of(game);
+        if (profiles == null || snapshot.state != Game.GameState.GAME_OVER) {
+            return snapshot;
+        }
+        List<String> lifetime = new ArrayList<>();
+        for (HandView player : snapshot.players) {
+            ProfileStore.Profile profile = profiles.get(player.getName());
+            if (profile != null) {
+                lifetime.add(profile.toString());
+            }
+        }
+        return new GameSnapshot(snapshot.state, snapshot.currentPlayerIndex, snapshot.players, snapshot.dealer,
+                                snapshot.results, snapshot.unseen, Collections.unmodifiableList(lifetime));
+    }
+
+    private static GameSnapshot capture(Game game) {
+        Game.GameState state = game.getState();
+        boolean over = state == Game.GameState.GAME_OVER;
+
+        List<HandView> players = new ArrayList<>();
+        for (Player player : game.getPlayers()) {
+            players.add(HandView.of(player, true)); // Player totals always shown
+        }
+        HandView dealer = HandView.of(game.getDealer(), over); // Dealer total hidden until the end
+
+        Player current = game.getCurrentPlayer();
+        int currentIndex = current != null ? game.getPlayers().indexOf(current) : -1;
+
+        // Results are computed once here instead of on every repaint
+        List<String> results = over ? game.determineWinners() : Collections.<String>emptyList();
+        return new GameSnapshot(state, currentIndex, Collections.unmodifiableList(players),
+                                dealer, Collections.unmodifiableList(results),
+                                game.getUnseenComposition(), Collections.<String>emptyList());
+    }
+
+    /** @return Game state when captured */
+    public Game.GameState getState() { return state; }
+
+    /** @return Index of the active seat, or -1 if not player turn */
+    public int getCurrentPlayerIndex() { return currentPlayerIndex; }
+
+    /** @return Active seat's hand, or null if not player turn */
+    public HandView getCurrentPlayer() {
+        return currentPlayerIndex >= 0 ? players.get(currentPlayerIndex) : null;
+    }
+
+    /** @return Views of every player's hand, in seat order */
+    public List<HandView> getPlayers() { return players; }
+
+    /** @return View of the dealer's hand */
+    public HandView getDealer() { return dealer; }
+
+    /** @return Result messages, empty until the round is over */
+    public List<String> getResults() { return results; }
+
+    /** @return Each player's lifetime stats, empty until the round is over or without profiles */
+    public List<String> getLifetimeStats() { return lifetime; }
+
+    /**
+     * @return Copy of the counts of cards players cannot see (deck plus
+     *         hole card), indexed by Blackjack value (2-11)
+     */
+    public int[] getUnseenComposition() { return unseen.clone(); }
+
+    /**
+     * Immutable view of one player's or the dealer's hand.
+     */
+    public static final class HandView {
+        private final String name;           // Owner's name
+        private final List<CardView> cards;  // Cards in deal order
+        private final int total;             // Value of face-up cards
+        private final boolean soft;          // Whether an ace counts as 11
+        private final boolean busted;        // Whether the hand busted
+        private final boolean revealed;      // Whether the total may be shown
+
+        private HandView(String name, List<CardView> cards, int total, boolean soft,
+                         boolean busted, boolean revealed) {
+            this.name = name;
+            this.cards = cards;
+            this.total = total;
+            this.soft = soft;
+            this.busted = busted;
+            this.revealed = revealed;
+        }
+
+        /**
+         * Captures a player's hand.
+         * @param player The player (or dealer) to capture
+         * @param revealed Whether the hand's total may be shown
+         * @return View of the hand
+         */
+        static HandView of(Player player, boolean revealed) {
+            List<CardView> cards = new ArrayList<>();
+            for (Card card : player.getHand().getCards()) {
+                cards.add(CardView.of(card));
+            }
+            return new HandView(player.getName(), Collections.unmodifiableList(cards),
+                                player.getHand().calculateValue(), player.getHand().isSoft(),
+                                player.isBusted(), revealed);
+        }
+
+        /** @return Owner's name */
+        public String getName() { return name; }
+
+        /** @return Cards in deal order */
+        public List<CardView> getCards() { return cards; }
+
+        /** @return Value of the face-up cards */
+        public int getTotal() { return total; }
+
+        /** @return Whether an ace in the hand counts as 11 */
+        public boolean isSoft() { return soft; }
+
+        /** @return Whether the hand busted */
+        public boolean isBusted() { return busted; }
+
+        /** @return Whether the total may be shown */
+        public boolean isRevealed() { return revealed; }
+    }
+
+    /**
+     * Immutable view of a card. Face-down cards carry no rank or suit,
+     * so a snapshot never leaks the dealer's hole card.
+     */
+    public static final class CardView {
+        private static final CardView HIDDEN = new CardView(null, null, 0, false);
+
+        private final String rank;   // Card rank, or null if face-down
+        private final String suit;   // Card suit, or null if face-down
+        private final int value;     // Blackjack value, or 0 if face-down
+        private final boolean faceUp; // Whether the card is face-up
+
+        private CardView(String rank, String suit, int value, boolean faceUp) {
+            this.rank = rank;
+            this.suit = suit;
+            this.value = value;
+            this.faceUp = faceUp;
+        }
+
+        /**
+         * Captures a card's visible state.
+         * @param card The card to capture
+         * @return View of the card
+         */
+        static CardView of(Card card) {
+            return card.isFaceUp() ? new CardView(card.getRank(), card.getSuit(), card.getValue(), true) : HIDDEN;
+        }
+
+        /** @return Card rank, or null if face-down */
+        public String getRank() { return rank; }
+
+        /** @return Card suit, or null if face-down */
+        public String getSuit() { return suit; }
+
+        /** @return Card's Blackjack value (ace = 11), or 0 if face-down */
+        public int getValue() { return value; }
+
+        /** @return Whether the card is face-up */
+        public boolean isFaceUp() { return faceUp; }
+
+        /**
+         * @return String in format "[rank] of [suit]", or "face-down card"
+         */
+        @Override
+        public String toString() {
+            return faceUp ? rank + " of " + suit : "face-down card";
+        }
+    }
+}
@@ -53,6 +53,33 @@ public class Hand {
         return value;
     }
 
+    /**
+     * Checks whether the hand is soft: an ace among the face-up cards
+     * is still being counted as 11.
+     * @return true if the hand's value counts an ace as 11
+     */
+    public boolean isSoft() {
+        int value = 0;      // Running total with every ace as 11
+        int aces = 0;       // Count of aces in hand
+
+        for (Card card : cards) {
+            if (card.isFaceUp()) {
+                value += card.getValue();
+                if (card.getRank().equals("ace")) {
+                    aces++;
+                }
+            }
+        }
+
+        // Demote aces to 1 until the hand no longer busts
+        while (value > 21 && aces > 0) {
+            value -= 10;
+            aces--;
+        }
+
+        return aces > 0; // Some ace is still worth 11
+    }
+
     /**
      * Gets all cards in the hand.
      * @return ArrayList of Card objects
@@ -0,0 +1,256 @@
+package blackjack;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads files written by HandHistoryWriter one row group at a time.
+ * Columns inside a group are only inflated when first accessed, so a
+ * scan that looks at two columns never decodes the other eight.
+ */
+public class HandHistoryReader implements Closeable {
+    private static final int MAX_DEFLATE_RATIO = 1032; // Deflate never expands by more, so larger lengths are corrupt
+
+    private final RandomAccessFile file; // Source file
+    private final long[] groupOffsets;   // Start of each row group
+    private final long rowCount;         // Total rows in the file
+
+    /**
+     * Opens a hand history file and reads its footer.
+     * @param path File to read
+     * @throws IOException If the file cannot be read or is not a hand history
+     */
+    public HandHistoryReader(Path path) throws IOException {
+        file = new RandomAccessFile(path.toFile(), "r");
+        try {
+            byte[] magic = new byte[HandHistoryWriter.MAGIC.length];
+            file.readFully(magic);
+            if (!Arrays.equals(magic, HandHistoryWriter.MAGIC) || file.readByte() != HandHistoryWriter.VERSION) {
+                throw new IOException("Not a hand history file: " + path);
+            }
+            // Trailer: footer offset, then magic again
+            file.seek(file.length() - 8 - magic.length);
+            long footerOffset = file.readLong();
+            file.seek(footerOffset);
+            int groups = file.readInt();
+            if (groups < 0 || groups > (file.length() - footerOffset) / 8) {
+                throw new IOException("Corrupt hand history footer: " + path);
+            }
+            groupOffsets = new long[groups];
+            for (int i = 0; i < groupOffsets.length; i++) {
+                groupOffsets[i] = file.readLong();
+            }
+            rowCount = file.readLong();
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e instanceof IOException ? (IOException) e : new IOException("Corrupt hand history: " + path, e);
+        }
+    }
+
+    /** @return Number of row groups */
+    public int getRowGroupCount() { return groupOffsets.length; }
+
+    /** @return Total number of rows (one per seat per round) */
+    public long getRowCount() { return rowCount; }
+
+    /**
+     * Reads one row group's compressed columns.
+     * @param index Row group index
+     * @return The row group; columns inflate lazily
+     * @throws IOException If the group cannot be read or its layout is corrupt
+     */
+    public RowGroup readRowGroup(int index) throws IOException {
+        file.seek(groupOffsets[index]);
+        int rows = file.readInt();
+        int columns = file.readUnsignedByte();
+        if (rows < 0 || columns != HandHistoryWriter.COLUMN_COUNT) {
+            throw new IOException("Corrupt hand history row group " + index);
+        }
+        int[] rawLengths = new int[columns];
+        byte[][] chunks = new byte[columns][];
+        for (int column = 0; column < columns; column++) {
+            rawLengths[column] = file.readInt();
+            int compressed = file.readInt();
+            if (rawLengths[column] < 0 || (isFixedWidth(column) && rawLengths[column] != rows)
+                    || compressed < 0 || compressed > file.length() - file.getFilePointer()
+                    || rawLengths[column] > (long) compressed * MAX_DEFLATE_RATIO + 64) {
+                throw new IOException("Corrupt hand history row group " + index + ", column " + column);
+            }
+            chunks[column] = new byte[compressed];
+            file.readFully(chunks[column]);
+        }
+        return new RowGroup(rows, rawLengths, chunks);
+    }
+
+    /** @return Whether a column holds exactly one byte per row */
+    private static boolean isFixedWidth(int column) {
+        return column != HandHistoryWriter.COL_ROUND && column != HandHistoryWriter.COL_SEAT
+            && column != HandHistoryWriter.COL_ACTIONS;
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    /**
+     * One row group. Getters take a row index within the group.
+     */
+    public static final class RowGroup {
+        private final int size;
+        private final int[] rawLengths;
+        private final byte[][] chunks;  // Compressed columns
+        private final byte[][] decoded; // Inflated columns, filled on demand
+        private long[] rounds;          // Decoded round numbers
+        private int[] seats;            // Decoded seat indexes
+        private String[] actions;       // Decoded action strings
+
+        RowGroup(int size, int[] rawLengths, byte[][] chunks) {
+            this.size = size;
+            this.rawLengths = rawLengths;
+            this.chunks = chunks;
+            this.decoded = new byte[chunks.length][];
+        }
+
+        /** @return Rows in this group */
+        public int size() { return size; }
+
+        /** @return Round number of a row */
+        public long getRound(int row) {
+            if (rounds == null) {
+                rounds = new long[size];
+                Cursor in = new Cursor(column(HandHistoryWriter.COL_ROUND));
+                long previous = 0;
+                for (int i = 0; i < size; i++) {
+                    previous += in.zigzag();
+                    rounds[i] = previous;
+                }
+            }
+            return rounds[row];
+        }
+
+        /** @return Seat index of a row */
+        public int getSeat(int row) {
+            if (seats == null) {
+                seats = new int[size];
+                Cursor in = new Cursor(column(HandHistoryWriter.COL_SEAT));
+                for (int i = 0; i < size; i++) {
+                    seats[i] = (int) in.varint();
+                }
+            }
+            return seats[row];
+        }
+
+        /** @return Code of the seat's first card */
+        public int getFirstCard(int row) { return byteAt(HandHistoryWriter.COL_FIRST_CARD, row); }
+
+        /** @return Code of the seat's second card */
+        public int getSecondCard(int row) { return byteAt(HandHistoryWriter.COL_SECOND_CARD, row); }
+
+        /** @return Decisions made, e.g. "HS" */
+        public String getActions(int row) {
+            if (actions == null) {
+                actions = new String[size];
+                byte[] bytes = column(HandHistoryWriter.COL_ACTIONS);
+                Cursor in = new Cursor(bytes);
+                for (int i = 0; i < size; i++) {
+                    int length = (int) in.varint();
+                    actions[i] = new String(bytes, in.pos, length, StandardCharsets.US_ASCII);
+                    in.pos += length;
+                }
+            }
+            return actions[row];
+        }
+
+        /** @return Code of the dealer's upcard */
+        public int getDealerUpcard(int row) { return byteAt(HandHistoryWriter.COL_UPCARD, row); }
+
+        /** @return Seat's final total */
+        public int getTotal(int row) { return byteAt(HandHistoryWriter.COL_TOTAL, row); }
+
+        /** @return Dealer's final total */
+        public int getDealerTotal(int row) { return byteAt(HandHistoryWriter.COL_DEALER_TOTAL, row); }
+
+        /** @return Seat's result against the dealer */
+        public Game.Outcome getOutcome(int row) {
+            return Game.Outcome.values()[byteAt(HandHistoryWriter.COL_OUTCOME, row)];
+        }
+
+        /** @return Units won: +1, 0 or -1 */
+        public int getPayout(int row) { return column(HandHistoryWriter.COL_PAYOUT)[row]; }
+
+        private int byteAt(int column, int row) {
+            return column(column)[row] & 0xFF;
+        }
+
+        /**
+         * @return Inflated bytes of a column, inflating on first use
+         * @throws IllegalStateException If the column is truncated, corrupt
+         *         or not the length its header says
+         */
+        private byte[] column(int column) {
+            if (decoded[column] == null) {
+                Inflater inflater = new Inflater();
+                try {
+                    byte[] raw = new byte[rawLengths[column]];
+                    inflater.setInput(chunks[column]);
+                    int n = 0;
+                    while (n < raw.length && !inflater.finished()) {
+                        int inflated = inflater.inflate(raw, n, raw.length - n);
+                        if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                            throw new IllegalStateException("Corrupt hand history column " + column
+                                                            + ": compressed data ends early");
+                        }
+                        n += inflated;
+                    }
+                    // Exactly the promised length, and the stream (with its checksum) ends there
+                    if (n != raw.length || !inflater.finished()
+                            && (inflater.inflate(new byte[1]) != 0 || !inflater.finished())) {
+                        throw new IllegalStateException("Corrupt hand history column " + column
+                                                        + ": length does not match its header");
+                    }
+                    decoded[column] = raw;
+                    chunks[column] = null; // Compressed copy no longer needed
+                } catch (DataFormatException e) {
+                    throw new IllegalStateException("Corrupt hand history column " + column, e);
+                } finally {
+                    inflater.end();
+                }
+            }
+            return decoded[column];
+        }
+    }
+
+    /**
+     * Varint reader over a decoded column.
+     */
+    private static final class Cursor {
+        private final byte[] bytes;
+        int pos;
+
+        Cursor(byte[] bytes) { this.bytes = bytes; }
+
+        long varint() {
+            long v = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[pos++];
+                v |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return v;
+        }
+
+        long zigzag() {
+            long v = varint();
+            return (v >>> 1) ^ -(v & 1);
+        }
+    }
+}
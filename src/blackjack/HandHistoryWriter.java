@@ -0,0 +1,442 @@
+package blackjack;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * Streams completed rounds to a compressed columnar file, one row per
+ * seat. Rows are collected into fixed-size row groups; each column of a
+ * group is encoded and deflated separately on a background thread, so
+ * readers can decode only the columns they need.
+ *
+ * <p>The game thread only appends to in-memory column arrays, and never
+ * waits on the writer or sees its errors. Memory is bounded by a pool of
+ * row-group buffers that grows to MAX_BUFFERS while the writer thread
+ * is behind. If the writer falls a whole pool behind, or a write fails,
+ * the writer records the failure and stops accepting rows; close()
+ * reports it, and getFailure() shows it in the meantime. A batch job
+ * that would rather slow down than lose rows can ask the caller to wait
+ * for a free buffer instead, since no player is waiting on it.
+ *
+ * <p>File layout: magic "BJHH", version, then row groups, then a footer
+ * (group count, group offsets, total rows), then the footer's offset and
+ * the magic again. A row group is its row count, column count, and for
+ * each column its raw length, compressed length and deflated bytes.
+ */
+public class HandHistoryWriter implements RoundListener, Closeable {
+    static final byte[] MAGIC = {'B', 'J', 'H', 'H'};
+    static final byte VERSION = 1;
+
+    // Column order within every row group
+    static final int COL_ROUND = 0;        // Round number, zigzag varint delta
+    static final int COL_SEAT = 1;         // Seat index, varint
+    static final int COL_FIRST_CARD = 2;   // Card code, byte
+    static final int COL_SECOND_CARD = 3;  // Card code, byte
+    static final int COL_ACTIONS = 4;      // Varint length + 'H'/'S' bytes
+    static final int COL_UPCARD = 5;       // Dealer upcard code, byte
+    static final int COL_TOTAL = 6;        // Player's final total, byte
+    static final int COL_DEALER_TOTAL = 7; // Dealer's final total, byte
+    static final int COL_OUTCOME = 8;      // Game.Outcome ordinal, byte
+    static final int COL_PAYOUT = 9;       // Units won (-1, 0, 1), signed byte
+    static final int COLUMN_COUNT = 10;
+
+    static final int DEFAULT_ROWS_PER_GROUP = 64 * 1024;
+    private static final int BUFFERS = 3;      // Buffers to start with: one filling, two being written
+    private static final int MAX_BUFFERS = 16; // Most the pool grows to (about 25 bytes per row each)
+
+    private final DataOutputStream out;               // Underlying file
+    private final int rowsPerGroup;                   // Rows per row group
+    private final BlockingQueue<RowGroupBuffer> free; // Buffers ready to fill
+    private final BlockingQueue<RowGroupBuffer> full; // Buffers waiting to be written
+    private final Thread writerThread;                // Encodes and writes row groups
+    private final boolean waitWhenBehind;             // Wait for a buffer instead of stopping
+    private final List<Long> groupOffsets = new ArrayList<>(); // Writer thread only
+    private RowGroupBuffer current;                   // Buffer being filled (game side), null after a failure
+    private int buffers = BUFFERS;                    // Buffers allocated (game side)
+    private long position;                            // Bytes written so far (writer thread)
+    private long rowsWritten;                         // Rows handed to the writer
+    private volatile IOException failure;             // First write error, if any
+    private boolean closed;
+
+    /**
+     * Creates a writer with the default row-group size.
+     * @param file File to create (replaced if it exists)
+     * @throws IOException If the file cannot be opened
+     */
+    public HandHistoryWriter(Path file) throws IOException {
+        this(file, DEFAULT_ROWS_PER_GROUP);
+    }
+
+    /**
+     * Creates a writer.
+     * @param file File to create (replaced if it exists)
+     * @param rowsPerGroup Rows per row group
+     * @throws IOException If the file cannot be opened
+     */
+    public HandHistoryWriter(Path file, int rowsPerGroup) throws IOException {
+        this(file, rowsPerGroup, false);
+    }
+
+    /**
+     * Creates a writer.
+     * @param file File to create (replaced if it exists)
+     * @param rowsPerGroup Rows per row group
+     * @param waitWhenBehind true to make roundCompleted() wait while the
+     *        writer is a whole pool behind, for batch runs where every row
+     *        matters more than the caller's pace; false to stop recording
+     * @throws IOException If the file cannot be opened
+     */
+    public HandHistoryWriter(Path file, int rowsPerGroup, boolean waitWhenBehind) throws IOException {
+        this(Files.newOutputStream(file), rowsPerGroup, waitWhenBehind);
+    }
+
+    /**
+     * Creates a writer on an arbitrary stream.
+     * @param stream Destination; closed by {@link #close()}
+     * @param rowsPerGroup Rows per row group
+     * @param waitWhenBehind Wait for a free buffer rather than stop recording
+     * @throws IOException If the header cannot be written
+     */
+    HandHistoryWriter(OutputStream stream, int rowsPerGroup, boolean waitWhenBehind) throws IOException {
+        if (rowsPerGroup < 1) {
+            throw new IllegalArgumentException("Row groups need at least one row");
+        }
+        this.out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+        this.rowsPerGroup = rowsPerGroup;
+        this.waitWhenBehind = waitWhenBehind;
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        position = MAGIC.length + 1;
+
+        free = new ArrayBlockingQueue<>(MAX_BUFFERS);
+        full = new ArrayBlockingQueue<>(MAX_BUFFERS + 1); // Room for END as well
+        for (int i = 1; i < BUFFERS; i++) {
+            free.add(new RowGroupBuffer(rowsPerGroup));
+        }
+        current = new RowGroupBuffer(rowsPerGroup);
+
+        writerThread = new Thread(this::drain, "hand-history-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Appends one row per seat. Only copies a few values into column
+     * arrays; encoding and I/O happen on the writer thread. Does nothing
+     * once writing has failed.
+     * @param result The completed round
+     * @throws IllegalStateException If the writer has been closed
+     */
+    @Override
+    public synchronized void roundCompleted(RoundResult result) {
+        if (closed) {
+            throw new IllegalStateException("Hand history writer is closed");
+        }
+        if (failure != null) {
+            current = null; // Stopped: the failure is reported by close()
+            return;
+        }
+        for (RoundResult.Seat seat : result.getSeats()) {
+            current.add(result, seat);
+            if (current.size == rowsPerGroup && !handOff()) {
+                return;
+            }
+        }
+    }
+
+    /** @return Rows accepted so far */
+    public synchronized long getRowsWritten() {
+        return rowsWritten + (current == null ? 0 : current.size);
+    }
+
+    /**
+     * @return The error that stopped writing, or null while all is well
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Writes any partial row group and the footer, then closes the file.
+     * @throws IOException If any write failed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (failure == null && current != null && current.size > 0) {
+                rowsWritten += current.size;
+                full.put(current);
+            }
+            full.put(RowGroupBuffer.END); // Tell the writer thread to finish
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while closing hand history", e);
+        }
+        try {
+            if (failure != null) {
+                throw failure;
+            }
+            writeFooter();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Passes the filled buffer to the writer thread and takes an empty
+     * one, allocating another while the pool is below MAX_BUFFERS. Unless
+     * waitWhenBehind was asked for, never waits: a writer a whole pool
+     * behind is recorded as a failure.
+     * @return false if writing has stopped
+     */
+    private boolean handOff() {
+        rowsWritten += current.size;
+        full.add(current); // Never full: it holds at most every buffer
+        current = free.poll();
+        if (current == null && buffers < MAX_BUFFERS) {
+            buffers++;
+            current = new RowGroupBuffer(rowsPerGroup);
+        }
+        if (current == null && waitWhenBehind) {
+            try {
+                current = free.take(); // The writer thread frees buffers even after a failure
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(new IOException("Interrupted while waiting for the hand history writer", e));
+                return false;
+            }
+        }
+        if (current == null) {
+            fail(new IOException("Hand history writer fell " + MAX_BUFFERS
+                                 + " row groups behind; stopped recording"));
+            return false;
+        }
+        return true;
+    }
+
+    /** Records the first failure; later ones are dropped. Either thread may call this. */
+    private void fail(IOException e) {
+        if (failure == null) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Writer thread: encodes and writes row groups until told to stop.
+     */
+    private void drain() {
+        ColumnEncoder encoder = new ColumnEncoder();
+        while (true) {
+            RowGroupBuffer buffer;
+            try {
+                buffer = full.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (buffer == RowGroupBuffer.END) {
+                encoder.end();
+                return;
+            }
+            if (failure == null) {
+                try {
+                    writeRowGroup(buffer, encoder);
+                } catch (IOException e) {
+                    fail(e); // Reported by close(); the game side stops adding rows
+                }
+            }
+            buffer.clear();
+            free.add(buffer); // Never blocks: at most MAX_BUFFERS buffers exist
+        }
+    }
+
+    private void writeRowGroup(RowGroupBuffer buffer, ColumnEncoder encoder) throws IOException {
+        groupOffsets.add(position);
+        out.writeInt(buffer.size);
+        out.writeByte(COLUMN_COUNT);
+        position += 5;
+        for (int column = 0; column < COLUMN_COUNT; column++) {
+            encoder.reset();
+            buffer.encode(column, encoder);
+            int compressed = encoder.deflate();
+            out.writeInt(encoder.rawLength());
+            out.writeInt(compressed);
+            out.write(encoder.compressed, 0, compressed);
+            position += 8 + compressed;
+        }
+    }
+
+    private void writeFooter() throws IOException {
+        long footerOffset = position;
+        out.writeInt(groupOffsets.size());
+        for (long offset : groupOffsets) {
+            out.writeLong(offset);
+        }
+        out.writeLong(rowsWritten);
+        out.writeLong(footerOffset);
+        out.write(MAGIC);
+    }
+
+    /**
+     * Column arrays for one row group, reused across groups.
+     */
+    private static final class RowGroupBuffer {
+        static final RowGroupBuffer END = new RowGroupBuffer(0); // Shutdown marker
+
+        final long[] rounds;
+        final int[] seats;
+        final byte[] firstCards, secondCards, upcards, totals, dealerTotals, outcomes, payouts;
+        final int[] actionEnds; // End offset of each row's actions in actionBytes
+        byte[] actionBytes;
+        int size;
+
+        RowGroupBuffer(int capacity) {
+            rounds = new long[capacity];
+            seats = new int[capacity];
+            firstCards = new byte[capacity];
+            secondCards = new byte[capacity];
+            upcards = new byte[capacity];
+            totals = new byte[capacity];
+            dealerTotals = new byte[capacity];
+            outcomes = new byte[capacity];
+            payouts = new byte[capacity];
+            actionEnds = new int[capacity];
+            actionBytes = new byte[capacity * 2];
+        }
+
+        void add(RoundResult result, RoundResult.Seat seat) {
+            int row = size++;
+            rounds[row] = result.getRoundNumber();
+            seats[row] = seat.getIndex();
+            firstCards[row] = (byte) seat.getFirstCard();
+            secondCards[row] = (byte) seat.getSecondCard();
+            upcards[row] = (byte) result.getDealerUpcard();
+            totals[row] = (byte) seat.getTotal();
+            dealerTotals[row] = (byte) result.getDealerTotal();
+            outcomes[row] = (byte) seat.getOutcome().ordinal();
+            payouts[row] = (byte) seat.getPayout();
+
+            String actions = seat.getActions();
+            int start = row == 0 ? 0 : actionEnds[row - 1];
+            if (start + actions.length() > actionBytes.length) {
+                actionBytes = Arrays.copyOf(actionBytes, Math.max(actionBytes.length * 2, start + actions.length()));
+            }
+            for (int i = 0; i < actions.length(); i++) {
+                actionBytes[start + i] = (byte) actions.charAt(i);
+            }
+            actionEnds[row] = start + actions.length();
+        }
+
+        void encode(int column, ColumnEncoder encoder) {
+            switch (column) {
+                case COL_ROUND:
+                    long previous = 0;
+                    for (int i = 0; i < size; i++) {
+                        encoder.zigzag(rounds[i] - previous); // Mostly 0 or 1
+                        previous = rounds[i];
+                    }
+                    break;
+                case COL_SEAT:
+                    for (int i = 0; i < size; i++) {
+                        encoder.varint(seats[i]);
+                    }
+                    break;
+                case COL_FIRST_CARD: encoder.bytes(firstCards, 0, size); break;
+                case COL_SECOND_CARD: encoder.bytes(secondCards, 0, size); break;
+                case COL_ACTIONS:
+                    int start = 0;
+                    for (int i = 0; i < size; i++) {
+                        encoder.varint(actionEnds[i] - start);
+                        encoder.bytes(actionBytes, start, actionEnds[i] - start);
+                        start = actionEnds[i];
+                    }
+                    break;
+                case COL_UPCARD: encoder.bytes(upcards, 0, size); break;
+                case COL_TOTAL: encoder.bytes(totals, 0, size); break;
+                case COL_DEALER_TOTAL: encoder.bytes(dealerTotals, 0, size); break;
+                case COL_OUTCOME: encoder.bytes(outcomes, 0, size); break;
+                case COL_PAYOUT: encoder.bytes(payouts, 0, size); break;
+                default: throw new IllegalArgumentException("Unknown column " + column);
+            }
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+
+    /**
+     * Reusable raw and compressed byte buffers for one column at a time.
+     */
+    private static final class ColumnEncoder {
+        private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        private byte[] raw = new byte[1 << 16];
+        byte[] compressed = new byte[1 << 16];
+        private int length;
+
+        void reset() { length = 0; }
+
+        int rawLength() { return length; }
+
+        void varint(long v) {
+            while ((v & ~0x7FL) != 0) {
+                put((byte) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            put((byte) v);
+        }
+
+        void zigzag(long v) {
+            varint((v << 1) ^ (v >> 63));
+        }
+
+        void bytes(byte[] source, int offset, int count) {
+            ensure(count);
+            System.arraycopy(source, offset, raw, length, count);
+            length += count;
+        }
+
+        private void put(byte b) {
+            ensure(1);
+            raw[length++] = b;
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > raw.length) {
+                raw = Arrays.copyOf(raw, Math.max(raw.length * 2, length + extra));
+            }
+        }
+
+        /** @return Number of compressed bytes now in {@link #compressed} */
+        int deflate() {
+            deflater.reset();
+            deflater.setInput(raw, 0, length);
+            deflater.finish();
+            int total = 0;
+            while (!deflater.finished()) {
+                if (total == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                }
+                total += deflater.deflate(compressed, total, compressed.length - total);
+            }
+            return total;
+        }
+
+        void end() { deflater.end(); }
+    }
+}
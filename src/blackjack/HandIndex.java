@@ -0,0 +1,318 @@
+package blackjack;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory query engine over recorded hands (one per seat per round).
+ * Rows are grouped into fixed-size segments, and every segment indexes
+ * the dealer upcard, starting total, soft/hard, first action and
+ * outcome. Each dimension is stored bit-sliced: bitmap b holds bit b of
+ * every row's value, so the 10 upcards take 4 bitmaps, the 18 starting
+ * totals 5 and the 3 outcomes 2. A filter-and-aggregate query is a
+ * word-by-word AND of the selected slices (or their complements)
+ * followed by popcounts, so no row is ever touched.
+ *
+ * <p>Memory is 13 bits per row, about 1.6 bytes, or 160 MB per hundred
+ * million hands; the open segment costs a full segment's 104 KB. Rows
+ * are random in every dimension, so run-length or sparse containers
+ * would not shrink the slices further. A long-lived index can be capped
+ * with {@link #HandIndex(long)}, which keeps only the newest rows.
+ *
+ * <p>Full segments are immutable and queried in parallel without locks.
+ * New rounds are appended to the open segment as they arrive (the index
+ * is a RoundListener), so queries always include every round so far.
+ */
+public class HandIndex implements RoundListener {
+    static final int SEGMENT_ROWS = 1 << 16;      // Rows per segment
+    private static final int WORDS = SEGMENT_ROWS / 64;
+
+    private final List<Segment> sealed = new CopyOnWriteArrayList<>(); // Full, immutable segments, oldest first
+    private Segment open = new Segment();                              // Segment being filled (guarded by this)
+    private final int maxSealed;                                       // Sealed segments kept at most
+    private long dropped;                                              // Rows discarded by the cap (guarded by this)
+
+    /**
+     * Creates an index that keeps every row added.
+     */
+    public HandIndex() {
+        maxSealed = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Creates an index that holds at most about maxRows rows: once full,
+     * each segment sealed discards the oldest one, so queries cover a
+     * sliding window of the newest rows.
+     * @param maxRows Rows to keep, at least one segment's worth (65,536)
+     */
+    public HandIndex(long maxRows) {
+        if (maxRows < SEGMENT_ROWS) {
+            throw new IllegalArgumentException("A capped index holds at least " + SEGMENT_ROWS + " rows");
+        }
+        maxSealed = (int) Math.min(Integer.MAX_VALUE, maxRows / SEGMENT_ROWS - 1); // The open segment counts too
+    }
+
+    /**
+     * Adds every seat of a completed round.
+     * @param result The completed round
+     */
+    @Override
+    public void roundCompleted(RoundResult result) {
+        int upcard = Card.valueOfCode(result.getDealerUpcard());
+        synchronized (this) {
+            for (RoundResult.Seat seat : result.getSeats()) {
+                add(upcard, seat.getFirstCard(), seat.getSecondCard(), seat.getActions(), seat.getOutcome());
+            }
+        }
+    }
+
+    /**
+     * Adds every row of a hand history file.
+     * @param reader Open hand history
+     * @throws IOException If the file cannot be read
+     */
+    public void addAll(HandHistoryReader reader) throws IOException {
+        for (int g = 0; g < reader.getRowGroupCount(); g++) {
+            HandHistoryReader.RowGroup group = reader.readRowGroup(g);
+            synchronized (this) {
+                for (int row = 0; row < group.size(); row++) {
+                    add(Card.valueOfCode(group.getDealerUpcard(row)), group.getFirstCard(row),
+                        group.getSecondCard(row), group.getActions(row), group.getOutcome(row));
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs a query over every row added so far (or still kept, if capped).
+     * @param query Filter to apply
+     * @return Counts and EV of the matching hands
+     */
+    public Result query(Query query) {
+        Segment[] segments;
+        Result result;
+        synchronized (this) { // Same instant for both: no segment can be sealed in between
+            segments = sealed.toArray(new Segment[0]);
+            result = open.query(query);
+        }
+        // Sealed segments never change: scan them in parallel without locking
+        return Arrays.stream(segments).parallel()
+            .map(segment -> segment.query(query))
+            .reduce(new Result(), Result::plus)
+            .plus(result);
+    }
+
+    /** @return Number of rows indexed */
+    public synchronized long size() {
+        return (long) sealed.size() * SEGMENT_ROWS + open.size;
+    }
+
+    /** @return Number of rows discarded to stay within the cap */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Adds one row, sealing the open segment when it fills.
+     */
+    private void add(int upcard, int firstCard, int secondCard, String actions, Game.Outcome outcome) {
+        // Starting total and softness from the two dealt cards
+        int total = Card.valueOfCode(firstCard) + Card.valueOfCode(secondCard);
+        boolean soft = Card.valueOfCode(firstCard) == 11 || Card.valueOfCode(secondCard) == 11;
+        if (total > 21) {
+            total -= 10; // Pair of aces: 12, still soft
+        }
+        boolean hit = !actions.isEmpty() && actions.charAt(0) == 'H';
+
+        open.add(upcard, total, soft, hit, outcome);
+        if (open.size == SEGMENT_ROWS) {
+            sealed.add(open);
+            if (sealed.size() > maxSealed) {
+                sealed.remove(0); // Oldest first
+                dropped += SEGMENT_ROWS;
+            }
+            open = new Segment();
+        }
+    }
+
+    /**
+     * Bit-sliced bitmaps for up to SEGMENT_ROWS rows.
+     */
+    private static final class Segment {
+        final long[][] upcard = slices(4);   // Upcard value - 2 (0-9)
+        final long[][] total = slices(5);    // Starting total - 4 (0-17)
+        final long[] soft = new long[WORDS]; // Soft starting hand
+        final long[] hit = new long[WORDS];  // First action was hit
+        final long[][] outcome = slices(2);  // Game.Outcome ordinal (0-2)
+        int size;
+
+        private static long[][] slices(int bits) {
+            return new long[bits][WORDS];
+        }
+
+        void add(int upcardValue, int startingTotal, boolean isSoft, boolean isHit, Game.Outcome result) {
+            int word = size >>> 6;
+            long bit = 1L << (size & 63);
+            set(upcard, upcardValue - 2, word, bit);
+            set(total, startingTotal - 4, word, bit);
+            if (isSoft) {
+                soft[word] |= bit;
+            }
+            if (isHit) {
+                hit[word] |= bit;
+            }
+            set(outcome, result.ordinal(), word, bit);
+            size++;
+        }
+
+        private static void set(long[][] slices, int value, int word, long bit) {
+            for (int b = 0; b < slices.length; b++) {
+                if ((value >>> b & 1) != 0) {
+                    slices[b][word] |= bit;
+                }
+            }
+        }
+
+        /**
+         * @return Bits of the rows in word w whose value is exactly value
+         */
+        private static long equal(long[][] slices, int value, int w) {
+            long m = -1L;
+            for (int b = 0; b < slices.length; b++) {
+                m &= (value >>> b & 1) != 0 ? slices[b][w] : ~slices[b][w];
+            }
+            return m;
+        }
+
+        Result query(Query q) {
+            Result result = new Result();
+            if (q.upcard != 0 && (q.upcard < 2 || q.upcard > 11)
+                    || q.total != 0 && (q.total < 4 || q.total > 21)) {
+                return result; // Value that can never occur
+            }
+            long[] o0 = outcome[0];
+            long[] o1 = outcome[1];
+
+            int words = (size + 63) >>> 6;
+            for (int w = 0; w < words; w++) {
+                // Rows that exist in this word
+                long m = w == words - 1 && (size & 63) != 0 ? (1L << (size & 63)) - 1 : -1L;
+                if (q.upcard != 0) m &= equal(upcard, q.upcard - 2, w);
+                if (q.total != 0) m &= equal(total, q.total - 4, w);
+                if (q.soft != null) m &= q.soft ? soft[w] : ~soft[w];
+                if (q.hit != null) m &= q.hit ? hit[w] : ~hit[w];
+                if (q.outcome != null) m &= equal(outcome, q.outcome.ordinal(), w);
+                if (m == 0) {
+                    continue;
+                }
+                // WIN = 0, LOSE = 1, PUSH = 2
+                result.wins += Long.bitCount(m & ~o0[w] & ~o1[w]);
+                result.losses += Long.bitCount(m & o0[w]);
+                result.pushes += Long.bitCount(m & o1[w]);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Filter over the indexed dimensions. Unset dimensions match everything.
+     */
+    public static final class Query {
+        private int upcard;          // Dealer upcard value 2-11, or 0 for any
+        private int total;           // Starting total 4-21, or 0 for any
+        private Boolean soft;        // Soft (true) or hard (false), or null for any
+        private Boolean hit;         // First action hit (true) or stand (false), or null
+        private Game.Outcome outcome; // Outcome, or null for any
+
+        /** @return Query matching every hand */
+        public static Query all() { return new Query(); }
+
+        /**
+         * @param value Dealer upcard value (2-10, ace = 11)
+         * @return This query
+         */
+        public Query upcard(int value) { this.upcard = value; return this; }
+
+        /**
+         * @param value Player's two-card starting total
+         * @return This query
+         */
+        public Query startingTotal(int value) { this.total = value; return this; }
+
+        /**
+         * @param value true for soft starting hands, false for hard
+         * @return This query
+         */
+        public Query soft(boolean value) { this.soft = value; return this; }
+
+        /**
+         * @param value true if the first action was hit, false if stand
+         * @return This query
+         */
+        public Query hit(boolean value) { this.hit = value; return this; }
+
+        /**
+         * @param value Outcome to match
+         * @return This query
+         */
+        public Query outcome(Game.Outcome value) { this.outcome = value; return this; }
+
+        @Override
+        public String toString() {
+            List<String> parts = new ArrayList<>();
+            if (total != 0) parts.add((soft == null ? "" : soft ? "soft " : "hard ") + total);
+            else if (soft != null) parts.add(soft ? "soft" : "hard");
+            if (hit != null) parts.add(hit ? "hit" : "stand");
+            if (upcard != 0) parts.add("vs " + (upcard == 11 ? "A" : String.valueOf(upcard)));
+            if (outcome != null) parts.add(outcome.name().toLowerCase());
+            return parts.isEmpty() ? "all hands" : String.join(" ", parts);
+        }
+    }
+
+    /**
+     * Aggregate over the matching hands.
+     */
+    public static final class Result {
+        private long wins;
+        private long losses;
+        private long pushes;
+
+        Result plus(Result other) {
+            Result sum = new Result();
+            sum.wins = wins + other.wins;
+            sum.losses = losses + other.losses;
+            sum.pushes = pushes + other.pushes;
+            return sum;
+        }
+
+        /** @return Matching hands */
+        public long getHands() { return wins + losses + pushes; }
+
+        /** @return Matching hands won */
+        public long getWins() { return wins; }
+
+        /** @return Matching hands lost */
+        public long getLosses() { return losses; }
+
+        /** @return Matching hands pushed */
+        public long getPushes() { return pushes; }
+
+        /** @return Net units won */
+        public long getNet() { return wins - losses; }
+
+        /** @return Mean units won per hand (0 if none match) */
+        public double getEv() {
+            long hands = getHands();
+            return hands == 0 ? 0 : (double) getNet() / hands;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hands=%d win=%d lose=%d push=%d ev=%+.4f",
+                                 getHands(), wins, losses, pushes, getEv());
+        }
+    }
+}
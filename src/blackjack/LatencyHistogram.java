@@ -0,0 +1,127 @@
+package blackjack;
+
+import java.util.Arrays;
+
+/**
+ * Log-linear histogram of latencies in nanoseconds: each power of two
+ * is split into 8 sub-buckets, so any recorded value is reported within
+ * 12.5%. Not thread-safe; give each thread its own and merge them.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BITS = 3;               // 8 sub-buckets per power of two
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;   // Values recorded
+    private long max;     // Largest value recorded
+
+    /**
+     * Records one latency.
+     * @param nanos Latency in nanoseconds (negative values count as 0)
+     */
+    public void record(long nanos) {
+        long v = Math.max(0, nanos);
+        counts[bucketOf(v)]++;
+        total++;
+        if (v > max) {
+            max = v;
+        }
+    }
+
+    /**
+     * Adds another histogram's counts into this one.
+     * @param other Histogram to add
+     */
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+        max = Math.max(max, other.max);
+    }
+
+    /** Clears all counts. */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        total = 0;
+        max = 0;
+    }
+
+    /** @return Number of values recorded */
+    public long getCount() { return total; }
+
+    /** @return Largest value recorded, in nanoseconds */
+    public long getMax() { return max; }
+
+    /**
+     * @param percentile Percentile, 0-100
+     * @return Upper bound of the bucket holding that percentile, in nanoseconds
+     */
+    public long getPercentile(double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= Math.max(1, rank)) {
+                return Math.min(upperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return Bucket index: values below 8 map directly, larger values by
+     *         their highest bit plus the next three bits
+     */
+    private static int bucketOf(long v) {
+        if (v < SUB_BUCKETS) {
+            return (int) v;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(v);      // >= SUB_BITS
+        int sub = (int) (v >>> (magnitude - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (magnitude - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * @return Largest value that maps to a bucket
+     */
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int magnitude = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        long lower = (1L << magnitude) | (sub << (magnitude - SUB_BITS));
+        return lower + (1L << (magnitude - SUB_BITS)) - 1;
+    }
+
+    /**
+     * @return Summary such as "p50=12.0us p99=40.1us p99.9=88.0us max=1.2ms"
+     */
+    @Override
+    public String toString() {
+        return "p50=" + format(getPercentile(50)) + " p99=" + format(getPercentile(99))
+            + " p99.9=" + format(getPercentile(99.9)) + " max=" + format(max);
+    }
+
+    /**
+     * @param nanos Duration in nanoseconds
+     * @return Human-readable duration
+     */
+    static String format(long nanos) {
+        if (nanos < 1_000) {
+            return nanos + "ns";
+        }
+        if (nanos < 1_000_000) {
+            return String.format("%.1fus", nanos / 1e3);
+        }
+        if (nanos < 1_000_000_000) {
+            return String.format("%.1fms", nanos / 1e6);
+        }
+        return String.format("%.2fs", nanos / 1e9);
+    }
+}
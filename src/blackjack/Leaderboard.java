@@ -0,0 +1,364 @@
+package blackjack;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live leaderboard across any number of tables: register it as a
+ * RoundListener on each Game. Every seat result updates the player's
+ * counters and then offers the player to a small ranked board per
+ * metric, so recording never rescans all players and a query usually
+ * only copies the top K.
+ *
+ * <p>Counters are LongAdders, so tables on different threads updating
+ * players never contend on a shared cache line. Each board keeps its
+ * lowest score in a volatile field: a player who is neither on the
+ * board nor above that score, the common case, is turned away without
+ * taking the board's lock.
+ *
+ * <p>Boards hold twice the requested K. Each board also remembers the
+ * best score it has turned away or evicted since it last re-ranked.
+ * While its K-th place is above that score, nobody off the board can
+ * belong in the top K. Otherwise members have since lost ground to
+ * players who are off the board, and the query re-ranks every player
+ * once. Rankings are always exact.
+ */
+public class Leaderboard implements RoundListener {
+    /** Minimum hands before a player is ranked by win rate */
+    static final int MIN_HANDS_FOR_RATE = 100;
+
+    /**
+     * What a board ranks players by.
+     */
+    public enum Metric {
+        NET_WINNINGS, // Units won minus units lost
+        WIN_RATE,     // Hands won / hands played, after MIN_HANDS_FOR_RATE hands
+        BEST_STREAK   // Longest run of consecutive wins
+    }
+
+    private final int top;  // K: entries a query returns at most
+    private final Map<String, PlayerStats> players = new ConcurrentHashMap<>();
+    private final Board[] boards = new Board[Metric.values().length];
+    private final LongAdder rounds = new LongAdder(); // Rounds seen across all tables
+    private final LongAdder hands = new LongAdder();  // Seat results seen across all tables
+
+    /**
+     * Creates an empty leaderboard.
+     * @param top Most entries a query returns
+     */
+    public Leaderboard(int top) {
+        if (top < 1) {
+            throw new IllegalArgumentException("A leaderboard needs at least one place");
+        }
+        this.top = top;
+        for (Metric metric : Metric.values()) {
+            boards[metric.ordinal()] = new Board(metric, top * 2);
+        }
+    }
+
+    /**
+     * Records every seat of a round and re-ranks those players. Safe to
+     * call from many tables' threads at once.
+     * @param result The completed round
+     */
+    @Override
+    public void roundCompleted(RoundResult result) {
+        rounds.increment();
+        for (RoundResult.Seat seat : result.getSeats()) {
+            PlayerStats stats = players.get(seat.getName());
+            if (stats == null) {
+                stats = players.computeIfAbsent(seat.getName(), PlayerStats::new);
+            }
+            stats.record(seat.getOutcome());
+            hands.increment();
+            for (Board board : boards) {
+                board.offer(stats);
+            }
+        }
+    }
+
+    /**
+     * @param metric What to rank by
+     * @return Up to K leaders, best first
+     */
+    public List<Entry> getTop(Metric metric) {
+        return boards[metric.ordinal()].top(top, players.values());
+    }
+
+    /** @return Rounds recorded across all tables */
+    public long getRounds() { return rounds.sum(); }
+
+    /** @return Seat results recorded across all tables */
+    public long getHands() { return hands.sum(); }
+
+    /** @return Distinct players seen */
+    public int getPlayerCount() { return players.size(); }
+
+    /**
+     * @return Every board, K entries each, e.g. "Net winnings: 1. Alice +12 (40 hands) ..."
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%,d players, %,d hands in %,d rounds%n", getPlayerCount(), getHands(), getRounds()));
+        for (Metric metric : Metric.values()) {
+            sb.append(metric.name().toLowerCase().replace('_', ' ')).append(':').append(System.lineSeparator());
+            List<Entry> leaders = getTop(metric);
+            for (int i = 0; i < leaders.size(); i++) {
+                sb.append(String.format("  %2d. %s%n", i + 1, leaders.get(i)));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * One player's running totals. Counters are striped; the streak is
+     * kept with compare-and-set since it depends on the previous value.
+     */
+    static final class PlayerStats {
+        final String name;
+        final LongAdder hands = new LongAdder();
+        final LongAdder wins = new LongAdder();
+        final LongAdder net = new LongAdder();
+        final AtomicInteger streak = new AtomicInteger();  // Current run of wins
+        final AtomicInteger bestStreak = new AtomicInteger();
+        final AtomicInteger onBoards = new AtomicInteger(); // Bit per Metric ordinal; changed under that board's lock
+
+        PlayerStats(String name) {
+            this.name = name;
+        }
+
+        void record(Game.Outcome outcome) {
+            hands.increment();
+            if (outcome == Game.Outcome.WIN) {
+                wins.increment();
+                net.increment();
+                int run = streak.incrementAndGet();
+                if (run > bestStreak.get()) {
+                    bestStreak.accumulateAndGet(run, Math::max);
+                }
+            } else {
+                if (outcome == Game.Outcome.LOSE) {
+                    net.decrement();
+                }
+                streak.set(0); // A push ends a streak too
+            }
+        }
+
+        /**
+         * @return Score under a metric, or NaN if not yet eligible for it
+         */
+        double score(Metric metric) {
+            switch (metric) {
+                case NET_WINNINGS:
+                    return net.sum();
+                case WIN_RATE:
+                    long played = hands.sum();
+                    return played < MIN_HANDS_FOR_RATE ? Double.NaN : (double) wins.sum() / played;
+                default:
+                    return bestStreak.get();
+            }
+        }
+    }
+
+    /**
+     * Bounded ranking for one metric: the best {@code capacity} players
+     * seen, sorted best first. Changes take the lock; the lowest score of
+     * a full board is published so most offers can be rejected without
+     * it. Rejections and evictions raise the board's ceiling, the best
+     * score off the board, without the lock.
+     */
+    private static final class Board {
+        private static final long NONE = Double.doubleToLongBits(Double.NEGATIVE_INFINITY); // Nobody turned away
+
+        private final Metric metric;
+        private final int bit;                  // This board's bit in PlayerStats.onBoards
+        private final PlayerStats[] members;
+        private final double[] scores;
+        private int size;
+        private volatile double threshold = Double.NEGATIVE_INFINITY; // Lowest score while full
+        private final AtomicLong ceiling = new AtomicLong(NONE); // Bits of the best score off the board
+
+        Board(Metric metric, int capacity) {
+            this.metric = metric;
+            this.bit = 1 << metric.ordinal();
+            this.members = new PlayerStats[capacity];
+            this.scores = new double[capacity];
+        }
+
+        void offer(PlayerStats stats) {
+            double score = stats.score(metric);
+            boolean member = (stats.onBoards.get() & bit) != 0;
+            if (!member && !(score > threshold)) {
+                turnedAway(score); // Fast path: can't place, and isn't on the board to move (NaN never places)
+                return;
+            }
+            synchronized (this) {
+                place(stats, stats.score(metric)); // Latest, in case another table just moved it
+            }
+        }
+
+        /**
+         * Adds, moves or turns away a player. Call with the lock held.
+         * @param stats The player
+         * @param score Player's current score
+         */
+        private void place(PlayerStats stats, double score) {
+            int at = indexOf(stats);
+            if (at < 0) {
+                if (Double.isNaN(score)) {
+                    return;
+                }
+                if (size == members.length) {
+                    if (!ranksAbove(score, stats.name, size - 1)) {
+                        turnedAway(score);
+                        return;
+                    }
+                    members[size - 1].onBoards.getAndUpdate(b -> b & ~bit); // Evict the lowest
+                    turnedAway(scores[size - 1]);
+                    size--;
+                }
+                at = size++;
+                stats.onBoards.getAndUpdate(b -> b | bit);
+            }
+            members[at] = stats;
+            scores[at] = score;
+            // Only this entry moved: slide it into place
+            while (at > 0 && better(at, at - 1)) {
+                swap(at, at - 1);
+                at--;
+            }
+            while (at < size - 1 && better(at + 1, at)) {
+                swap(at, at + 1);
+                at++;
+            }
+            threshold = size == members.length ? scores[size - 1] : Double.NEGATIVE_INFINITY;
+        }
+
+        /**
+         * Raises the ceiling to the score of a player left off the board.
+         * @param score The player's score (NaN is ignored: it isn't ranked)
+         */
+        private void turnedAway(double score) {
+            long bits;
+            while (score > Double.longBitsToDouble(bits = ceiling.get())
+                   && !ceiling.compareAndSet(bits, Double.doubleToLongBits(score))) {
+                // Another thread raised it first; compare against theirs
+            }
+        }
+
+        /**
+         * @param k Places wanted
+         * @param players Every player, for re-ranking if the board can't vouch for its top k
+         * @return Up to k leaders, best first
+         */
+        synchronized List<Entry> top(int k, Collection<PlayerStats> players) {
+            double offBoard = Double.longBitsToDouble(ceiling.get());
+            if (offBoard != Double.NEGATIVE_INFINITY && (size < k || !(scores[k - 1] > offBoard))) {
+                rerank(players); // Someone off the board may now outrank a member
+            }
+            List<Entry> leaders = new ArrayList<>(Math.min(k, size));
+            for (int i = 0; i < size && i < k; i++) {
+                leaders.add(new Entry(metric, members[i].name, scores[i], members[i].hands.sum()));
+            }
+            return Collections.unmodifiableList(leaders);
+        }
+
+        /**
+         * Rebuilds the board from every player's current score. Call with
+         * the lock held. The ceiling is reset first, so a player turned
+         * away by another thread meanwhile still raises it.
+         */
+        private void rerank(Collection<PlayerStats> players) {
+            for (int i = 0; i < size; i++) {
+                members[i].onBoards.getAndUpdate(b -> b & ~bit);
+                members[i] = null;
+            }
+            size = 0;
+            threshold = Double.NEGATIVE_INFINITY;
+            ceiling.set(NONE);
+            for (PlayerStats stats : players) {
+                place(stats, stats.score(metric));
+            }
+        }
+
+        private int indexOf(PlayerStats stats) {
+            if ((stats.onBoards.get() & bit) == 0) {
+                return -1;
+            }
+            for (int i = 0; i < size; i++) {
+                if (members[i] == stats) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /** @return Whether entry i ranks above entry j: higher score, then name */
+        private boolean better(int i, int j) {
+            return ranksAbove(scores[i], members[i].name, j);
+        }
+
+        /** @return Whether a player with this score and name ranks above entry j */
+        private boolean ranksAbove(double score, String name, int j) {
+            int c = Double.compare(score, scores[j]);
+            return c > 0 || (c == 0 && name.compareTo(members[j].name) < 0);
+        }
+
+        private void swap(int i, int j) {
+            PlayerStats m = members[i];
+            members[i] = members[j];
+            members[j] = m;
+            double s = scores[i];
+            scores[i] = scores[j];
+            scores[j] = s;
+        }
+    }
+
+    /**
+     * One leaderboard place, captured when queried.
+     */
+    public static final class Entry {
+        private final Metric metric;
+        private final String name;
+        private final double score;
+        private final long hands;
+
+        Entry(Metric metric, String name, double score, long hands) {
+            this.metric = metric;
+            this.name = name;
+            this.score = score;
+            this.hands = hands;
+        }
+
+        /** @return Player's name */
+        public String getName() { return name; }
+
+        /** @return Score under the board's metric */
+        public double getScore() { return score; }
+
+        /** @return Hands the player had played when queried */
+        public long getHands() { return hands; }
+
+        /**
+         * @return e.g. "Alice +12 (40 hands)", "Bob 48.5% (200 hands)" or "Carol 7 wins (90 hands)"
+         */
+        @Override
+        public String toString() {
+            String value;
+            switch (metric) {
+                case NET_WINNINGS: value = String.format("%+d", (long) score); break;
+                case WIN_RATE: value = String.format("%.1f%%", score * 100); break;
+                default: value = (long) score + " wins"; break;
+            }
+            return String.format("%s %s (%,d hands)", name, value, hands);
+        }
+    }
+}
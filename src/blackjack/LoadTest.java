@@ -0,0 +1,323 @@
+package blackjack;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process load generator: many tables, each seat driven by a synthetic
+ * player that issues hit, stand or new-round at a fixed rate. Latency is
+ * measured from when an action was due, not when it ran, so a backed-up
+ * pool shows up as latency instead of silently lowering the offered load.
+ */
+public class LoadTest {
+    private static final double SATURATED = 0.9; // Achieved/offered ratio below which a step is saturated
+
+    private final int tableCount;  // Tables under load
+    private final int seats;       // Synthetic players per table
+    private final int threads;     // Worker threads issuing actions
+    private final Strategy strategy; // How synthetic players decide to hit
+    private final List<Game> tables = new ArrayList<>();
+
+    /**
+     * Creates the tables; each deals its first round immediately.
+     * @param tableCount Number of tables
+     * @param seats Synthetic players per table
+     * @param threads Worker threads issuing actions
+     * @param strategy Strategy for every synthetic player
+     */
+    public LoadTest(int tableCount, int seats, int threads, Strategy strategy) {
+        if (tableCount < 1 || threads < 1) {
+            throw new IllegalArgumentException("Need at least one table and one thread");
+        }
+        this.tableCount = tableCount;
+        this.seats = seats;
+        this.threads = threads;
+        this.strategy = strategy;
+        List<String> names = Simulator.seatNames(seats);
+        ShoePool shoes = ShoePool.forTables(tableCount, seats); // Every table may start a round at once
+        for (int i = 0; i < tableCount; i++) {
+            tables.add(new Game(names, shoes));
+        }
+    }
+
+    /**
+     * Runs one load step and blocks until it finishes.
+     * @param actionsPerSecond Offered load across all tables
+     * @param seconds Step duration
+     * @return Measurements for the step
+     */
+    public Step runStep(double actionsPerSecond, double seconds) throws InterruptedException {
+        int drivers = tableCount * seats;
+        long period = Math.max(1, (long) (1e9 * drivers / actionsPerSecond)); // Per driver, in ns
+
+        Queue<Recorder> recorders = new ConcurrentLinkedQueue<>();
+        ThreadLocal<Recorder> local = ThreadLocal.withInitial(() -> {
+            Recorder recorder = new Recorder();
+            recorders.add(recorder);
+            return recorder;
+        });
+
+        AtomicInteger threadIds = new AtomicInteger();
+        List<Thread> workers = new ArrayList<>();
+        ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(threads, r -> {
+            Thread t = new Thread(r, "load-" + threadIds.incrementAndGet());
+            t.setDaemon(true);
+            synchronized (workers) {
+                workers.add(t);
+            }
+            return t;
+        });
+        pool.setRemoveOnCancelPolicy(true);
+        pool.prestartAllCoreThreads();
+        long[] ids = threadIds(workers);
+        ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+        long allocatedBefore = allocatedBytes(mx, ids);
+        long blockedBefore = blockedCount(mx, ids);
+
+        // Stagger drivers across one period so they don't fire in lockstep
+        long start = System.nanoTime() + 10_000_000L;
+        List<ScheduledFuture<?>> futures = new ArrayList<>(drivers);
+        int index = 0;
+        for (Game game : tables) {
+            for (int seat = 0; seat < seats; seat++) {
+                long offset = period * index++ / drivers;
+                Driver driver = new Driver(game, seat, start + offset, period, local);
+                futures.add(pool.scheduleAtFixedRate(driver, start + offset - System.nanoTime(),
+                    period, TimeUnit.NANOSECONDS));
+            }
+        }
+
+        long end = start + (long) (seconds * 1e9);
+        long remaining;
+        while ((remaining = end - System.nanoTime()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+        for (ScheduledFuture<?> future : futures) {
+            future.cancel(false);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        // Read allocation while the workers are still alive, then let them finish
+        long allocated = allocatedBytes(mx, ids) - allocatedBefore;
+        long blocked = blockedCount(mx, ids) - blockedBefore;
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.MINUTES);
+
+        Step step = new Step(actionsPerSecond, elapsed);
+        for (Recorder recorder : recorders) {
+            step.latency.merge(recorder.latency);
+            step.actions += recorder.actions;
+            step.accepted += recorder.accepted;
+        }
+        step.allocatedBytes = allocatedBefore < 0 ? -1 : allocated;
+        step.blocked = blocked;
+        return step;
+    }
+
+    /**
+     * @return Number of tables under load
+     */
+    public int getTableCount() { return tableCount; }
+
+    /**
+     * One synthetic player: acts only when it is this seat's turn, and
+     * asks for the next round once the current one is over.
+     */
+    private class Driver implements Runnable {
+        private final Game game;
+        private final int seat;
+        private final long period;
+        private final ThreadLocal<Recorder> local;
+        private long due; // When the current action was due
+
+        Driver(Game game, int seat, long firstDue, long period, ThreadLocal<Recorder> local) {
+            this.game = game;
+            this.seat = seat;
+            this.due = firstDue;
+            this.period = period;
+            this.local = local;
+        }
+
+        @Override
+        public void run() {
+            boolean accepted = act(); // Game is thread-safe; no table lock needed here
+            Recorder recorder = local.get();
+            recorder.latency.record(System.nanoTime() - due);
+            recorder.actions++;
+            if (accepted) {
+                recorder.accepted++;
+            }
+            due += period;
+        }
+
+        /**
+         * @return True if the action changed the table
+         */
+        private boolean act() {
+            long round = game.getRoundNumber(); // Read first: a later round turns the action away
+            if (game.nextRound(round)) {
+                return true; // Any seat may deal the next round; only one succeeds
+            }
+            if (game.getActingSeat() != seat) {
+                return false; // Out of turn
+            }
+            Card upcard = game.getDealer().getHand().getCards().get(0);
+            Hand hand = game.getPlayers().get(seat).getHand();
+            return strategy.shouldHit(hand, upcard) ? game.playerHit(seat, round) : game.playerStand(seat, round);
+        }
+    }
+
+    /**
+     * Per-thread counters, merged once the step's pool has terminated.
+     */
+    private static class Recorder {
+        final LatencyHistogram latency = new LatencyHistogram();
+        long actions;  // Actions attempted
+        long accepted; // Actions that changed a table
+    }
+
+    /**
+     * Measurements for one load step.
+     */
+    public static class Step {
+        private final double offered;  // Offered actions per second
+        private final long elapsed;    // Step duration in nanoseconds
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private long actions;
+        private long accepted;
+        private long allocatedBytes;   // Bytes allocated by the workers, -1 if unsupported
+        private long blocked;          // Times a worker blocked on a monitor
+
+        Step(double offered, long elapsed) {
+            this.offered = offered;
+            this.elapsed = elapsed;
+        }
+
+        public double getOfferedRate() { return offered; }
+        public double getAchievedRate() { return actions * 1e9 / elapsed; }
+        public long getActions() { return actions; }
+        public long getAccepted() { return accepted; }
+        public LatencyHistogram getLatency() { return latency; }
+        public long getBlockedCount() { return blocked; }
+
+        /**
+         * @return Bytes allocated per action, or -1 if the JVM can't tell
+         */
+        public double getBytesPerAction() {
+            return allocatedBytes < 0 || actions == 0 ? -1 : (double) allocatedBytes / actions;
+        }
+
+        /**
+         * @return True if the workers fell noticeably behind the offered load
+         */
+        public boolean isSaturated() {
+            return getAchievedRate() < offered * SATURATED;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("offered %,.0f/s achieved %,.0f/s (%,d accepted) %s alloc %.0f B/op blocked %d%s",
+                offered, getAchievedRate(), accepted, latency, getBytesPerAction(), blocked,
+                isSaturated() ? " SATURATED" : "");
+        }
+    }
+
+    /**
+     * @return Ids of the pool's worker threads
+     */
+    private static long[] threadIds(List<Thread> workers) {
+        synchronized (workers) {
+            long[] ids = new long[workers.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = workers.get(i).getId();
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * @return Total bytes allocated by the threads, or -1 if unsupported
+     */
+    private static long allocatedBytes(ThreadMXBean mx, long[] ids) {
+        if (!(mx instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) mx;
+        if (!hotspot.isThreadAllocatedMemorySupported() || !hotspot.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        long total = 0;
+        for (long bytes : hotspot.getThreadAllocatedBytes(ids)) {
+            total += Math.max(0, bytes);
+        }
+        return total;
+    }
+
+    /**
+     * @return Total times the threads have blocked entering a monitor
+     */
+    private static long blockedCount(ThreadMXBean mx, long[] ids) {
+        long total = 0;
+        for (ThreadInfo info : mx.getThreadInfo(ids)) {
+            if (info != null) {
+                total += info.getBlockedCount();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Steps the offered load up until the tables saturate.
+     * Usage: LoadTest tables startRate [steps] [stepSeconds] [seats] [threads]
+     * Each step doubles the offered rate.
+     */
+    public static void main(String[] args) throws Exception {
+        int tables = Integer.parseInt(args[0]);
+        double rate = Double.parseDouble(args[1]);
+        int steps = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+        double stepSeconds = args.length > 3 ? Double.parseDouble(args[3]) : 5;
+        int seats = args.length > 4 ? Integer.parseInt(args[4]) : 2;
+        int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+
+        LoadTest test = new LoadTest(tables, seats, threads, new ThresholdStrategy(17));
+        System.out.printf("%d tables x %d seats on %d threads%n", tables, seats, threads);
+        test.stepUp(rate, steps, stepSeconds, System.out);
+    }
+
+    /**
+     * Warms up, then doubles the offered load each step until a step
+     * saturates or the steps run out.
+     * @param startRate Offered actions per second for the first step
+     * @param steps Maximum number of steps
+     * @param stepSeconds Duration of each step
+     * @param out Where each step's summary is printed
+     * @return The steps run
+     * @throws InterruptedException If interrupted mid-step
+     */
+    public List<Step> stepUp(double startRate, int steps, double stepSeconds, PrintStream out)
+            throws InterruptedException {
+        runStep(startRate, Math.min(2, stepSeconds)); // Warm-up, not reported
+        List<Step> results = new ArrayList<>();
+        double rate = startRate;
+        for (int i = 0; i < steps; i++) {
+            Step step = runStep(rate, stepSeconds);
+            results.add(step);
+            out.println(step);
+            if (step.isSaturated()) {
+                break;
+            }
+            rate *= 2;
+        }
+        return results;
+    }
+}
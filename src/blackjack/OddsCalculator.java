@@ -0,0 +1,300 @@
+package blackjack;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Exact odds for the player's next decision, computed from the cards
+ * still unseen. Follows this game's rules: the dealer hits below 16,
+ * a busted player loses even if the dealer busts, ties push, and every
+ * decided hand pays 1 to 1.
+ */
+public final class OddsCalculator {
+    private static final int DEALER_STANDS_ON = 16; // Matches Dealer.play()
+    private static final int BUST = 6;               // Index of "dealer busts" in a distribution
+
+    private final int upcard;            // Dealer's face-up card value
+    private final int[] counts;          // Unseen cards by value (mutated during search, then restored)
+    private final int[] keyBase;         // Subtracted from counts in memo keys so multi-deck counts fit 6 bits
+    private final Map<Long, double[]>[] dealerMemo; // Dealer distributions by (total, soft) then composition
+    private final Map<Long, Double>[] hitMemo;      // Player hit EV by (total, soft) then composition
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private OddsCalculator(int upcard, int[] unseen) {
+        this.upcard = upcard;
+        this.counts = unseen.clone();
+        this.keyBase = new int[counts.length];
+        for (int v = 0; v < counts.length; v++) {
+            keyBase[v] = Math.max(0, counts[v] - 63); // The search only ever draws a few cards down
+        }
+        this.dealerMemo = new Map[64];
+        this.hitMemo = new Map[64];
+    }
+
+    /**
+     * Computes bust probability and EV of hitting and standing.
+     * Checks the thread's interrupt flag so a stale request can be abandoned.
+     * @param total Player's current hand value
+     * @param soft Whether the player's hand is soft
+     * @param upcard Dealer's face-up card value (2-11)
+     * @param unseen Unseen cards by value (2-11), including the hole card
+     * @return The odds for this decision
+     * @throws CancellationException If the calling thread is interrupted
+     */
+    public static Odds compute(int total, boolean soft, int upcard, int[] unseen) {
+        OddsCalculator calculator = new OddsCalculator(upcard, unseen);
+        double bust = calculator.bustProbability(total, soft);
+        double stand = calculator.standEv(total);
+        double hit = calculator.hitEv(total, soft);
+        return new Odds(bust, hit, stand);
+    }
+
+    /**
+     * @param total Player's hand value
+     * @param soft Whether the hand is soft
+     * @return Probability the next card busts the hand
+     */
+    private double bustProbability(int total, boolean soft) {
+        boolean refilled = refillIfEmpty();
+        int remaining = remaining();
+        int busting = 0;
+        for (int v = 2; v <= 11; v++) {
+            if (counts[v] > 0 && addTotal(total, soft, v) > 21) {
+                busting += counts[v];
+            }
+        }
+        if (refilled) {
+            Arrays.fill(counts, 0); // Restore the empty deck
+        }
+        return (double) busting / remaining;
+    }
+
+    /**
+     * @param total Player's hand value (not busted)
+     * @return Expected result of standing now
+     */
+    private double standEv(int total) {
+        double[] dealer = dealerDistribution(upcard, upcard == 11);
+        double ev = dealer[BUST]; // Dealer busts: player wins
+        for (int finalTotal = DEALER_STANDS_ON; finalTotal <= 21; finalTotal++) {
+            double p = dealer[finalTotal - DEALER_STANDS_ON];
+            if (total > finalTotal) {
+                ev += p;
+            } else if (total < finalTotal) {
+                ev -= p;
+            }
+        }
+        return ev;
+    }
+
+    /**
+     * @param total Player's hand value
+     * @param soft Whether the hand is soft
+     * @return Expected result of hitting once, then playing on optimally
+     */
+    private double hitEv(int total, boolean soft) {
+        boolean refilled = refillIfEmpty();
+        try {
+            return hitEvFromCounts(total, soft);
+        } finally {
+            if (refilled) {
+                Arrays.fill(counts, 0); // Restore the empty deck for the caller
+            }
+        }
+    }
+
+    /**
+     * Hit EV against the current (non-empty) counts.
+     */
+    private double hitEvFromCounts(int total, boolean soft) {
+        Map<Long, Double> memo = memo(hitMemo, total, soft);
+        long key = key();
+        Double cached = memo.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        int remaining = remaining();
+        double ev = 0;
+        for (int v = 2; v <= 11; v++) {
+            if (counts[v] == 0) {
+                continue;
+            }
+            double p = (double) counts[v] / remaining;
+            int next = addTotal(total, soft, v);
+            if (next > 21) {
+                ev -= p; // Bust loses regardless of the dealer
+                continue;
+            }
+            boolean nextSoft = addSoft(total, soft, v);
+            counts[v]--;
+            double stand = standEv(next);
+            // 21 stands automatically in this game
+            double best = next == 21 ? stand : Math.max(stand, hitEv(next, nextSoft));
+            counts[v]++;
+            ev += p * best;
+        }
+        memo.put(key, ev);
+        return ev;
+    }
+
+    /**
+     * Distribution of the dealer's final total, drawing from the unseen cards.
+     * @param total Dealer's current value
+     * @param soft Whether the dealer's hand is soft
+     * @return Probabilities of finishing on 16..21 (indices 0-5) and busting (index 6)
+     */
+    private double[] dealerDistribution(int total, boolean soft) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Odds request superseded");
+        }
+        double[] result = new double[BUST + 1];
+        if (total > 21) {
+            result[BUST] = 1;
+            return result;
+        }
+        if (total >= DEALER_STANDS_ON) {
+            result[total - DEALER_STANDS_ON] = 1;
+            return result;
+        }
+        boolean refilled = refillIfEmpty();
+        try {
+            return dealerDistributionFromCounts(total, soft, result);
+        } finally {
+            if (refilled) {
+                Arrays.fill(counts, 0); // Restore the empty deck for the caller
+            }
+        }
+    }
+
+    /**
+     * Dealer distribution for a hand that must still draw, against the
+     * current (non-empty) counts.
+     */
+    private double[] dealerDistributionFromCounts(int total, boolean soft, double[] result) {
+        Map<Long, double[]> memo = memo(dealerMemo, total, soft);
+        long key = key();
+        double[] cached = memo.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        int remaining = remaining();
+        for (int v = 2; v <= 11; v++) {
+            if (counts[v] == 0) {
+                continue;
+            }
+            double p = (double) counts[v] / remaining;
+            int next = addTotal(total, soft, v);
+            boolean nextSoft = addSoft(total, soft, v);
+            counts[v]--;
+            double[] branch = dealerDistribution(next, nextSoft);
+            counts[v]++;
+            for (int i = 0; i < result.length; i++) {
+                result[i] += p * branch[i];
+            }
+        }
+        memo.put(key, result);
+        return result;
+    }
+
+    /**
+     * Adds a card to a hand value, demoting an ace if it would bust.
+     * @param total Current value
+     * @param soft Whether an ace currently counts as 11
+     * @param v Value of the added card
+     * @return New value
+     */
+    private static int addTotal(int total, boolean soft, int v) {
+        int next = total + v;
+        int softAces = (soft ? 1 : 0) + (v == 11 ? 1 : 0);
+        while (next > 21 && softAces > 0) {
+            next -= 10; // Count an ace as 1 instead of 11
+            softAces--;
+        }
+        return next;
+    }
+
+    /**
+     * @param total Current value
+     * @param soft Whether an ace currently counts as 11
+     * @param v Value of the added card
+     * @return Whether the new hand is soft
+     */
+    private static boolean addSoft(int total, boolean soft, int v) {
+        int next = total + v;
+        int softAces = (soft ? 1 : 0) + (v == 11 ? 1 : 0);
+        while (next > 21 && softAces > 0) {
+            next -= 10;
+            softAces--;
+        }
+        return softAces > 0;
+    }
+
+    /**
+     * An empty deck is rebuilt with a fresh 52 cards (see Deck.dealCard()).
+     * @return true if the counts were refilled
+     */
+    private boolean refillIfEmpty() {
+        if (remaining() > 0) {
+            return false;
+        }
+        for (int v = 2; v <= 11; v++) {
+            counts[v] = v == 10 ? 16 : 4;
+        }
+        return true;
+    }
+
+    /** @return Number of unseen cards */
+    private int remaining() {
+        int n = 0;
+        for (int v = 2; v <= 11; v++) {
+            n += counts[v];
+        }
+        return n;
+    }
+
+    /** @return The current composition packed into a long (6 bits per value, above keyBase) */
+    private long key() {
+        long key = 0;
+        for (int v = 2; v <= 11; v++) {
+            key = (key << 6) | (counts[v] - keyBase[v]);
+        }
+        return key;
+    }
+
+    /**
+     * @return Memo table for a (total, soft) state, created on first use
+     */
+    private static <T> Map<Long, T> memo(Map<Long, T>[] tables, int total, boolean soft) {
+        int slot = Math.min(total, 31) * 2 + (soft ? 1 : 0);
+        if (tables[slot] == null) {
+            tables[slot] = new HashMap<>();
+        }
+        return tables[slot];
+    }
+
+    /**
+     * Result of an odds computation. EVs are in units of the bet.
+     */
+    public static final class Odds {
+        private final double bustProbability; // Chance the next card busts
+        private final double hitEv;           // EV of hitting, then playing optimally
+        private final double standEv;         // EV of standing now
+
+        Odds(double bustProbability, double hitEv, double standEv) {
+            this.bustProbability = bustProbability;
+            this.hitEv = hitEv;
+            this.standEv = standEv;
+        }
+
+        /** @return Probability the next card busts the hand */
+        public double getBustProbability() { return bustProbability; }
+
+        /** @return EV of hitting, then playing on optimally */
+        public double getHitEv() { return hitEv; }
+
+        /** @return EV of standing now */
+        public double getStandEv() { return standEv; }
+    }
+}
@@ -0,0 +1,120 @@
+package blackjack;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Computes odds on a background thread. A new request cancels the one
+ * still running, and results are cached per (hand, upcard, composition)
+ * so revisiting a position is instant.
+ */
+public class OddsService {
+    private static final int CACHE_SIZE = 4096; // Most recent positions kept
+
+    private final ExecutorService executor;          // Single background odds thread
+    private final Map<Key, OddsCalculator.Odds> cache; // LRU cache of finished results
+    private Future<?> running;                       // Request in progress, if any
+
+    /**
+     * Creates the service and its background thread.
+     */
+    public OddsService() {
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "odds");
+            thread.setDaemon(true); // Never keep the app alive for odds
+            return thread;
+        });
+        cache = Collections.synchronizedMap(new LinkedHashMap<Key, OddsCalculator.Odds>(64, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, OddsCalculator.Odds> eldest) {
+                return size() > CACHE_SIZE;
+            }
+        });
+    }
+
+    /**
+     * Requests odds for a position, superseding any earlier request.
+     * The callback runs on the caller's thread for a cache hit, otherwise
+     * on the odds thread; it is never called for a cancelled request.
+     * @param total Player's hand value
+     * @param soft Whether the player's hand is soft
+     * @param upcard Dealer's face-up card value
+     * @param unseen Unseen cards by value (2-11)
+     * @param callback Receives the result
+     */
+    public synchronized void request(int total, boolean soft, int upcard, int[] unseen,
+                                     Consumer<OddsCalculator.Odds> callback) {
+        cancel();
+        Key key = new Key(total, soft, upcard, unseen);
+        OddsCalculator.Odds cached = cache.get(key);
+        if (cached != null) {
+            callback.accept(cached);
+            return;
+        }
+        running = executor.submit(() -> {
+            try {
+                OddsCalculator.Odds odds = OddsCalculator.compute(total, soft, upcard, unseen);
+                cache.put(key, odds);
+                callback.accept(odds);
+            } catch (CancellationException e) {
+                // Superseded by a newer request
+            }
+        });
+    }
+
+    /**
+     * Cancels the request in progress, if any.
+     */
+    public synchronized void cancel() {
+        if (running != null) {
+            running.cancel(true); // Interrupt: the calculator checks the flag
+            running = null;
+        }
+    }
+
+    /** Stops the background thread. */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Cache key: a position is the hand, the upcard and what is left to draw.
+     */
+    private static final class Key {
+        private final int total;
+        private final boolean soft;
+        private final int upcard;
+        private final int[] unseen;
+
+        Key(int total, boolean soft, int upcard, int[] unseen) {
+            this.total = total;
+            this.soft = soft;
+            this.upcard = upcard;
+            this.unseen = unseen.clone();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return total == other.total && soft == other.soft && upcard == other.upcard
+                && Arrays.equals(unseen, other.unseen);
+        }
+
+        @Override
+        public int hashCode() {
+            return ((total * 31 + (soft ? 1 : 0)) * 31 + upcard) * 31 + Arrays.hashCode(unseen);
+        }
+    }
+}
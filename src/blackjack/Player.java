@@ -2,13 +2,15 @@ package blackjack;
 
 /**
  * Represents a player in a Blackjack game, tracking their hand
- * and game state (standing/busted).
+ * and game state (standing/busted). Changes are synchronized and the
+ * status flags are volatile, so other threads see a consistent player.
  */
 public class Player {
     private String name;      // Player's name
-    private Hand hand;        // Player's current hand of cards
-    private boolean isStanding; // Whether player has chosen to stand
-    private boolean isBusted;   // Whether player has busted (exceeded 21)
+    private volatile Hand hand;          // Player's current hand of cards
+    private volatile boolean isStanding; // Whether player has chosen to stand
+    private volatile boolean isBusted;   // Whether player has busted (exceeded 21)
+    private StringBuilder actions = new StringBuilder(); // Decisions this round ('H' hit, 'S' stand)
 
     /**
      * Creates a new player with specified name.
@@ -26,7 +28,7 @@ public class Player {
      * Checks for bust condition if hand value exceeds 21.
      * @param card The card to add to hand
      */
-    public void hit(Card card) {
+    public synchronized void hit(Card card) {
         // Only allow hit if player hasn't stood or busted
         if (!isStanding && !isBusted) {
             hand.addCard(card); // Add card to hand
@@ -38,10 +40,21 @@ public class Player {
         }
     }
 
+    /**
+     * Records a decision made this round (initial deals are not decisions).
+     * @param action 'H' for hit, 'S' for stand
+     */
+    synchronized void recordAction(char action) {
+        actions.append(action);
+    }
+
+    /** @return Decisions made this round, e.g. "HHS" */
+    public synchronized String getActions() { return actions.toString(); }
+
     /**
      * Player chooses to stand (end their turn).
      */
-    public void stand() {
+    public synchronized void stand() {
         isStanding = true;
     }
 
@@ -59,14 +72,29 @@ public class Player {
     /** @return The player's name */
     public String getName() { return name; }
 
+    /**
+     * Restores the player's hand and status from a checkpoint.
+     * @param hand The hand to hold
+     * @param standing Whether the player has stood
+     * @param busted Whether the player has busted
+     * @param actions Decisions made this round
+     */
+    synchronized void restore(Hand hand, boolean standing, boolean busted, String actions) {
+        this.hand = hand;
+        this.actions = new StringBuilder(actions);
+        this.isStanding = standing;
+        this.isBusted = busted;
+    }
+
     /**
      * Resets the player for a new round:
      * - Creates new empty hand
      * - Resets standing/busted status
      */
-    public void reset() {
+    public synchronized void reset() {
         hand = new Hand();    // New empty hand
         isStanding = false;   // Reset standing status
         isBusted = false;     // Reset busted status
+        actions.setLength(0); // Forget last round's decisions
     }
 }
\ No newline at end of file
@@ -0,0 +1,542 @@
+package blackjack;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent per-player profiles: lifetime hands, outcomes and bankroll,
+ * kept in a directory (by default ~/.blackjack21).
+ *
+ * <p>Recording a round only updates the in-memory cache and queues one
+ * small record per seat; a background thread appends queued records to
+ * a log in batches. When the log grows past a threshold the writer
+ * compacts it into a snapshot of every profile, so startup reads one
+ * snapshot plus a short log tail however many rounds have been played.
+ *
+ * <p>Files: "profiles.snap" is magic "BJPF", version, generation,
+ * profile count and the profiles. "profiles.log" is the generation of
+ * the snapshot it follows, then a sequence of batches, each its length,
+ * its CRC-32 and records of (name, outcome ordinal). A batch cut short
+ * by a crash fails its length or CRC check and is dropped on load; a log
+ * older than the snapshot was already compacted into it and is ignored.
+ */
+public class ProfileStore implements RoundListener, Closeable {
+    static final byte[] MAGIC = {'B', 'J', 'P', 'F'};
+    static final byte VERSION = 1;
+    static final String SNAPSHOT_FILE = "profiles.snap";
+    static final String LOG_FILE = "profiles.log";
+
+    private static final int QUEUE_CAPACITY = 1 << 16;  // Records the game may get ahead of the disk
+    private static final int MAX_BATCH = 4096;          // Records per log batch
+    private static final long COMPACT_BYTES = 4L << 20; // Log size that triggers compaction
+    private static final int LOG_HEADER = 8;            // Generation at the start of the log
+    private static final Entry END = new Entry(null, null); // Shutdown marker
+
+    private final Path snapshotFile;
+    private final Path logFile;
+    private final FileChannel log;      // Append-only log, locked against other processes
+    private final FileLock lock;
+    private long generation;            // Compactions so far; ties the log to its snapshot
+    private final Map<String, Profile> cache = new ConcurrentHashMap<>(); // Up to date with every recorded round
+    private final Map<String, Profile> durable; // State as written to disk (writer thread only)
+    private final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread writerThread;
+    private volatile IOException failure; // First write error, if any
+    private boolean closed;
+
+    /**
+     * Opens the store in the default directory, ~/.blackjack21.
+     * @return The opened store
+     * @throws IOException If the files can't be read or another process has them open
+     */
+    public static ProfileStore openDefault() throws IOException {
+        return new ProfileStore(defaultDirectory());
+    }
+
+    /** @return The default profile directory, ~/.blackjack21 */
+    public static Path defaultDirectory() {
+        return Paths.get(System.getProperty("user.home"), ".blackjack21");
+    }
+
+    /**
+     * Opens (creating if needed) the store in a directory and loads every
+     * profile: the snapshot, then any log batches written since.
+     * @param directory Directory holding the store's files
+     * @throws IOException If the files can't be read or another process has them open
+     */
+    public ProfileStore(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        logFile = directory.resolve(LOG_FILE);
+        log = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                               StandardOpenOption.WRITE);
+        try {
+            FileLock acquired;
+            try {
+                acquired = log.tryLock();
+            } catch (OverlappingFileLockException e) {
+                acquired = null; // Already open elsewhere in this JVM
+            }
+            lock = acquired;
+            if (lock == null) {
+                throw new IOException("Profiles in " + directory + " are in use by another program");
+            }
+            durable = readSnapshot();
+            long valid = replayLog(durable);
+            if (valid == 0) {
+                startLog(); // New, or already in the snapshot
+            } else {
+                log.truncate(valid); // Drop a torn final batch so new batches follow good data
+                log.position(valid);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.close();
+            throw e;
+        }
+        for (Profile profile : durable.values()) {
+            cache.put(profile.name, profile.copy());
+        }
+
+        writerThread = new Thread(this::drain, "profile-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Records every seat of a round. Updates the cache and queues the
+     * records; the game thread waits only if the writer has fallen a
+     * whole queue behind.
+     * @param result The completed round
+     * @throws UncheckedIOException If an earlier write failed
+     */
+    @Override
+    public synchronized void roundCompleted(RoundResult result) {
+        checkOpen();
+        for (RoundResult.Seat seat : result.getSeats()) {
+            cache.computeIfAbsent(seat.getName(), Profile::new).record(seat.getOutcome());
+            try {
+                queue.put(new Entry(seat.getName(), seat.getOutcome()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while queueing a profile update", e);
+            }
+        }
+    }
+
+    /**
+     * @param name Player name
+     * @return Copy of the player's profile, or null if they have never played
+     */
+    public Profile get(String name) {
+        Profile profile = cache.get(name);
+        return profile == null ? null : profile.copy();
+    }
+
+    /** @return Copies of every profile, by name */
+    public List<Profile> getAll() {
+        List<Profile> all = new ArrayList<>();
+        for (Profile profile : cache.values()) {
+            all.add(profile.copy());
+        }
+        all.sort((a, b) -> a.name.compareTo(b.name));
+        return all;
+    }
+
+    /**
+     * Writes everything queued, compacts the log into the snapshot and
+     * closes the files.
+     * @throws IOException If any write failed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            queue.put(END); // Tell the writer thread to finish
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while closing profiles", e);
+        }
+        try {
+            if (failure != null) {
+                throw failure;
+            }
+            if (log.size() > LOG_HEADER) {
+                compact();
+            }
+        } finally {
+            log.close(); // Also releases the lock
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Profile store is closed");
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Profile write failed", failure);
+        }
+    }
+
+    /**
+     * Writer thread: appends queued records in batches, compacting when
+     * the log gets long, until told to stop.
+     */
+    private void drain() {
+        List<Entry> batch = new ArrayList<>(MAX_BATCH);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1); // Whatever else piled up meanwhile
+            boolean end = batch.get(batch.size() - 1) == END;
+            if (end) {
+                batch.remove(batch.size() - 1);
+            }
+            if (failure == null && !batch.isEmpty()) {
+                try {
+                    appendBatch(batch, bytes);
+                    if (log.size() >= COMPACT_BYTES) {
+                        compact();
+                    }
+                } catch (IOException e) {
+                    failure = e; // Reported to the game side on its next call
+                }
+            }
+            batch.clear();
+            if (end) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Appends one batch to the log and applies it to the durable state.
+     */
+    private void appendBatch(List<Entry> batch, ByteArrayOutputStream bytes) throws IOException {
+        bytes.reset();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (Entry entry : batch) {
+            out.writeUTF(entry.name);
+            out.writeByte(entry.outcome.ordinal());
+        }
+        byte[] body = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        ByteBuffer buffer = ByteBuffer.allocate(8 + body.length);
+        buffer.putInt(body.length).putInt((int) crc.getValue()).put(body).flip();
+        while (buffer.hasRemaining()) {
+            log.write(buffer);
+        }
+        for (Entry entry : batch) {
+            durable.computeIfAbsent(entry.name, Profile::new).record(entry.outcome);
+        }
+    }
+
+    /**
+     * Writes the durable state to a new snapshot, swaps it in, then
+     * starts a new log. A crash between the two leaves a log from the
+     * previous generation, which the next load skips.
+     */
+    private void compact() throws IOException {
+        Path temp = snapshotFile.resolveSibling(SNAPSHOT_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(generation + 1);
+            out.writeInt(durable.size());
+            for (Profile profile : durable.values()) {
+                profile.write(out);
+            }
+        }
+        Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        generation++;
+        startLog();
+    }
+
+    /** Empties the log and writes its header for the current generation. */
+    private void startLog() throws IOException {
+        log.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(LOG_HEADER);
+        header.putLong(0, generation);
+        log.write(header, 0);
+        log.position(LOG_HEADER);
+    }
+
+    private Map<String, Profile> readSnapshot() throws IOException {
+        Map<String, Profile> profiles = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException(snapshotFile + " is not a profile snapshot");
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported profile snapshot version " + version);
+            }
+            generation = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Profile profile = Profile.read(in);
+                profiles.put(profile.name, profile);
+            }
+        } catch (NoSuchFileException e) {
+            // First run: nothing saved yet
+        }
+        return profiles;
+    }
+
+    /**
+     * Applies every intact log batch to the profiles, if the log follows
+     * the loaded snapshot.
+     * @return Length of the intact prefix of the log, or 0 if it should be restarted
+     */
+    private long replayLog(Map<String, Profile> profiles) throws IOException {
+        long size = log.size();
+        if (size < LOG_HEADER) {
+            return 0;
+        }
+        ByteBuffer data = ByteBuffer.allocate((int) Math.min(size, Integer.MAX_VALUE));
+        log.position(0);
+        while (data.hasRemaining() && log.read(data) >= 0) {
+            // Read the whole log; it is compacted long before this gets large
+        }
+        data.flip();
+        long logGeneration = data.getLong();
+        if (logGeneration < generation) {
+            return 0; // Compacted into the snapshot just before a crash
+        }
+        if (logGeneration > generation) {
+            throw new IOException(logFile + " is newer than " + snapshotFile);
+        }
+        long valid = LOG_HEADER;
+        CRC32 crc = new CRC32();
+        while (data.remaining() >= 8) {
+            int length = data.getInt();
+            int expected = data.getInt();
+            if (length < 0 || length > data.remaining()) {
+                break; // Torn write
+            }
+            crc.reset();
+            crc.update(data.array(), data.position(), length);
+            if ((int) crc.getValue() != expected) {
+                break;
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data.array(), data.position(), length));
+            try {
+                while (in.available() > 0) {
+                    String name = in.readUTF();
+                    Game.Outcome outcome = Game.Outcome.values()[in.readUnsignedByte()];
+                    profiles.computeIfAbsent(name, Profile::new).record(outcome);
+                }
+            } catch (EOFException | ArrayIndexOutOfBoundsException e) {
+                throw new IOException(logFile + " has a corrupt batch at offset " + valid, e);
+            }
+            data.position(data.position() + length);
+            valid = data.position();
+        }
+        return valid;
+    }
+
+    /**
+     * One queued record: a player's outcome in one round.
+     */
+    private static final class Entry {
+        final String name;
+        final Game.Outcome outcome;
+
+        Entry(String name, Game.Outcome outcome) {
+            this.name = name;
+            this.outcome = outcome;
+        }
+    }
+
+    /**
+     * A player's lifetime record. Bankroll is in units of one bet. The
+     * bankroll history keeps a bounded number of evenly spaced samples:
+     * when full, every other sample is dropped and the spacing doubles,
+     * so it always spans the player's whole career.
+     */
+    public static final class Profile {
+        static final int HISTORY_POINTS = 512; // Most bankroll samples kept
+
+        private final String name;
+        private long hands;
+        private long wins;
+        private long losses;
+        private long pushes;
+        private long bankroll;     // Net units won
+        private long peak;         // Highest bankroll reached
+        private long low;          // Lowest bankroll reached
+        private long[] history;    // Bankroll after every stride-th hand
+        private int historySize;
+        private long stride = 1;   // Hands between samples
+
+        Profile(String name) {
+            this.name = name;
+            this.history = new long[HISTORY_POINTS];
+        }
+
+        /**
+         * Adds one hand's outcome.
+         * @param outcome Result against the dealer
+         */
+        synchronized void record(Game.Outcome outcome) {
+            hands++;
+            switch (outcome) {
+                case WIN: wins++; bankroll++; break;
+                case LOSE: losses++; bankroll--; break;
+                default: pushes++; break;
+            }
+            peak = Math.max(peak, bankroll);
+            low = Math.min(low, bankroll);
+            if (hands % stride == 0) {
+                if (historySize == HISTORY_POINTS) {
+                    // Keep every other sample and sample half as often
+                    for (int i = 0; i < HISTORY_POINTS / 2; i++) {
+                        history[i] = history[2 * i + 1]; // Samples at even multiples of the old stride
+                    }
+                    historySize = HISTORY_POINTS / 2;
+                    stride *= 2;
+                }
+                if (hands % stride == 0) {
+                    history[historySize++] = bankroll;
+                }
+            }
+        }
+
+        synchronized Profile copy() {
+            Profile copy = new Profile(name);
+            copy.hands = hands;
+            copy.wins = wins;
+            copy.losses = losses;
+            copy.pushes = pushes;
+            copy.bankroll = bankroll;
+            copy.peak = peak;
+            copy.low = low;
+            copy.history = history.clone();
+            copy.historySize = historySize;
+            copy.stride = stride;
+            return copy;
+        }
+
+        synchronized void write(DataOutputStream out) throws IOException {
+            out.writeUTF(name);
+            out.writeLong(hands);
+            out.writeLong(wins);
+            out.writeLong(losses);
+            out.writeLong(pushes);
+            out.writeLong(bankroll);
+            out.writeLong(peak);
+            out.writeLong(low);
+            out.writeLong(stride);
+            out.writeShort(historySize);
+            for (int i = 0; i < historySize; i++) {
+                out.writeLong(history[i]);
+            }
+        }
+
+        static Profile read(DataInputStream in) throws IOException {
+            Profile profile = new Profile(in.readUTF());
+            profile.hands = in.readLong();
+            profile.wins = in.readLong();
+            profile.losses = in.readLong();
+            profile.pushes = in.readLong();
+            profile.bankroll = in.readLong();
+            profile.peak = in.readLong();
+            profile.low = in.readLong();
+            profile.stride = in.readLong();
+            profile.historySize = in.readUnsignedShort();
+            if (profile.historySize > HISTORY_POINTS || profile.stride < 1) {
+                throw new IOException("Corrupt profile for " + profile.name);
+            }
+            for (int i = 0; i < profile.historySize; i++) {
+                profile.history[i] = in.readLong();
+            }
+            return profile;
+        }
+
+        /** @return Player's name */
+        public String getName() { return name; }
+
+        /** @return Hands played */
+        public synchronized long getHands() { return hands; }
+
+        /** @return Hands won */
+        public synchronized long getWins() { return wins; }
+
+        /** @return Hands lost */
+        public synchronized long getLosses() { return losses; }
+
+        /** @return Hands pushed */
+        public synchronized long getPushes() { return pushes; }
+
+        /** @return Net units won over all hands */
+        public synchronized long getBankroll() { return bankroll; }
+
+        /** @return Highest bankroll ever reached (at least 0, the start) */
+        public synchronized long getPeakBankroll() { return peak; }
+
+        /** @return Lowest bankroll ever reached (at most 0, the start) */
+        public synchronized long getLowBankroll() { return low; }
+
+        /** @return Fraction of hands won, or 0 before the first hand */
+        public synchronized double getWinRate() { return hands == 0 ? 0 : (double) wins / hands; }
+
+        /** @return Bankroll after hands stride, 2 * stride, ... (see {@link #getHistoryStride()}) */
+        public synchronized List<Long> getBankrollHistory() {
+            List<Long> samples = new ArrayList<>(historySize);
+            for (int i = 0; i < historySize; i++) {
+                samples.add(history[i]);
+            }
+            return Collections.unmodifiableList(samples);
+        }
+
+        /** @return Hands between bankroll history samples */
+        public synchronized long getHistoryStride() { return stride; }
+
+        /**
+         * @return One-line summary, e.g. "Alice: 120 hands, 44.2% won, bankroll -6 (peak +3, low -9)"
+         */
+        @Override
+        public synchronized String toString() {
+            return String.format("%s: %,d hands, %.1f%% won, bankroll %+d (peak %+d, low %+d)",
+                name, hands, getWinRate() * 100, bankroll, peak, low);
+        }
+    }
+}
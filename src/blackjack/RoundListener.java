@@ -0,0 +1,17 @@
+package blackjack;
+
+/**
+ * Receives each completed round from a Game. Called on the thread that
+ * finished the round, after the game's lock is released, so a slow
+ * listener doesn't hold up other seats but does delay that thread and
+ * later deliveries; implementations should only record or hand off the
+ * result, never block.
+ */
+public interface RoundListener {
+
+    /**
+     * Called once per round, after the dealer has played.
+     * @param result Immutable summary of the round
+     */
+    void roundCompleted(RoundResult result);
+}
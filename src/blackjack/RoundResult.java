@@ -0,0 +1,118 @@
+package blackjack;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable summary of a completed round: the dealer's upcard and final
+ * total, and for every seat its starting cards, decisions, final total,
+ * outcome and payout. Cards are stored as compact codes (see Card.getCode()).
+ */
+public final class RoundResult {
+    private final long roundNumber;   // Game's round number
+    private final int dealerUpcard;   // Code of the dealer's face-up card
+    private final int dealerTotal;    // Dealer's final total
+    private final boolean dealerBusted; // Whether the dealer busted
+    private final List<Seat> seats;   // One entry per player, in seat order
+
+    RoundResult(long roundNumber, int dealerUpcard, int dealerTotal,
+                boolean dealerBusted, List<Seat> seats) {
+        this.roundNumber = roundNumber;
+        this.dealerUpcard = dealerUpcard;
+        this.dealerTotal = dealerTotal;
+        this.dealerBusted = dealerBusted;
+        this.seats = seats;
+    }
+
+    /**
+     * Captures a game whose round has just finished.
+     * @param game Game in GAME_OVER state
+     * @return Summary of the round
+     */
+    static RoundResult of(Game game) {
+        Dealer dealer = game.getDealer();
+        List<Seat> seats = new ArrayList<>(game.getPlayers().size());
+        for (int i = 0; i < game.getPlayers().size(); i++) {
+            Player player = game.getPlayers().get(i);
+            List<Card> cards = player.getHand().getCards();
+            Game.Outcome outcome = game.determineOutcome(player);
+            seats.add(new Seat(i, player.getName(), cards.get(0).getCode(), cards.get(1).getCode(),
+                               player.getActions(), player.getHand().calculateValue(),
+                               player.isBusted(), outcome));
+        }
+        return new RoundResult(game.getRoundNumber(), dealer.getHand().getCards().get(0).getCode(),
+                               dealer.getHand().calculateValue(), dealer.isBusted(),
+                               Collections.unmodifiableList(seats));
+    }
+
+    /** @return Game's round number */
+    public long getRoundNumber() { return roundNumber; }
+
+    /** @return Code of the dealer's face-up card */
+    public int getDealerUpcard() { return dealerUpcard; }
+
+    /** @return Dealer's final total */
+    public int getDealerTotal() { return dealerTotal; }
+
+    /** @return Whether the dealer busted */
+    public boolean isDealerBusted() { return dealerBusted; }
+
+    /** @return Every seat's result, in seat order */
+    public List<Seat> getSeats() { return seats; }
+
+    /**
+     * One seat's part of a round.
+     */
+    public static final class Seat {
+        private final int index;          // Seat index at the table
+        private final String name;        // Player's name
+        private final int firstCard;      // Code of the first card dealt
+        private final int secondCard;     // Code of the second card dealt
+        private final String actions;     // Decisions, e.g. "HS"
+        private final int total;          // Final hand value
+        private final boolean busted;     // Whether the hand busted
+        private final Game.Outcome outcome; // Result against the dealer
+
+        Seat(int index, String name, int firstCard, int secondCard, String actions,
+             int total, boolean busted, Game.Outcome outcome) {
+            this.index = index;
+            this.name = name;
+            this.firstCard = firstCard;
+            this.secondCard = secondCard;
+            this.actions = actions;
+            this.total = total;
+            this.busted = busted;
+            this.outcome = outcome;
+        }
+
+        /** @return Seat index at the table */
+        public int getIndex() { return index; }
+
+        /** @return Player's name */
+        public String getName() { return name; }
+
+        /** @return Code of the first card dealt */
+        public int getFirstCard() { return firstCard; }
+
+        /** @return Code of the second card dealt */
+        public int getSecondCard() { return secondCard; }
+
+        /** @return Decisions made, e.g. "HS" */
+        public String getActions() { return actions; }
+
+        /** @return Final hand value */
+        public int getTotal() { return total; }
+
+        /** @return Whether the hand busted */
+        public boolean isBusted() { return busted; }
+
+        /** @return Result against the dealer */
+        public Game.Outcome getOutcome() { return outcome; }
+
+        /** @return Units won: +1 win, -1 loss, 0 push */
+        public int getPayout() {
+            return outcome == Game.Outcome.WIN ? 1 : outcome == Game.Outcome.LOSE ? -1 : 0;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package blackjack;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Scrollable view that paints player seats directly instead of creating
+ * a component per seat. Seats flow into as many columns as the viewport
+ * width allows, and only seats intersecting the visible area are painted,
+ * so memory and paint time stay flat however many seats the table has.
+ */
+public class SeatListView extends JComponent implements Scrollable {
+    private static final int MIN_SEAT_WIDTH = 300; // Narrowest a seat may get before wrapping
+    private static final int SEAT_HEIGHT = 180;    // Height of one seat row
+    private static final int GAP = 8;              // Space between seats
+    private static final int CARD_SPACING = 10;    // Space between cards when there is room
+
+    private static final Color SEAT_BACKGROUND = new Color(240, 240, 240); // Light gray
+    private static final Color CURRENT_BORDER = new Color(0, 120, 200);    // Blue, matches New Game
+    private static final Font NAME_FONT = new Font("Arial", Font.BOLD, 16);
+
+    private final CardAnimator animator; // Card motions, or null for a static view
+    private final CardAnimator.BackBuffer buffer = new CardAnimator.BackBuffer(Transparency.OPAQUE);
+    private List<GameSnapshot.HandView> seats = Collections.emptyList(); // Seats to show
+    private int currentIndex = -1; // Seat whose turn it is, or -1
+    private int columns = 1;       // Columns at the last resize
+
+    /**
+     * Creates an empty seat view without animation.
+     */
+    public SeatListView() {
+        this(null);
+    }
+
+    /**
+     * Creates an empty seat view that animates its cards.
+     * @param animator Animator whose motions to paint, or null for none
+     */
+    SeatListView(CardAnimator animator) {
+        this.animator = animator;
+        setOpaque(true);
+        setBackground(UIManager.getColor("Panel.background"));
+        // Re-flow when the viewport width changes the column count
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                int newColumns = columnsFor(getWidth());
+                if (newColumns != columns) {
+                    columns = newColumns;
+                    revalidate();
+                    repaint();
+                }
+            }
+        });
+    }
+
+    /**
+     * Shows a new set of seats.
+     * @param seats Hands to display, in seat order
+     * @param currentIndex Seat to highlight, or -1 for none
+     */
+    public void setSeats(List<GameSnapshot.HandView> seats, int currentIndex) {
+        boolean countChanged = seats.size() != this.seats.size();
+        this.seats = seats;
+        this.currentIndex = currentIndex;
+        if (countChanged) {
+            revalidate(); // Content height depends on seat count
+        }
+        repaint(); // Only the visible region is actually painted
+    }
+
+    /**
+     * Scrolls so the given seat is visible.
+     * @param index Seat index
+     */
+    public void scrollToSeat(int index) {
+        if (index >= 0 && index < seats.size()) {
+            scrollRectToVisible(seatBounds(index));
+        }
+    }
+
+    /**
+     * @param width Available width in pixels
+     * @return Number of seat columns that fit
+     */
+    private static int columnsFor(int width) {
+        return Math.max(1, (width + GAP) / (MIN_SEAT_WIDTH + GAP));
+    }
+
+    /**
+     * @param index Seat index
+     * @return Bounds of the seat within this component
+     */
+    private Rectangle seatBounds(int index) {
+        int columns = columnsFor(getWidth());
+        int seatWidth = (getWidth() - GAP * (columns - 1)) / columns;
+        int row = index / columns;
+        int column = index % columns;
+        return new Rectangle(column * (seatWidth + GAP), row * (SEAT_HEIGHT + GAP), seatWidth, SEAT_HEIGHT);
+    }
+
+    /**
+     * Height needs the column count, which depends on the width we are given.
+     */
+    @Override
+    public Dimension getPreferredSize() {
+        int width = getParent() instanceof JViewport ? getParent().getWidth() : MIN_SEAT_WIDTH;
+        int rows = (seats.size() + columnsFor(width) - 1) / columnsFor(width);
+        return new Dimension(MIN_SEAT_WIDTH, Math.max(0, rows * (SEAT_HEIGHT + GAP) - GAP));
+    }
+
+    /**
+     * Paints only the rows that intersect the clip, through the back buffer.
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        long start = System.nanoTime();
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        buffer.paint(this, g, clip, this::paintSeats);
+        if (animator != null) {
+            animator.recordPaint(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Paints the seats intersecting the clip, then any cards still in
+     * flight on top, so they pass over the seats they cross.
+     * @param g2d Graphics clipped to the region to paint
+     */
+    private void paintSeats(Graphics2D g2d) {
+        Rectangle clip = g2d.getClipBounds();
+        g2d.setColor(getBackground());
+        g2d.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+        // Work out which rows are visible from the clip alone
+        int columns = columnsFor(getWidth());
+        int rowHeight = SEAT_HEIGHT + GAP;
+        int firstRow = Math.max(0, clip.y / rowHeight);
+        int lastRow = (clip.y + clip.height) / rowHeight;
+        int first = firstRow * columns;
+        int last = Math.min(seats.size() - 1, (lastRow + 1) * columns - 1);
+
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        for (int i = first; i <= last; i++) {
+            paintSeat(g2d, i, seatBounds(i), false);
+        }
+        if (animator != null) {
+            for (int i = first; i <= last; i++) {
+                paintSeat(g2d, i, seatBounds(i), true);
+            }
+        }
+    }
+
+    /**
+     * Paints one seat: name, total and cards.
+     * @param g2d Graphics to paint with
+     * @param index Seat index
+     * @param bounds Where to paint the seat
+     * @param flying false to paint the seat and its settled cards, true
+     *               to paint only the cards being dealt to it
+     */
+    private void paintSeat(Graphics2D g2d, int index, Rectangle bounds, boolean flying) {
+        GameSnapshot.HandView hand = seats.get(index);
+        if (!flying) {
+            // Seat background and border (thicker blue for the active seat)
+            boolean current = index == currentIndex;
+            g2d.setColor(SEAT_BACKGROUND);
+            g2d.fillRect(bounds.x, bounds.y, bounds.width, bounds.height);
+            g2d.setColor(current ? CURRENT_BORDER : Color.BLACK);
+            g2d.setStroke(new BasicStroke(current ? 3 : 1));
+            g2d.drawRect(bounds.x, bounds.y, bounds.width - 1, bounds.height - 1);
+
+            // Name on the left, total on the right
+            g2d.setFont(NAME_FONT);
+            FontMetrics metrics = g2d.getFontMetrics();
+            int textY = bounds.y + 5 + metrics.getAscent();
+            g2d.setColor(Color.BLACK);
+            g2d.drawString(hand.getName() + ":", bounds.x + 10, textY);
+            String total = hand.isRevealed() ? "Total: " + hand.getTotal() : "Total: ?";
+            g2d.setColor(hand.isBusted() ? Color.RED : Color.BLACK); // Red if busted
+            g2d.drawString(total, bounds.x + bounds.width - 10 - metrics.stringWidth(total), textY);
+        }
+
+        // Cards centered below, overlapping when they don't fit side by side
+        List<GameSnapshot.CardView> cards = hand.getCards();
+        if (cards.isEmpty()) {
+            return;
+        }
+        int available = bounds.width - 20;
+        int step = CardImages.CARD_WIDTH + CARD_SPACING;
+        if (cards.size() > 1 && CardImages.CARD_WIDTH + step * (cards.size() - 1) > available) {
+            step = Math.max(1, (available - CardImages.CARD_WIDTH) / (cards.size() - 1));
+        }
+        int rowWidth = CardImages.CARD_WIDTH + step * (cards.size() - 1);
+        int x = bounds.x + (bounds.width - rowWidth) / 2;
+        int y = bounds.y + bounds.height - CardImages.CARD_HEIGHT - 15;
+        Rectangle visible = getVisibleRect(); // Dealt cards come in from its top-right corner
+        for (int c = 0; c < cards.size(); c++) {
+            CardAnimator.Motion motion = animator == null ? null : animator.getMotion(index, c);
+            boolean dealing = motion != null && motion.kind == CardAnimator.Kind.DEAL;
+            if (dealing == flying) {
+                CardAnimator.paintCard(g2d, cards.get(c), motion, animator == null ? 0 : animator.now(), x, y,
+                                       visible.x + visible.width, visible.y - CardImages.CARD_HEIGHT);
+            }
+            x += step;
+        }
+    }
+
+    // Scrollable: track the viewport width so seats re-flow into columns
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return new Dimension(MIN_SEAT_WIDTH, Math.min(getPreferredSize().height, 2 * SEAT_HEIGHT + GAP));
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return 20;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() { return true; }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() { return false; }
+}
@@ -0,0 +1,166 @@
+package blackjack;
+
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pool of decks that are built and shuffled ahead of time on background
+ * threads, so starting a new round only swaps in a ready shoe.
+ *
+ * <p>A pool keeps a target number of shoes ready. The shared pools start
+ * small and raise their target by one shoe each time a game finds them
+ * empty, up to a cap, so a process running thousands of tables ends up
+ * sized for its real demand. Hosts that know their table count up front can give
+ * each group of tables its own pool from {@link #forTables}. Shuffler
+ * threads exit when idle, so a pool that is no longer used costs only
+ * the shoes it holds.
+ */
+public class ShoePool implements Supplier<Deck> {
+    private static final int DEFAULT_CAPACITY = 4;   // Shoes the shared pool starts with
+    private static final int MAX_READY_CARDS = 1 << 18; // Cards a pool may hold ready (a few MB)
+    private static final int TABLES_PER_SHUFFLER = 500;  // Tables one shuffler thread keeps up with
+    private static final long IDLE_SECONDS = 5;      // Shuffler threads exit after this long idle
+    private static final Map<Integer, ShoePool> SHARED = new ConcurrentHashMap<>(); // By decks per shoe
+
+    private final int decks;                   // 52-card decks per shoe
+    private final int maxCapacity;             // Most the target grows to
+    private final AtomicInteger capacity;      // Shoes to keep ready; grows when the pool runs dry
+    private final BlockingQueue<Deck> ready;   // Shuffled decks waiting to be used
+    private final ThreadPoolExecutor shuffler; // Background threads that build decks
+    private final AtomicInteger pending;       // Refills queued but not yet finished
+
+    /**
+     * Creates a pool and starts filling it in the background.
+     * @param capacity Number of shuffled decks to keep ready
+     */
+    public ShoePool(int capacity) {
+        this(capacity, 1);
+    }
+
+    /**
+     * Creates a pool of multi-deck shoes and starts filling it in the background.
+     * @param capacity Number of shuffled shoes to keep ready
+     * @param decks 52-card decks per shoe
+     */
+    public ShoePool(int capacity, int decks) {
+        this(capacity, capacity, decks, 1);
+    }
+
+    /**
+     * Creates a pool that grows when games find it empty.
+     * @param capacity Number of shuffled shoes to keep ready at first
+     * @param maxCapacity Most shoes it grows to keep ready
+     * @param decks 52-card decks per shoe
+     * @param threads Shuffler threads
+     */
+    ShoePool(int capacity, int maxCapacity, int decks, int threads) {
+        if (capacity < 1 || maxCapacity < capacity) {
+            throw new IllegalArgumentException("Pool capacity must be at least 1 and at most its maximum");
+        }
+        if (decks < 1) {
+            throw new IllegalArgumentException("A shoe needs at least one deck");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("A pool needs at least one shuffler thread");
+        }
+        this.decks = decks;
+        this.maxCapacity = maxCapacity;
+        this.capacity = new AtomicInteger(capacity);
+        ready = new LinkedBlockingQueue<>(); // Bounded by capacity through pending
+        pending = new AtomicInteger();
+        shuffler = new ThreadPoolExecutor(threads, threads, IDLE_SECONDS, TimeUnit.SECONDS,
+                                          new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "shoe-shuffler");
+            thread.setDaemon(true); // Never keep the JVM alive for spare decks
+            return thread;
+        });
+        shuffler.allowCoreThreadTimeOut(true);
+        refill();
+    }
+
+    /**
+     * Creates a pool for a known group of tables: one ready shoe per
+     * table (within a memory cap), since they may all start a round at
+     * once, and a shuffler thread per few hundred tables.
+     * @param tables Tables that will draw from the pool
+     * @param seats Seats per table
+     * @return A pool of shoes sized for those tables
+     */
+    public static ShoePool forTables(int tables, int seats) {
+        if (tables < 1) {
+            throw new IllegalArgumentException("A pool needs at least one table");
+        }
+        int decks = Deck.decksFor(seats);
+        int capacity = Math.max(1, Math.min(tables, maxReady(decks)));
+        int threads = Math.max(1, Math.min(tables / TABLES_PER_SHUFFLER,
+                                           Runtime.getRuntime().availableProcessors() / 2));
+        return new ShoePool(capacity, capacity, decks, threads);
+    }
+
+    /** @return Single-deck pool shared by every game that does not supply its own */
+    public static ShoePool shared() { return shared(1); }
+
+    /**
+     * @param decks 52-card decks per shoe
+     * @return Pool shared by every game that uses shoes of that size,
+     *         growing with demand
+     */
+    public static ShoePool shared(int decks) {
+        return SHARED.computeIfAbsent(decks, d -> new ShoePool(Math.min(DEFAULT_CAPACITY, maxReady(d)),
+                                                                maxReady(d), d, 1));
+    }
+
+    /** @return Shoes of a size that fit in MAX_READY_CARDS, at least one */
+    private static int maxReady(int decks) {
+        return Math.max(1, MAX_READY_CARDS / (decks * Card.DECK_SIZE));
+    }
+
+    /** @return Shoes the pool currently aims to keep ready */
+    public int getCapacity() { return capacity.get(); }
+
+    /**
+     * Takes a ready shoe from the pool and schedules a replacement.
+     * Never blocks: if the pool has run dry a deck is built on the spot,
+     * and the pool keeps one more shoe ready (up to its maximum) so the
+     * next burst of the same size finds enough.
+     * @return A freshly shuffled deck
+     */
+    @Override
+    public Deck get() {
+        Deck deck = ready.poll();
+        if (deck == null) {
+            capacity.accumulateAndGet(maxCapacity, (current, max) -> Math.min(max, current + 1));
+        }
+        refill(); // Top the pool back up in the background
+        return deck != null ? deck : newShoe();
+    }
+
+    /**
+     * Queues enough background shuffles to bring the pool back to capacity.
+     */
+    private void refill() {
+        // Count queued work so bursts of get() don't over-schedule shuffles
+        while (pending.get() < capacity.get() - ready.size()) {
+            pending.incrementAndGet();
+            shuffler.execute(() -> {
+                try {
+                    ready.offer(newShoe());
+                } finally {
+                    pending.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    /** @return A freshly built and shuffled shoe */
+    private Deck newShoe() {
+        return new Deck(decks, ThreadLocalRandom.current().nextLong());
+    }
+}
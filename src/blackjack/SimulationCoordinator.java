@@ -0,0 +1,243 @@
+package blackjack;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Splits a long simulation into round-range shards and runs them on
+ * several local worker JVMs over loopback sockets. Shards held by a
+ * worker that dies are handed to another worker, and a replacement
+ * worker is started. A worker that hangs is treated the same way: each
+ * shard's reply is read with a timeout scaled to the shard's size, and a
+ * worker that misses it is killed and its shard re-queued. Because every
+ * round's deck is seeded from its index, the merged stats match a
+ * single-process Simulator run.
+ */
+public class SimulationCoordinator {
+    static final byte CMD_STOP = 0;  // Tells a worker to exit
+    static final byte CMD_SHARD = 1; // Followed by a shard description
+
+    private static final long POLL_MILLIS = 100;           // How often idle handlers re-check for work
+    private static final int HELLO_TIMEOUT_MILLIS = 10_000; // For a new worker to send its process id
+    private static final long MIN_SHARD_MILLIS = 10_000;    // Least time a shard is given
+    private static final long MICROS_PER_HAND = 50;         // Shard allowance per hand, far above real speed
+
+    private final int workers;      // Worker processes to keep running
+    private final long shardRounds; // Rounds per shard
+    private final int maxRestarts;  // Replacement workers allowed for the whole run
+
+    private final AtomicInteger restarts = new AtomicInteger(); // Replacements started so far
+    private final AtomicInteger live = new AtomicInteger();     // Worker processes still running
+    private final List<Process> processes = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a coordinator.
+     * @param workers Number of worker processes
+     * @param shardRounds Rounds per shard
+     * @param maxRestarts Replacement workers allowed if workers crash
+     */
+    public SimulationCoordinator(int workers, long shardRounds, int maxRestarts) {
+        if (workers < 1 || shardRounds < 1) {
+            throw new IllegalArgumentException("Need at least one worker and one round per shard");
+        }
+        this.workers = workers;
+        this.shardRounds = shardRounds;
+        this.maxRestarts = maxRestarts;
+    }
+
+    /**
+     * Runs a simulation across the worker processes.
+     * @param seed Seed for the whole run
+     * @param rounds Total rounds to play
+     * @param seats Seats at each table
+     * @param standOn Total every seat stands on (see ThresholdStrategy)
+     * @return Merged stats for all rounds
+     * @throws IOException If every worker failed and none could be restarted
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public SimulationStats run(long seed, long rounds, int seats, int standOn)
+            throws IOException, InterruptedException {
+        BlockingQueue<long[]> pending = new LinkedBlockingQueue<>(); // {fromRound, toRound}
+        for (long from = 0; from < rounds; from += shardRounds) {
+            pending.add(new long[] {from, Math.min(rounds, from + shardRounds)});
+        }
+        CountDownLatch done = new CountDownLatch(pending.size());
+        SimulationStats total = new SimulationStats();
+
+        try (ServerSocket server = new ServerSocket(0, workers * 2, InetAddress.getLoopbackAddress())) {
+            // Hand each connecting worker its own feeding thread
+            Thread acceptor = new Thread(() -> {
+                while (!server.isClosed()) {
+                    try {
+                        Socket socket = server.accept();
+                        Thread handler = new Thread(() -> feed(socket, pending, done, total,
+                                                               seed, seats, standOn), "sim-feed");
+                        handler.setDaemon(true);
+                        handler.start();
+                    } catch (IOException e) {
+                        return; // Server closed
+                    }
+                }
+            }, "sim-accept");
+            acceptor.setDaemon(true);
+            acceptor.start();
+
+            for (int i = 0; i < workers; i++) {
+                spawn(server.getLocalPort(), done);
+            }
+
+            // Wait for every shard, failing if the workers are all gone for good
+            while (!done.await(POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (live.get() == 0 && restarts.get() >= maxRestarts) {
+                    throw new IOException("All simulation workers failed; "
+                            + done.getCount() + " shards unfinished");
+                }
+            }
+        } finally {
+            for (Process process : processes) {
+                process.destroy(); // Workers normally exit on CMD_STOP already
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Starts a worker JVM on the same classpath.
+     * @param port Coordinator port on localhost
+     * @param done Latch for the run, to skip restarts once finished
+     * @throws IOException If the process cannot be started
+     */
+    private void spawn(int port, CountDownLatch done) throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                                             SimulationWorker.class.getName(), String.valueOf(port))
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .redirectError(ProcessBuilder.Redirect.INHERIT)
+            .start();
+        processes.add(process);
+        live.incrementAndGet();
+
+        // Replace crashed workers while there is still work to do
+        process.onExit().thenRun(() -> {
+            live.decrementAndGet();
+            if (done.getCount() > 0 && restarts.getAndIncrement() < maxRestarts) {
+                try {
+                    spawn(port, done);
+                } catch (IOException e) {
+                    System.err.println("Could not restart simulation worker: " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Feeds shards to one connected worker until the run is done.
+     * A shard in flight when the connection breaks goes back in the queue;
+     * so does one the worker doesn't answer in time, and that worker is
+     * killed so a replacement starts.
+     */
+    private void feed(Socket socket, BlockingQueue<long[]> pending, CountDownLatch done,
+                      SimulationStats total, long seed, int seats, int standOn) {
+        long[] shard = null;
+        Process worker = null;
+        try (Socket s = socket) {
+            s.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+            s.setSoTimeout(HELLO_TIMEOUT_MILLIS);
+            worker = find(in.readLong()); // The worker introduces itself by process id
+            while (done.getCount() > 0) {
+                shard = pending.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (shard == null) {
+                    continue; // Nothing queued now; a crashed worker's shard may come back
+                }
+                out.writeByte(CMD_SHARD);
+                out.writeLong(seed);
+                out.writeLong(shard[0]);
+                out.writeLong(shard[1]);
+                out.writeInt(seats);
+                out.writeInt(standOn);
+                out.flush();
+
+                s.setSoTimeout(shardTimeout(shard, seats));
+                SimulationStats partial = SimulationStats.read(in);
+                synchronized (total) {
+                    total.merge(partial);
+                }
+                shard = null;
+                done.countDown();
+            }
+            out.writeByte(CMD_STOP);
+            out.flush();
+        } catch (SocketTimeoutException e) {
+            if (shard != null) {
+                pending.add(shard);
+            }
+            if (worker != null) {
+                System.err.println("Simulation worker " + worker.pid() + " stopped responding; restarting it");
+                worker.destroyForcibly(); // Its exit starts a replacement
+            }
+        } catch (IOException | InterruptedException e) {
+            if (shard != null) {
+                pending.add(shard); // Re-dispatch to a surviving or replacement worker
+            }
+        }
+    }
+
+    /**
+     * @param pid Process id a worker reported
+     * @return The worker process this coordinator started with that id, or null
+     */
+    private Process find(long pid) {
+        for (Process process : processes) {
+            if (process.pid() == pid) {
+                return process;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return Milliseconds a worker gets to answer a shard: a floor, plus
+     *         an allowance per hand many times what a slow machine needs
+     */
+    private static int shardTimeout(long[] shard, int seats) {
+        long hands = (shard[1] - shard[0]) * Math.max(1, seats);
+        return (int) Math.min(Integer.MAX_VALUE, MIN_SHARD_MILLIS + hands * MICROS_PER_HAND / 1000);
+    }
+
+    /**
+     * Runs a distributed simulation from the command line.
+     * @param args rounds workers [seed] [seats] [standOn]
+     * @throws Exception If the run fails
+     */
+    public static void main(String[] args) throws Exception {
+        long rounds = Long.parseLong(args[0]);
+        int workers = Integer.parseInt(args[1]);
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+        int seats = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        int standOn = args.length > 4 ? Integer.parseInt(args[4]) : 17;
+
+        long shardRounds = Math.max(1, Math.min(1_000_000, rounds / (workers * 8L)));
+        SimulationCoordinator coordinator = new SimulationCoordinator(workers, shardRounds, workers * 2);
+        long start = System.nanoTime();
+        SimulationStats stats = coordinator.run(seed, rounds, seats, standOn);
+        System.out.println(stats);
+        System.out.printf("%.2f s with %d workers%n", (System.nanoTime() - start) / 1e9, workers);
+    }
+}
@@ -0,0 +1,146 @@
+package blackjack;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Totals from simulated rounds. Stats from separate shards merge by
+ * simple addition, so the result is the same however a run is split.
+ */
+public class SimulationStats {
+    private long rounds;  // Rounds played
+    private long hands;   // Player hands played (rounds x seats)
+    private long wins;    // Hands won
+    private long losses;  // Hands lost
+    private long pushes;  // Hands tied
+    private long busts;   // Hands that busted (counted in losses too)
+    private long net;     // Net units won by players (+1 win, -1 loss)
+
+    /**
+     * Records the outcome of one player hand.
+     * @param outcome Result against the dealer
+     * @param busted Whether the hand busted
+     */
+    public void recordHand(Game.Outcome outcome, boolean busted) {
+        hands++;
+        if (busted) {
+            busts++;
+        }
+        switch (outcome) {
+            case WIN:
+                wins++;
+                net++;
+                break;
+            case LOSE:
+                losses++;
+                net--;
+                break;
+            default:
+                pushes++;
+                break;
+        }
+    }
+
+    /** Records that one more round was completed. */
+    public void recordRound() {
+        rounds++;
+    }
+
+    /**
+     * Adds another set of stats into this one.
+     * @param other Stats to add
+     */
+    public void merge(SimulationStats other) {
+        rounds += other.rounds;
+        hands += other.hands;
+        wins += other.wins;
+        losses += other.losses;
+        pushes += other.pushes;
+        busts += other.busts;
+        net += other.net;
+    }
+
+    /**
+     * Writes the stats for sending to another process.
+     * @param out Destination
+     * @throws IOException If writing fails
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeLong(rounds);
+        out.writeLong(hands);
+        out.writeLong(wins);
+        out.writeLong(losses);
+        out.writeLong(pushes);
+        out.writeLong(busts);
+        out.writeLong(net);
+    }
+
+    /**
+     * Reads stats written by {@link #write(DataOutput)}.
+     * @param in Source
+     * @return The stats read
+     * @throws IOException If reading fails
+     */
+    public static SimulationStats read(DataInput in) throws IOException {
+        SimulationStats stats = new SimulationStats();
+        stats.rounds = in.readLong();
+        stats.hands = in.readLong();
+        stats.wins = in.readLong();
+        stats.losses = in.readLong();
+        stats.pushes = in.readLong();
+        stats.busts = in.readLong();
+        stats.net = in.readLong();
+        return stats;
+    }
+
+    /** @return Rounds played */
+    public long getRounds() { return rounds; }
+
+    /** @return Player hands played */
+    public long getHands() { return hands; }
+
+    /** @return Hands won */
+    public long getWins() { return wins; }
+
+    /** @return Hands lost */
+    public long getLosses() { return losses; }
+
+    /** @return Hands tied */
+    public long getPushes() { return pushes; }
+
+    /** @return Hands that busted */
+    public long getBusts() { return busts; }
+
+    /** @return Net units won by players */
+    public long getNet() { return net; }
+
+    /**
+     * @return Multi-line summary with rates per hand
+     */
+    @Override
+    public String toString() {
+        double perHand = hands == 0 ? 0 : 1.0 / hands;
+        return String.format("rounds=%d hands=%d%n"
+                + "win=%.4f lose=%.4f push=%.4f bust=%.4f%n"
+                + "net=%d ev/hand=%+.5f",
+                rounds, hands, wins * perHand, losses * perHand, pushes * perHand,
+                busts * perHand, net, net * perHand);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof SimulationStats)) {
+            return false;
+        }
+        SimulationStats other = (SimulationStats) o;
+        return rounds == other.rounds && hands == other.hands && wins == other.wins
+            && losses == other.losses && pushes == other.pushes && busts == other.busts
+            && net == other.net;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(rounds * 31 + hands) * 31 + Long.hashCode(net);
+    }
+}
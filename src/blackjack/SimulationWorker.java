@@ -0,0 +1,67 @@
+package blackjack;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+/**
+ * Worker process for distributed simulation. Connects to the
+ * coordinator on the loopback interface and sends its process id, so a
+ * worker that stops answering can be killed and replaced, then plays
+ * each shard it is sent with the same Simulator used in-process and
+ * replies with stats.
+ */
+public class SimulationWorker {
+
+    /**
+     * Worker entry point.
+     * @param args Coordinator's port on localhost
+     * @throws IOException If the connection fails
+     */
+    public static void main(String[] args) throws IOException {
+        int port = Integer.parseInt(args[0]);
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeLong(ProcessHandle.current().pid());
+            out.flush();
+            serve(in, out);
+        }
+    }
+
+    /**
+     * Plays shards until told to stop or the coordinator goes away.
+     * @param in Commands from the coordinator
+     * @param out Replies to the coordinator
+     * @throws IOException If the connection fails mid-shard
+     */
+    private static void serve(DataInputStream in, DataOutputStream out) throws IOException {
+        while (true) {
+            int command;
+            try {
+                command = in.readByte();
+            } catch (EOFException e) {
+                return; // Coordinator closed the connection
+            }
+            if (command != SimulationCoordinator.CMD_SHARD) {
+                return; // CMD_STOP
+            }
+            long seed = in.readLong();
+            long fromRound = in.readLong();
+            long toRound = in.readLong();
+            int seats = in.readInt();
+            int standOn = in.readInt();
+
+            SimulationStats stats = Simulator.run(seed, fromRound, toRound, seats,
+                                                  new ThresholdStrategy(standOn));
+            stats.write(out);
+            out.flush();
+        }
+    }
+}
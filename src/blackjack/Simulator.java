@@ -0,0 +1,133 @@
+package blackjack;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Plays rounds of Game with every seat driven by a Strategy.
+ * Round i always uses a deck seeded from (seed, i), so any split of a
+ * run into round ranges produces exactly the same combined stats.
+ */
+public final class Simulator {
+
+    private Simulator() {}
+
+    /**
+     * Plays rounds [fromRound, toRound) and tallies the results.
+     * @param seed Seed for the whole run
+     * @param fromRound First round index (inclusive)
+     * @param toRound Last round index (exclusive)
+     * @param seats Number of player seats at the table
+     * @param strategy Strategy used by every seat
+     * @return Stats for the rounds played
+     */
+    public static SimulationStats run(long seed, long fromRound, long toRound, int seats, Strategy strategy) {
+        if (fromRound >= toRound) {
+            return new SimulationStats();
+        }
+
+        Game game = new Game(seatNames(seats), seededShoes(seed, fromRound, Deck.decksFor(seats))); // Deals round fromRound
+        return play(game, toRound - fromRound, strategy);
+    }
+
+    /**
+     * Plays rounds on an existing game, starting with the one already
+     * dealt, and tallies the results. Each later round is dealt by
+     * Game.reset(), so the game's own shoe source (or shuffler) is used.
+     * @param game Game with a round dealt
+     * @param rounds Number of rounds to play
+     * @param strategy Strategy used by every seat
+     * @return Stats for the rounds played
+     */
+    static SimulationStats play(Game game, long rounds, Strategy strategy) {
+        SimulationStats stats = new SimulationStats();
+        for (long round = 0; round < rounds; round++) {
+            if (round > 0) {
+                game.reset(); // Deals the next round
+            }
+            playSeats(game, strategy);
+            for (Player player : game.getPlayers()) {
+                stats.recordHand(game.determineOutcome(player), player.isBusted());
+            }
+            stats.recordRound();
+        }
+        return stats;
+    }
+
+    /**
+     * Each round's deck comes from its own index, not from shared state.
+     * @param seed Seed for the whole run
+     * @param fromRound Index of the first deck supplied
+     * @param decks 52-card decks per shoe
+     * @return Supplier of deck fromRound, then fromRound + 1, ...
+     */
+    static Supplier<Deck> seededShoes(long seed, long fromRound, int decks) {
+        long[] nextRound = {fromRound};
+        return () -> new Deck(decks, roundSeed(seed, nextRound[0]++));
+    }
+
+    /**
+     * Plays every seat's turn with the given strategy; the dealer then
+     * plays automatically.
+     * @param game Game in player turn
+     * @param strategy Strategy for every seat
+     */
+    static void playSeats(Game game, Strategy strategy) {
+        Card upcard = game.getDealer().getHand().getCards().get(0);
+        while (game.getState() == Game.GameState.PLAYER_TURN) {
+            Player current = game.getCurrentPlayer();
+            if (strategy.shouldHit(current.getHand(), upcard)) {
+                game.playerHit();
+            } else {
+                game.playerStand();
+            }
+        }
+    }
+
+    /**
+     * Plays every seat's turn with that seat's own strategy; the dealer
+     * then plays automatically.
+     * @param game Game in player turn
+     * @param bySeat Strategy for each seat, in seating order
+     */
+    static void playSeats(Game game, List<Strategy> bySeat) {
+        Card upcard = game.getDealer().getHand().getCards().get(0);
+        while (game.getState() == Game.GameState.PLAYER_TURN) {
+            Player current = game.getCurrentPlayer();
+            if (bySeat.get(game.getCurrentPlayerIndex()).shouldHit(current.getHand(), upcard)) {
+                game.playerHit();
+            } else {
+                game.playerStand();
+            }
+        }
+    }
+
+    /**
+     * @param seats Number of seats
+     * @return Default names "Seat 1".."Seat n"
+     */
+    static List<String> seatNames(int seats) {
+        if (seats < 1) {
+            throw new IllegalArgumentException("A table needs at least one seat");
+        }
+        List<String> names = new ArrayList<>();
+        for (int i = 1; i <= seats; i++) {
+            names.add("Seat " + i);
+        }
+        return names;
+    }
+
+    /**
+     * Derives a well-mixed deck seed for one round (SplitMix64 finalizer).
+     * @param seed Seed for the whole run
+     * @param round Round index
+     * @return Seed for that round's deck
+     */
+    static long roundSeed(long seed, long round) {
+        long z = seed + (round + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
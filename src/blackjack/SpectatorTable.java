@@ -0,0 +1,157 @@
+package blackjack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What a spectator can see of a table, rebuilt purely from TableDeltas.
+ * The broadcaster keeps one as its mirror of the live game, and each
+ * spectator can keep its own by applying the deltas it receives after
+ * its starting snapshot. Card codes follow Card.getCode(); a face-down
+ * card is TableDelta.HIDDEN.
+ */
+public class SpectatorTable {
+    private final List<String> names; // Seat names, in seat order
+    private final int[][] cards;      // Card codes per seat
+    private final int[] cardCounts;   // Cards held per seat
+    private final boolean[] standing; // Whether each seat has stood
+    private final int[] outcomes;     // Outcome ordinal per seat, or -1 while undecided
+    private int[] dealerCards = new int[8];
+    private int dealerCount;
+    private int turn;                 // Seat to act, or TableDelta.DEALER
+    private long roundNumber;         // Round number (low 32 bits as published)
+
+    /**
+     * Creates an empty table with the given seats.
+     * @param names Seat names, in seat order
+     */
+    public SpectatorTable(List<String> names) {
+        this.names = Collections.unmodifiableList(new ArrayList<>(names));
+        int seats = names.size();
+        cards = new int[seats][8];
+        cardCounts = new int[seats];
+        standing = new boolean[seats];
+        outcomes = new int[seats];
+        Arrays.fill(outcomes, -1);
+    }
+
+    /**
+     * Applies one delta.
+     * @param delta Packed delta (see TableDelta)
+     */
+    public void apply(long delta) {
+        int seat = TableDelta.seat(delta);
+        switch (TableDelta.type(delta)) {
+            case TableDelta.ROUND_START:
+                Arrays.fill(cardCounts, 0);
+                Arrays.fill(standing, false);
+                Arrays.fill(outcomes, -1);
+                dealerCount = 0;
+                turn = 0;
+                roundNumber = TableDelta.value(delta) & 0xFFFFFFFFL;
+                break;
+            case TableDelta.CARD:
+                if (seat == TableDelta.DEALER) {
+                    if (dealerCount == dealerCards.length) {
+                        dealerCards = Arrays.copyOf(dealerCards, dealerCount * 2);
+                    }
+                    dealerCards[dealerCount++] = TableDelta.card(delta);
+                } else {
+                    if (cardCounts[seat] == cards[seat].length) {
+                        cards[seat] = Arrays.copyOf(cards[seat], cardCounts[seat] * 2);
+                    }
+                    cards[seat][cardCounts[seat]++] = TableDelta.card(delta);
+                }
+                break;
+            case TableDelta.STAND:
+                standing[seat] = true;
+                break;
+            case TableDelta.TURN:
+                turn = seat;
+                break;
+            case TableDelta.REVEAL:
+                for (int i = 0; i < dealerCount; i++) {
+                    if (dealerCards[i] == TableDelta.HIDDEN) {
+                        dealerCards[i] = TableDelta.card(delta); // Turn the hole card over
+                        break;
+                    }
+                }
+                break;
+            case TableDelta.RESULT:
+                outcomes[seat] = TableDelta.value(delta);
+                break;
+            default:
+                break; // Unknown types are ignored for forward compatibility
+        }
+    }
+
+    /**
+     * @return Independent copy of this table
+     */
+    public SpectatorTable copy() {
+        SpectatorTable copy = new SpectatorTable(names);
+        for (int i = 0; i < cards.length; i++) {
+            copy.cards[i] = cards[i].clone();
+        }
+        System.arraycopy(cardCounts, 0, copy.cardCounts, 0, cardCounts.length);
+        System.arraycopy(standing, 0, copy.standing, 0, standing.length);
+        System.arraycopy(outcomes, 0, copy.outcomes, 0, outcomes.length);
+        copy.dealerCards = dealerCards.clone();
+        copy.dealerCount = dealerCount;
+        copy.turn = turn;
+        copy.roundNumber = roundNumber;
+        return copy;
+    }
+
+    /** @return Number of seats */
+    public int getSeatCount() { return names.size(); }
+
+    /** @return Seat names, in seat order */
+    public List<String> getNames() { return names; }
+
+    /** @return Card codes held by a seat */
+    public int[] getCards(int seat) { return Arrays.copyOf(cards[seat], cardCounts[seat]); }
+
+    /** @return Whether a seat has stood */
+    public boolean isStanding(int seat) { return standing[seat]; }
+
+    /** @return A seat's outcome, or null while the round is undecided */
+    public Game.Outcome getOutcome(int seat) {
+        return outcomes[seat] < 0 ? null : Game.Outcome.values()[outcomes[seat]];
+    }
+
+    /** @return Dealer's card codes (HIDDEN for the hole card until revealed) */
+    public int[] getDealerCards() { return Arrays.copyOf(dealerCards, dealerCount); }
+
+    /** @return Seat to act, or TableDelta.DEALER */
+    public int getTurn() { return turn; }
+
+    /** @return Round number (low 32 bits) */
+    public long getRoundNumber() { return roundNumber; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof SpectatorTable)) {
+            return false;
+        }
+        SpectatorTable other = (SpectatorTable) o;
+        if (!names.equals(other.names) || turn != other.turn || roundNumber != other.roundNumber
+                || !Arrays.equals(getDealerCards(), other.getDealerCards())
+                || !Arrays.equals(standing, other.standing) || !Arrays.equals(outcomes, other.outcomes)) {
+            return false;
+        }
+        for (int i = 0; i < cards.length; i++) {
+            if (!Arrays.equals(getCards(i), other.getCards(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return names.hashCode() * 31 + Long.hashCode(roundNumber);
+    }
+}
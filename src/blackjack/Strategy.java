@@ -0,0 +1,18 @@
+package blackjack;
+
+/**
+ * Decides hit or stand for an automated seat.
+ */
+public interface Strategy {
+
+    /**
+     * Decides whether to take another card.
+     * @param hand The seat's current hand
+     * @param dealerUpcard The dealer's face-up card
+     * @return true to hit, false to stand
+     */
+    boolean shouldHit(Hand hand, Card dealerUpcard);
+
+    /** @return Short name used in reports */
+    String getName();
+}
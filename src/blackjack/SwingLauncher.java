@@ -0,0 +1,240 @@
+package blackjack;
+
+import javax.swing.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the Swing version of the game: look-and-feel, window and
+ * player setup dialogs. Kept apart from Main so the command-line entry
+ * never loads AWT or Swing.
+ */
+public class SwingLauncher {
+    private static final int MAX_PLAYERS = 64;      // Largest table offered
+    private static final int MAX_NAMED_PLAYERS = 4; // Above this, seats get default names
+    private static final long BOT_STEP_MILLIS = 150; // Overview: one action per table this often
+    private static final int RESULT_STEPS = 6;       // Overview: steps a finished round stays up
+    
+    private SwingLauncher() {}
+
+    /**
+     * Shows the game window. Returns immediately; the GUI runs on the
+     * Swing event thread.
+     */
+    public static void launch() {
+        // Use SwingUtilities to ensure thread-safe GUI operations
+        SwingUtilities.invokeLater(() -> {
+            try {
+                // Set the look and feel to match the operating system
+                UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+            } catch (Exception e) {
+                e.printStackTrace();
+                // Continue with default look and feel if there's an error
+            }
+            
+            // Create and configure the main application window
+            JFrame frame = new JFrame("21 Game");
+            frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE); // Close app when window closes
+            frame.setSize(800, 800); // Initial window size
+            frame.setLocationRelativeTo(null); // Center the window on screen
+            
+            // Get player names through dialog prompts
+            List<String> playerNames = getPlayerNames(frame);
+            
+            // Exit if user canceled player name input
+            if (playerNames == null) {
+                System.exit(0);
+            }
+
+            // Adjust window height based on number of players
+            // Taller window for multiplayer games to accommodate more cards
+            frame.setSize(800, playerNames.size() > 1 ? 800 : 600);
+
+            // Create the main game panel with the collected player names,
+            // recording to their profiles if the store can be opened
+            GamePanel gamePanel = new GamePanel(playerNames, openProfiles());
+            frame.add(gamePanel); // Add game panel to the window
+            frame.addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowClosing(WindowEvent e) {
+                    gamePanel.dispose(); // Stop its threads before the JVM exits
+                }
+            });
+            
+            frame.setVisible(true); // Make the window visible
+        });
+    }
+    
+    /**
+     * Shows a window watching many tables at once, each played by bots
+     * at a watchable pace. Returns immediately.
+     * @param tables Number of tables
+     * @param seats Seats per table
+     */
+    public static void launchOverview(int tables, int seats) {
+        if (tables < 1) {
+            throw new IllegalArgumentException("The overview needs at least one table");
+        }
+        List<Game> games = new ArrayList<>();
+        ShoePool shoes = ShoePool.forTables(tables, seats);
+        for (int t = 0; t < tables; t++) {
+            games.add(new Game(Simulator.seatNames(seats), shoes));
+        }
+        SwingUtilities.invokeLater(() -> {
+            TableOverview overview = new TableOverview();
+            for (int t = 0; t < tables; t++) {
+                overview.addTable("Table " + (t + 1), games.get(t));
+            }
+            ScheduledExecutorService bots = startBots(games);
+
+            JFrame frame = new JFrame("21 Game - " + tables + " tables");
+            frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            frame.addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowClosing(WindowEvent e) {
+                    bots.shutdownNow();
+                    overview.dispose();
+                }
+            });
+            frame.add(new JScrollPane(overview, ScrollPaneConstants.VERTICAL_SCROLLBAR_AS_NEEDED,
+                                      ScrollPaneConstants.HORIZONTAL_SCROLLBAR_NEVER));
+            frame.setSize(800, 800);
+            frame.setLocationRelativeTo(null);
+            frame.setVisible(true);
+        });
+    }
+
+    /**
+     * Plays every table on one background thread: each step, every table
+     * takes one action (a stand-on-17 decision, or the next deal once a
+     * finished round has been on show for a few steps).
+     * @param games Tables to play
+     * @return The running bot thread's executor
+     */
+    private static ScheduledExecutorService startBots(List<Game> games) {
+        Strategy strategy = new ThresholdStrategy(17);
+        int[] shown = new int[games.size()]; // Steps each finished round has been on show (bot thread only)
+        ScheduledExecutorService bots = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "overview-bots");
+            thread.setDaemon(true);
+            return thread;
+        });
+        bots.scheduleAtFixedRate(() -> {
+            for (int t = 0; t < games.size(); t++) {
+                Game game = games.get(t);
+                long round = game.getRoundNumber();
+                if (game.getState() == Game.GameState.GAME_OVER) {
+                    if (++shown[t] >= RESULT_STEPS) {
+                        shown[t] = 0;
+                        game.nextRound(round);
+                    }
+                    continue;
+                }
+                int seat = game.getActingSeat();
+                if (seat < 0) {
+                    continue;
+                }
+                Hand hand = game.getPlayers().get(seat).getHand();
+                Card upcard = game.getDealer().getHand().getCards().get(0);
+                if (strategy.shouldHit(hand, upcard)) {
+                    game.playerHit(seat, round);
+                } else {
+                    game.playerStand(seat, round);
+                }
+            }
+        }, 0, BOT_STEP_MILLIS, TimeUnit.MILLISECONDS);
+        return bots;
+    }
+
+    /**
+     * Opens the profile store and arranges for it to be flushed on exit.
+     * @return The store, or null if it can't be opened (the game runs without it)
+     */
+    private static ProfileStore openProfiles() {
+        try {
+            ProfileStore profiles = ProfileStore.openDefault();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    profiles.close(); // Writes anything still queued
+                } catch (IOException e) {
+                    System.err.println("Could not save profiles: " + e.getMessage());
+                }
+            }, "profile-shutdown"));
+            return profiles;
+        } catch (IOException e) {
+            System.err.println("Profiles disabled: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Prompts the user to enter player information through dialog boxes.
+     * @param parent The parent frame for dialog positioning
+     * @return List of player names, or null if user canceled
+     */
+    private static List<String> getPlayerNames(JFrame parent) {
+        // Available options for number of players
+        String[] options = new String[MAX_PLAYERS];
+        for (int i = 0; i < MAX_PLAYERS; i++) {
+            options[i] = String.valueOf(i + 1);
+        }
+        
+        // Show dialog to select number of players
+        String selection = (String) JOptionPane.showInputDialog(
+            parent,
+            "How many players? (1-" + MAX_PLAYERS + ")", // Prompt message
+            "Player Count",            // Dialog title
+            JOptionPane.QUESTION_MESSAGE, // Message type
+            null,                      // No custom icon
+            options,                   // Selection options
+            options[0]);               // Default selection
+        
+        // Return null if user canceled the dialog
+        if (selection == null) {
+            return null;
+        }
+        
+        // Convert selection to integer
+        int playerCount = Integer.parseInt(selection);
+        List<String> playerNames = new ArrayList<>();
+        
+        // Large tables get default names rather than one dialog per seat
+        if (playerCount > MAX_NAMED_PLAYERS) {
+            for (int i = 1; i <= playerCount; i++) {
+                playerNames.add("Player " + i);
+            }
+            return playerNames;
+        }
+        
+        // Collect names for each player
+        for (int i = 1; i <= playerCount; i++) {
+            // Show input dialog for each player's name
+            String name = JOptionPane.showInputDialog(
+                parent,
+                "Enter name for Player " + i + ":", // Prompt
+                "Player " + i + " Name",            // Dialog title
+                JOptionPane.PLAIN_MESSAGE);         // Message type
+            
+            // Return null if user canceled name entry
+            if (name == null) {
+                return null;
+            }
+            
+            // Set default name if input was empty
+            if (name.trim().isEmpty()) {
+                name = "Player " + i;
+            }
+            
+            // Add the name to our list
+            playerNames.add(name);
+        }
+        
+        return playerNames;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,290 @@
+package blackjack;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fans one table's deltas out to many spectators without ever blocking
+ * the game thread.
+ *
+ * <p>The game thread writes each delta once into a fixed ring buffer and
+ * advances a sequence number: no locks, no allocation. A dispatcher
+ * thread picks up new deltas, applies them to a mirror SpectatorTable,
+ * and schedules delivery for each spectator on a small pool; while the
+ * table is quiet it sleeps until the next delta wakes it. Each spectator has its own cursor and receives deltas in
+ * batches. New spectators, and spectators that fall too far behind
+ * (slow consumers), get a copy of the mirror followed by the deltas
+ * after it instead of the backlog.
+ */
+public class TableBroadcaster implements TableListener, Closeable {
+    private static final int CAPACITY = 1 << 16;         // Ring size (deltas)
+    private static final int MASK = CAPACITY - 1;
+    private static final int LAG_LIMIT = CAPACITY / 2;   // Behind this far, resync from a snapshot
+    private static final int MAX_BATCH = 4096;           // Most deltas per callback
+    private static final long BATCH_NANOS = 1_000_000L;  // After waking, let a burst build for 1 ms
+
+    private final Game game;                     // Table being broadcast
+    private final long[] ring = new long[CAPACITY];
+    private final AtomicLong published = new AtomicLong(); // Deltas written so far
+    private long writeSeq;                       // Written by one delivering thread at a time
+
+    private final Object mirrorLock = new Object();
+    private final SpectatorTable mirror;         // Table as of mirrorSeq (guarded by mirrorLock)
+    private long mirrorSeq;                      // Deltas applied to the mirror
+    private boolean mirrorValid = true;          // False after an overrun until the next round starts
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final ExecutorService delivery;      // Runs spectator callbacks
+    private final Thread dispatcher;             // Advances the mirror and schedules deliveries
+    private volatile boolean running = true;
+    private volatile boolean idle;               // Dispatcher is parked until the next delta
+
+    /**
+     * Starts broadcasting a game. Safe to call while other threads play:
+     * the game sends the table as it stands before any later change.
+     * @param game Game to broadcast
+     * @param deliveryThreads Threads used to run spectator callbacks
+     */
+    public TableBroadcaster(Game game, int deliveryThreads) {
+        this.game = game;
+        List<String> names = new ArrayList<>();
+        for (Player player : game.getPlayers()) {
+            names.add(player.getName());
+        }
+        mirror = new SpectatorTable(names);
+        game.attachTableListener(this); // The live table arrives as deltas, then every change after
+
+        AtomicInteger threadCount = new AtomicInteger();
+        delivery = Executors.newFixedThreadPool(deliveryThreads, r -> {
+            Thread thread = new Thread(r, "spectator-delivery-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher = new Thread(this::dispatch, "spectator-dispatch");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Game thread: store the delta, publish it, and wake the dispatcher
+     * if it is parked. Never blocks. The game delivers deltas one at a
+     * time, so there is a single writer.
+     * @param delta Packed delta
+     */
+    @Override
+    public void onDelta(long delta) {
+        long seq = writeSeq++;
+        ring[(int) seq & MASK] = delta;
+        published.set(seq + 1); // Volatile: the slot is visible first, and the idle check can't move above it
+        if (idle) {
+            LockSupport.unpark(dispatcher);
+        }
+    }
+
+    /**
+     * Adds a spectator. It first receives a snapshot, then deltas.
+     * @param spectator Receives the table
+     * @return Handle for unsubscribing
+     */
+    public Subscription subscribe(Spectator spectator) {
+        Subscription subscription = new Subscription(spectator);
+        subscriptions.add(subscription);
+        subscription.schedule();
+        return subscription;
+    }
+
+    /** @return Number of current spectators */
+    public int getSpectatorCount() { return subscriptions.size(); }
+
+    /** @return Deltas received from the game so far */
+    public long getDeltaCount() { return published.get(); }
+
+    /** Stops broadcasting and detaches from the game. */
+    @Override
+    public void close() {
+        running = false;
+        game.removeTableListener(this);
+        dispatcher.interrupt();
+        delivery.shutdownNow();
+    }
+
+    /**
+     * Dispatcher loop: catch the mirror up, then schedule every spectator.
+     * With nothing new it parks; onDelta() sees the idle flag and wakes
+     * it. Both sides write their volatile before reading the other's, so
+     * a delta published while the dispatcher is going to sleep is never
+     * missed.
+     */
+    private void dispatch() {
+        while (running) {
+            long pub = published.get();
+            boolean advanced;
+            synchronized (mirrorLock) {
+                advanced = pub != mirrorSeq;
+                if (advanced) {
+                    advanceMirror(pub);
+                }
+            }
+            if (advanced) {
+                for (Subscription subscription : subscriptions) {
+                    subscription.schedule();
+                }
+            } else {
+                idle = true;
+                if (published.get() == pub) {
+                    LockSupport.park(this); // Until onDelta() or close()
+                }
+                idle = false;
+                LockSupport.parkNanos(BATCH_NANOS); // Lets the burst that woke us build into one batch
+            }
+        }
+    }
+
+    /**
+     * Applies deltas up to pub to the mirror. If the game outran the
+     * dispatcher by a whole ring, the mirror waits for the next
+     * ROUND_START (which resets the table) before it is valid again.
+     */
+    private void advanceMirror(long pub) {
+        long start = mirrorSeq;
+        if (pub - start > CAPACITY) {
+            start = pub - CAPACITY;
+            mirrorValid = false;
+        }
+        for (long seq = start; seq < pub; seq++) {
+            long delta = ring[(int) seq & MASK];
+            if (!mirrorValid && TableDelta.type(delta) != TableDelta.ROUND_START) {
+                continue;
+            }
+            mirrorValid = true;
+            mirror.apply(delta);
+        }
+        if (published.get() - CAPACITY > start) {
+            mirrorValid = false; // Slots were overwritten while we read them
+        }
+        mirrorSeq = pub;
+    }
+
+    /**
+     * Receives one table's state.
+     */
+    public interface Spectator {
+
+        /**
+         * Called first, and again whenever the spectator had to be resynced.
+         * @param table Private copy of the table; later deltas apply on top of it
+         */
+        void onSnapshot(SpectatorTable table);
+
+        /**
+         * Called with the next batch of deltas, in order.
+         * @param deltas Packed deltas; the array is reused after this returns
+         * @param count Number of valid entries
+         */
+        void onDeltas(long[] deltas, int count);
+    }
+
+    /**
+     * One spectator's cursor into the ring.
+     */
+    public final class Subscription implements Closeable {
+        private final Spectator spectator;
+        private final long[] batch = new long[MAX_BATCH];          // Reused delivery buffer
+        private final AtomicBoolean scheduled = new AtomicBoolean(); // Delivery task queued or running
+        private final AtomicLong resyncs = new AtomicLong();       // Times this spectator was resynced
+        private volatile boolean active = true;
+        private boolean needsSnapshot = true;                      // Delivery thread only
+        private long cursor;                                       // Next delta to deliver
+
+        Subscription(Spectator spectator) {
+            this.spectator = spectator;
+        }
+
+        /** @return Number of times this spectator fell behind and was resynced */
+        public long getResyncCount() { return resyncs.get(); }
+
+        /** Stops deliveries to this spectator. */
+        @Override
+        public void close() {
+            active = false;
+            subscriptions.remove(this);
+        }
+
+        /**
+         * Queues a delivery unless one is already queued or running.
+         */
+        void schedule() {
+            if (active && scheduled.compareAndSet(false, true)) {
+                try {
+                    delivery.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false); // Broadcaster closed
+                }
+            }
+        }
+
+        /**
+         * Delivers everything published so far, then checks once more
+         * so a delta published during delivery is not stranded.
+         */
+        private void drain() {
+            try {
+                deliver();
+            } catch (RuntimeException e) {
+                close(); // A failing spectator must not affect the others
+                return;
+            } finally {
+                scheduled.set(false);
+            }
+            if (cursor < published.get()) {
+                schedule();
+            }
+        }
+
+        private void deliver() {
+            while (active) {
+                if (needsSnapshot) {
+                    SpectatorTable snapshot;
+                    synchronized (mirrorLock) {
+                        if (!mirrorValid) {
+                            return; // Retried on the next dispatch
+                        }
+                        snapshot = mirror.copy();
+                        cursor = mirrorSeq;
+                    }
+                    needsSnapshot = false;
+                    spectator.onSnapshot(snapshot);
+                }
+                long pub = published.get();
+                if (cursor == pub) {
+                    return;
+                }
+                if (pub - cursor > LAG_LIMIT) {
+                    needsSnapshot = true; // Slow consumer: skip the backlog
+                    resyncs.incrementAndGet();
+                    continue;
+                }
+                int count = (int) Math.min(pub - cursor, MAX_BATCH);
+                for (int i = 0; i < count; i++) {
+                    batch[i] = ring[(int) (cursor + i) & MASK];
+                }
+                if (published.get() - CAPACITY > cursor) {
+                    needsSnapshot = true; // Overwritten while copying
+                    resyncs.incrementAndGet();
+                    continue;
+                }
+                spectator.onDeltas(batch, count);
+                cursor += count;
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package blackjack;
+
+/**
+ * Compact table-change events, each packed into a single long so the
+ * game thread can publish them without allocating.
+ *
+ * <p>Bits 0-3 hold the type, 4-19 the seat (DEALER for the dealer),
+ * 20-27 a card code (HIDDEN for a face-down card) and 32-63 a value
+ * (round number for ROUND_START, outcome ordinal for RESULT).
+ */
+public final class TableDelta {
+    public static final int ROUND_START = 1; // New round; value = round number (low 32 bits)
+    public static final int CARD = 2;        // Card dealt to seat
+    public static final int STAND = 3;       // Seat stood
+    public static final int TURN = 4;        // Seat to act (DEALER once players are done)
+    public static final int REVEAL = 5;      // Dealer's hole card turned face-up
+    public static final int RESULT = 6;      // Seat's outcome; value = Game.Outcome ordinal
+
+    public static final int DEALER = 0xFFFF; // Seat number used for the dealer
+    public static final int HIDDEN = 0xFF;   // Card code of a face-down card
+
+    private TableDelta() {}
+
+    /**
+     * Packs a delta.
+     * @param type Delta type
+     * @param seat Seat index or DEALER
+     * @param card Card code, HIDDEN, or 0 if unused
+     * @param value Type-specific value
+     * @return Packed delta
+     */
+    public static long encode(int type, int seat, int card, int value) {
+        return (type & 0xFL) | (seat & 0xFFFFL) << 4 | (card & 0xFFL) << 20 | (long) value << 32;
+    }
+
+    /** @return Type of a packed delta */
+    public static int type(long delta) { return (int) (delta & 0xF); }
+
+    /** @return Seat of a packed delta */
+    public static int seat(long delta) { return (int) (delta >>> 4 & 0xFFFF); }
+
+    /** @return Card code of a packed delta */
+    public static int card(long delta) { return (int) (delta >>> 20 & 0xFF); }
+
+    /** @return Value of a packed delta */
+    public static int value(long delta) { return (int) (delta >>> 32); }
+
+    /**
+     * @return Readable form, e.g. "CARD seat=2 card=17"
+     */
+    public static String toString(long delta) {
+        String[] names = {"?", "ROUND_START", "CARD", "STAND", "TURN", "REVEAL", "RESULT"};
+        int type = type(delta);
+        return (type < names.length ? names[type] : "?") + " seat="
+            + (seat(delta) == DEALER ? "dealer" : String.valueOf(seat(delta)))
+            + " card=" + card(delta) + " value=" + value(delta);
+    }
+}
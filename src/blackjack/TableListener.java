@@ -0,0 +1,15 @@
+package blackjack;
+
+/**
+ * Receives every change to a table as a packed TableDelta. Called on
+ * the thread that made the change, after the game's lock is released,
+ * one delta at a time; implementations must never block.
+ */
+public interface TableListener {
+
+    /**
+     * Called once per change, in order.
+     * @param delta Packed delta (see TableDelta)
+     */
+    void onDelta(long delta);
+}
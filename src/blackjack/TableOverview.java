@@ -0,0 +1,296 @@
+package blackjack;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scrollable grid of compact tiles, one per live table: dealer cards and
+ * each seat's total, turn and result. Like SeatListView it creates no
+ * component per table and paints only the tiles intersecting the
+ * visible area. Each tile is a TableListener that keeps its own
+ * SpectatorTable current from the game's deltas; a timer repaints the
+ * visible tiles that changed, at most ten times a second, so paint time
+ * depends on the window size, not on how many tables are watched.
+ */
+public class TableOverview extends JComponent implements Scrollable {
+    private static final int TILE_WIDTH = 240;     // Width of one table tile
+    private static final int LINE_HEIGHT = 16;     // Height of one text line in a tile
+    private static final int SEAT_COLUMNS = 2;     // Seats per line in a tile
+    private static final int GAP = 8;              // Space between tiles
+    private static final int PAD = 6;              // Space inside a tile's border
+    private static final int REPAINT_MILLIS = 100; // Coalesces changes into at most 10 repaints/s
+    private static final int NAME_CHARS = 9;       // Seat names are cut to this length
+
+    private static final Color TILE_BACKGROUND = new Color(240, 240, 240); // Light gray, as seats
+    private static final Color TURN_COLOR = new Color(0, 120, 200);       // Blue, as the active seat
+    private static final Color WIN_COLOR = new Color(0, 140, 0);           // Dark green
+    private static final Font TITLE_FONT = new Font("Arial", Font.BOLD, 12);
+    private static final Font TEXT_FONT = new Font("Arial", Font.PLAIN, 12);
+
+    private final List<Tile> tiles = new ArrayList<>(); // EDT only
+    private final Timer repaintTimer;
+    private int seatLines = 1; // Seat lines in the tallest tile
+
+    /**
+     * Creates an empty overview; add tables with {@link #addTable}.
+     */
+    public TableOverview() {
+        setOpaque(true);
+        setBackground(UIManager.getColor("Panel.background"));
+        repaintTimer = new Timer(REPAINT_MILLIS, e -> repaintChanged());
+        repaintTimer.start();
+        // Re-flow when the viewport width changes the column count
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                revalidate();
+                repaint();
+            }
+        });
+    }
+
+    /**
+     * Starts watching a table. Call on the event thread; the game may be
+     * in play on other threads.
+     * @param title Label for the table's tile
+     * @param game Table to watch
+     */
+    public void addTable(String title, Game game) {
+        List<String> names = new ArrayList<>();
+        for (Player player : game.getPlayers()) {
+            names.add(player.getName());
+        }
+        Tile tile = new Tile(title, game, names);
+        tiles.add(tile);
+        seatLines = Math.max(seatLines, (names.size() + SEAT_COLUMNS - 1) / SEAT_COLUMNS);
+        game.attachTableListener(tile); // Starts from the table as it is now
+        revalidate();
+        repaint();
+    }
+
+    /**
+     * Stops watching every table and stops the repaint timer. Call on the
+     * event thread, e.g. when the window closes.
+     */
+    public void dispose() {
+        repaintTimer.stop();
+        for (Tile tile : tiles) {
+            tile.game.removeTableListener(tile);
+        }
+        tiles.clear();
+        revalidate();
+        repaint();
+    }
+
+    /** @return Number of tables shown */
+    public int getTableCount() { return tiles.size(); }
+
+    /**
+     * Repaints the visible tiles whose table changed since they were last painted.
+     */
+    private void repaintChanged() {
+        Rectangle visible = getVisibleRect();
+        if (visible.isEmpty()) {
+            return;
+        }
+        int[] range = visibleRange(visible);
+        for (int i = range[0]; i <= range[1]; i++) {
+            if (tiles.get(i).changed) {
+                repaint(tileBounds(i));
+            }
+        }
+    }
+
+    /** @return Tile columns that fit in the current width */
+    private int columns() {
+        return Math.max(1, (getWidth() + GAP) / (TILE_WIDTH + GAP));
+    }
+
+    /** @return Height of every tile: title, dealer and the seat lines */
+    private int tileHeight() {
+        return 2 * PAD + (2 + seatLines) * LINE_HEIGHT;
+    }
+
+    /**
+     * @param index Tile index
+     * @return Bounds of the tile within this component
+     */
+    private Rectangle tileBounds(int index) {
+        int columns = columns();
+        return new Rectangle((index % columns) * (TILE_WIDTH + GAP), (index / columns) * (tileHeight() + GAP),
+                             TILE_WIDTH, tileHeight());
+    }
+
+    /**
+     * @param area Region of this component
+     * @return First and last index of the tiles intersecting it (last < first if none)
+     */
+    private int[] visibleRange(Rectangle area) {
+        int columns = columns();
+        int rowHeight = tileHeight() + GAP;
+        int first = Math.max(0, area.y / rowHeight) * columns;
+        int last = Math.min(tiles.size() - 1, ((area.y + area.height) / rowHeight + 1) * columns - 1);
+        return new int[] {first, last};
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        int width = getParent() instanceof JViewport ? getParent().getWidth() : TILE_WIDTH;
+        int columns = Math.max(1, (width + GAP) / (TILE_WIDTH + GAP));
+        int rows = (tiles.size() + columns - 1) / columns;
+        return new Dimension(TILE_WIDTH, Math.max(0, rows * (tileHeight() + GAP) - GAP));
+    }
+
+    /**
+     * Paints only the tiles that intersect the clip.
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2d = (Graphics2D) g;
+        Rectangle clip = g2d.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g2d.setColor(getBackground());
+        g2d.fillRect(clip.x, clip.y, clip.width, clip.height);
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        int[] range = visibleRange(clip);
+        for (int i = range[0]; i <= range[1]; i++) {
+            Rectangle bounds = tileBounds(i);
+            if (bounds.intersects(clip)) {
+                paintTile(g2d, tiles.get(i), bounds);
+            }
+        }
+    }
+
+    /**
+     * Paints one table: title and round, dealer's cards, then each seat.
+     */
+    private void paintTile(Graphics2D g2d, Tile tile, Rectangle bounds) {
+        g2d.setColor(TILE_BACKGROUND);
+        g2d.fillRect(bounds.x, bounds.y, bounds.width, bounds.height);
+        g2d.setColor(Color.BLACK);
+        g2d.drawRect(bounds.x, bounds.y, bounds.width - 1, bounds.height - 1);
+
+        synchronized (tile) { // The game's thread may be applying a delta
+            tile.changed = false;
+            SpectatorTable table = tile.table;
+            int x = bounds.x + PAD;
+            int y = bounds.y + PAD + LINE_HEIGHT - 4; // Text baseline of the first line
+
+            g2d.setFont(TITLE_FONT);
+            FontMetrics metrics = g2d.getFontMetrics();
+            g2d.drawString(tile.title, x, y);
+            String round = "round " + table.getRoundNumber();
+            g2d.drawString(round, bounds.x + bounds.width - PAD - metrics.stringWidth(round), y);
+
+            g2d.setFont(TEXT_FONT);
+            y += LINE_HEIGHT;
+            int[] dealer = table.getDealerCards();
+            boolean dealerPlaying = table.getTurn() == TableDelta.DEALER && table.getOutcome(0) == null;
+            g2d.setColor(dealerPlaying ? TURN_COLOR : Color.BLACK);
+            g2d.drawString("Dealer " + cardList(dealer) + " (" + total(dealer) + ")", x, y);
+
+            int columnWidth = (bounds.width - 2 * PAD) / SEAT_COLUMNS;
+            for (int seat = 0; seat < table.getSeatCount(); seat++) {
+                int lineY = y + (1 + seat / SEAT_COLUMNS) * LINE_HEIGHT;
+                int lineX = x + (seat % SEAT_COLUMNS) * columnWidth;
+                Game.Outcome outcome = table.getOutcome(seat);
+                int total = total(table.getCards(seat));
+                String status;
+                if (outcome != null) {
+                    status = total > 21 ? "bust" : outcome.name().toLowerCase();
+                    g2d.setColor(outcome == Game.Outcome.WIN ? WIN_COLOR
+                                 : outcome == Game.Outcome.LOSE ? Color.RED : Color.GRAY);
+                } else {
+                    status = String.valueOf(total);
+                    g2d.setColor(seat == table.getTurn() ? TURN_COLOR : Color.BLACK);
+                }
+                g2d.drawString(shortName(table.getNames().get(seat)) + " " + status, lineX, lineY);
+            }
+        }
+    }
+
+    /** @return Cards as short names, "??" for the hole card */
+    private static String cardList(int[] codes) {
+        StringBuilder sb = new StringBuilder();
+        for (int code : codes) {
+            sb.append(code == TableDelta.HIDDEN ? "??" : Cli.shortName(code)).append(' ');
+        }
+        return sb.toString().trim();
+    }
+
+    /** @return Blackjack total of the face-up cards, aces counted 1 when 11 would bust */
+    private static int total(int[] codes) {
+        int total = 0;
+        int aces = 0;
+        for (int code : codes) {
+            if (code == TableDelta.HIDDEN) {
+                continue;
+            }
+            int value = Card.valueOfCode(code);
+            total += value;
+            if (value == 11) {
+                aces++;
+            }
+        }
+        while (total > 21 && aces-- > 0) {
+            total -= 10;
+        }
+        return total;
+    }
+
+    private static String shortName(String name) {
+        return name.length() <= NAME_CHARS ? name : name.substring(0, NAME_CHARS - 1) + ".";
+    }
+
+    /**
+     * One watched table: its spectator view, kept current by the game's
+     * deltas and read by the event thread, both under the tile's lock.
+     */
+    private static final class Tile implements TableListener {
+        final String title;
+        final Game game;
+        final SpectatorTable table;
+        volatile boolean changed = true; // Needs repainting
+
+        Tile(String title, Game game, List<String> names) {
+            this.title = title;
+            this.game = game;
+            this.table = new SpectatorTable(names);
+        }
+
+        @Override
+        public synchronized void onDelta(long delta) {
+            table.apply(delta);
+            changed = true;
+        }
+    }
+
+    // Scrollable: track the viewport width so tiles re-flow into columns
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return new Dimension(3 * TILE_WIDTH + 2 * GAP, 4 * (tileHeight() + GAP));
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return LINE_HEIGHT;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() { return true; }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() { return false; }
+}
@@ -0,0 +1,28 @@
+package blackjack;
+
+/**
+ * Hits until the hand reaches a fixed total, ignoring the dealer's card
+ * (the same rule the dealer follows, with a configurable threshold).
+ */
+public class ThresholdStrategy implements Strategy {
+    private final int standOn; // Smallest total the seat stands on
+
+    /**
+     * Creates a strategy that stands on the given total or higher.
+     * @param standOn Smallest total to stand on
+     */
+    public ThresholdStrategy(int standOn) {
+        this.standOn = standOn;
+    }
+
+    @Override
+    public boolean shouldHit(Hand hand, Card dealerUpcard) {
+        return hand.calculateValue() < standOn;
+    }
+
+    /** @return Smallest total the seat stands on */
+    public int getStandOn() { return standOn; }
+
+    @Override
+    public String getName() { return "stand-on-" + standOn; }
+}
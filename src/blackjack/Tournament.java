@@ -0,0 +1,387 @@
+package blackjack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Round-robin tournament between strategies. Every pair sits together at
+ * two-seat tables sharing one dealer and shoe, and each shoe is played
+ * twice with the seats swapped, so both sides are dealt the same
+ * starting hands against the same upcard (common random numbers). Once
+ * their decisions differ, the cards drawn after that point differ too,
+ * so pairing narrows the intervals without removing the luck of the
+ * draw. Shoe (table, round) is the same for every matchup, so results
+ * of one shoe are correlated across all of a strategy's matchups; the
+ * intervals therefore treat each shoe, not each hand, as one sample.
+ * Each table, with every matchup on it, is an independent task, so
+ * results don't depend on the thread count.
+ */
+public class Tournament {
+    private static final double Z95 = 1.96; // Normal quantile for a 95% interval
+
+    private final List<Strategy> strategies; // Entrants
+    private final int threads;               // Worker threads for tables
+
+    /**
+     * Creates a tournament between the given strategies.
+     * @param strategies Entrants, at least two, with distinct names
+     * @param threads Worker threads for tables
+     */
+    public Tournament(List<Strategy> strategies, int threads) {
+        if (strategies.size() < 2) {
+            throw new IllegalArgumentException("A tournament needs at least two strategies");
+        }
+        if (strategies.stream().map(Strategy::getName).distinct().count() != strategies.size()) {
+            throw new IllegalArgumentException("Strategy names must be distinct");
+        }
+        this.strategies = new ArrayList<>(strategies);
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Plays every matchup at the given number of tables.
+     * @param seed Seed for all shoes
+     * @param tables Tables per matchup
+     * @param rounds Rounds per table (each played in both seatings)
+     * @return Leaderboard and per-matchup results
+     * @throws InterruptedException If interrupted while waiting for tables
+     */
+    public Result run(long seed, int tables, long rounds) throws InterruptedException {
+        int n = strategies.size();
+        Matchup[] matchups = new Matchup[n * (n - 1) / 2];
+        List<Future<TableResult>> futures = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "tournament");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            int m = 0;
+            for (int a = 0; a < n; a++) {
+                for (int b = a + 1; b < n; b++) {
+                    matchups[m++] = new Matchup(strategies.get(a), strategies.get(b));
+                }
+            }
+            Sample[] shoes = new Sample[n]; // Each strategy's units per shoe, all matchups together
+            for (int i = 0; i < n; i++) {
+                shoes[i] = new Sample();
+            }
+            for (int table = 0; table < tables; table++) {
+                int t = table;
+                futures.add(pool.submit(() -> playTable(seed, t, rounds)));
+            }
+            for (Future<TableResult> future : futures) {
+                TableResult table = future.get(); // In table order, so sums don't depend on timing
+                for (int i = 0; i < matchups.length; i++) {
+                    matchups[i].merge(table.matchups[i]);
+                }
+                for (int i = 0; i < n; i++) {
+                    shoes[i].merge(table.shoes[i]);
+                }
+            }
+            return new Result(strategies, Arrays.asList(matchups), shoes);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Tournament table failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays one table: every round's shoe in both seatings of every matchup.
+     * @return Partial matchup stats, and each strategy's units per shoe
+     */
+    private TableResult playTable(long seed, int table, long rounds) {
+        int n = strategies.size();
+        TableResult result = new TableResult(n);
+        long tableSeed = Simulator.roundSeed(seed, table);
+        Game[] gamesAB = new Game[result.matchups.length];
+        Game[] gamesBA = new Game[result.matchups.length];
+        List<List<Strategy>> seatingsAB = new ArrayList<>();
+        List<List<Strategy>> seatingsBA = new ArrayList<>();
+        int m = 0;
+        for (int a = 0; a < n; a++) {
+            for (int b = a + 1; b < n; b++) {
+                Strategy first = strategies.get(a);
+                Strategy second = strategies.get(b);
+                result.matchups[m] = new Matchup(first, second);
+                gamesAB[m] = seat(first, second, tableSeed); // Both seatings draw shoe i for round i
+                gamesBA[m] = seat(second, first, tableSeed);
+                seatingsAB.add(Arrays.asList(first, second));
+                seatingsBA.add(Arrays.asList(second, first));
+                m++;
+            }
+        }
+
+        double[] shoeUnits = new double[n]; // This shoe's payouts per strategy, over all its matchups
+        for (long round = 0; round < rounds; round++) {
+            Arrays.fill(shoeUnits, 0);
+            m = 0;
+            for (int a = 0; a < n; a++) {
+                for (int b = a + 1; b < n; b++, m++) {
+                    Game gameAB = gamesAB[m];
+                    Game gameBA = gamesBA[m];
+                    if (round > 0) {
+                        gameAB.reset();
+                        gameBA.reset();
+                    }
+                    Simulator.playSeats(gameAB, seatingsAB.get(m));
+                    Simulator.playSeats(gameBA, seatingsBA.get(m));
+
+                    Player a1 = gameAB.getPlayers().get(0), b1 = gameAB.getPlayers().get(1);
+                    Player b2 = gameBA.getPlayers().get(0), a2 = gameBA.getPlayers().get(1);
+                    Game.Outcome oa1 = gameAB.determineOutcome(a1), ob1 = gameAB.determineOutcome(b1);
+                    Game.Outcome ob2 = gameBA.determineOutcome(b2), oa2 = gameBA.determineOutcome(a2);
+                    Matchup matchup = result.matchups[m];
+                    matchup.first.recordHand(oa1, a1.isBusted());
+                    matchup.first.recordHand(oa2, a2.isBusted());
+                    matchup.second.recordHand(ob1, b1.isBusted());
+                    matchup.second.recordHand(ob2, b2.isBusted());
+                    matchup.first.recordRound();
+                    matchup.second.recordRound();
+                    int unitsA = payout(oa1) + payout(oa2);
+                    int unitsB = payout(ob1) + payout(ob2);
+                    matchup.edge.add((unitsA - unitsB) / 2.0);
+                    shoeUnits[a] += unitsA;
+                    shoeUnits[b] += unitsB;
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                result.shoes[i].add(shoeUnits[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return A two-seat table dealing shoe i of the table for its round i
+     */
+    private static Game seat(Strategy first, Strategy second, long tableSeed) {
+        long[] next = {0};
+        Supplier<Deck> shoes = () -> new Deck(Simulator.roundSeed(tableSeed, next[0]++));
+        return new Game(Arrays.asList(first.getName(), second.getName()), shoes);
+    }
+
+    /**
+     * @return +1 for a win, -1 for a loss, 0 for a push
+     */
+    private static int payout(Game.Outcome outcome) {
+        return outcome == Game.Outcome.WIN ? 1 : outcome == Game.Outcome.LOSE ? -1 : 0;
+    }
+
+    /**
+     * Running count, sum and sum of squares of independent samples, for
+     * their mean and its 95% interval.
+     */
+    static final class Sample {
+        private long count;
+        private double sum;
+        private double squares;
+
+        void add(double x) {
+            count++;
+            sum += x;
+            squares += x * x;
+        }
+
+        void merge(Sample other) {
+            count += other.count;
+            sum += other.sum;
+            squares += other.squares;
+        }
+
+        long size() { return count; }
+
+        double mean() { return count == 0 ? 0 : sum / count; }
+
+        /** @return Half-width of the 95% interval for {@link #mean()} */
+        double halfWidth() {
+            if (count < 2) {
+                return Double.POSITIVE_INFINITY;
+            }
+            double mean = mean();
+            double variance = Math.max(0, squares / count - mean * mean) * count / (count - 1);
+            return Z95 * Math.sqrt(variance / count);
+        }
+    }
+
+    /**
+     * What one table contributes: its share of every matchup, and each
+     * strategy's units per shoe.
+     */
+    private static final class TableResult {
+        final Matchup[] matchups; // Pair order as in run()
+        final Sample[] shoes;     // Per strategy
+
+        TableResult(int strategies) {
+            matchups = new Matchup[strategies * (strategies - 1) / 2];
+            shoes = new Sample[strategies];
+            for (int i = 0; i < strategies; i++) {
+                shoes[i] = new Sample();
+            }
+        }
+    }
+
+    /**
+     * Head-to-head results for one pair of strategies. The edge is the
+     * first strategy's payout minus the second's, per shoe, averaged over
+     * both seatings; its interval is narrow because both sides were
+     * dealt the same starting hands, and it is taken over shoes, the
+     * unit the two sides are paired on.
+     */
+    public static class Matchup {
+        private final Strategy firstStrategy;
+        private final Strategy secondStrategy;
+        private final SimulationStats first = new SimulationStats();  // First strategy's hands
+        private final SimulationStats second = new SimulationStats(); // Second strategy's hands
+        private final Sample edge = new Sample(); // Per-shoe edges, each shoe in both seatings
+
+        Matchup(Strategy firstStrategy, Strategy secondStrategy) {
+            this.firstStrategy = firstStrategy;
+            this.secondStrategy = secondStrategy;
+        }
+
+        void merge(Matchup other) {
+            first.merge(other.first);
+            second.merge(other.second);
+            edge.merge(other.edge);
+        }
+
+        public Strategy getFirst() { return firstStrategy; }
+        public Strategy getSecond() { return secondStrategy; }
+        public SimulationStats getFirstStats() { return first; }
+        public SimulationStats getSecondStats() { return second; }
+        public long getShoes() { return edge.size(); }
+
+        /** @return Mean units per shoe the first strategy gains over the second */
+        public double getEdge() { return edge.mean(); }
+
+        /** @return Half-width of the 95% interval for {@link #getEdge()} */
+        public double getEdgeInterval() { return edge.halfWidth(); }
+
+        @Override
+        public String toString() {
+            return String.format("%s vs %s: edge %+.4f +/- %.4f over %,d shoes",
+                firstStrategy.getName(), secondStrategy.getName(), getEdge(), getEdgeInterval(), getShoes());
+        }
+    }
+
+    /**
+     * One strategy's totals across all of its matchups.
+     */
+    public static class Standing {
+        private final Strategy strategy;
+        private final SimulationStats stats = new SimulationStats();
+        private final Sample shoes;      // Units per shoe, summed over every matchup
+        private final int handsPerShoe;  // Hands the strategy plays per shoe
+
+        Standing(Strategy strategy, Sample shoes, int handsPerShoe) {
+            this.strategy = strategy;
+            this.shoes = shoes;
+            this.handsPerShoe = handsPerShoe;
+        }
+
+        public Strategy getStrategy() { return strategy; }
+        public SimulationStats getStats() { return stats; }
+
+        /** @return Mean units won per hand */
+        public double getEv() {
+            return stats.getHands() == 0 ? 0 : (double) stats.getNet() / stats.getHands();
+        }
+
+        /**
+         * Half-width of the 95% interval for {@link #getEv()}. Hands from
+         * one shoe share cards, both seatings and every matchup, so
+         * they are not independent; the interval comes from the spread
+         * of whole-shoe totals instead, scaled to one hand.
+         * @return Half-width of the interval
+         */
+        public double getEvInterval() {
+            return shoes.halfWidth() / handsPerShoe;
+        }
+    }
+
+    /**
+     * Leaderboard (best EV first) and all matchups.
+     */
+    public static class Result {
+        private final List<Standing> leaderboard = new ArrayList<>();
+        private final List<Matchup> matchups;
+
+        Result(List<Strategy> strategies, List<Matchup> matchups, Sample[] shoes) {
+            this.matchups = matchups;
+            int handsPerShoe = 2 * (strategies.size() - 1); // Both seatings against each opponent
+            for (int i = 0; i < strategies.size(); i++) {
+                Strategy strategy = strategies.get(i);
+                Standing standing = new Standing(strategy, shoes[i], handsPerShoe);
+                for (Matchup matchup : matchups) {
+                    if (matchup.getFirst() == strategy) {
+                        standing.stats.merge(matchup.first);
+                    } else if (matchup.getSecond() == strategy) {
+                        standing.stats.merge(matchup.second);
+                    }
+                }
+                leaderboard.add(standing);
+            }
+            leaderboard.sort(Comparator.comparingDouble(Standing::getEv).reversed());
+        }
+
+        public List<Standing> getLeaderboard() { return leaderboard; }
+        public List<Matchup> getMatchups() { return matchups; }
+
+        /**
+         * @return Leaderboard table followed by one line per matchup
+         */
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%-4s %-16s %12s %10s %8s %8s %8s%n",
+                "#", "strategy", "hands", "ev/hand", "+/-", "win", "bust"));
+            int rank = 1;
+            for (Standing s : leaderboard) {
+                SimulationStats st = s.stats;
+                double perHand = st.getHands() == 0 ? 0 : 1.0 / st.getHands();
+                sb.append(String.format("%-4d %-16s %,12d %+10.5f %8.5f %8.4f %8.4f%n",
+                    rank++, s.strategy.getName(), st.getHands(), s.getEv(), s.getEvInterval(),
+                    st.getWins() * perHand, st.getBusts() * perHand));
+            }
+            sb.append(String.format("%nMatchups (edge = first minus second, units per shoe, 95%%)%n"));
+            for (Matchup m : matchups) {
+                sb.append(m).append(String.format("%n"));
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Runs a tournament between stand-on-N strategies.
+     * Usage: Tournament rounds tables [seed] [threads] [standOn...]
+     */
+    public static void main(String[] args) throws Exception {
+        long rounds = Long.parseLong(args[0]);
+        int tables = Integer.parseInt(args[1]);
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        List<Strategy> strategies = new ArrayList<>();
+        for (int i = 4; i < args.length; i++) {
+            strategies.add(new ThresholdStrategy(Integer.parseInt(args[i])));
+        }
+        if (strategies.isEmpty()) {
+            for (int standOn = 12; standOn <= 18; standOn++) {
+                strategies.add(new ThresholdStrategy(standOn));
+            }
+        }
+
+        long start = System.nanoTime();
+        Result result = new Tournament(strategies, threads).run(seed, tables, rounds);
+        System.out.print(result);
+        System.out.printf("%.2f s on %d threads%n", (System.nanoTime() - start) / 1e9, threads);
+    }
+}
@@ -0,0 +1,118 @@
+package blackjack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that the treap-backed shuffling machine never loses, duplicates
+ * or invents a card: a fresh machine deals every card exactly once, and
+ * cards dealt and discarded in any order are always accounted for.
+ * Run: java blackjack.ContinuousShuffleDeckTest
+ */
+public class ContinuousShuffleDeckTest {
+
+    public static void main(String[] args) {
+        dealsEveryCardOnce();
+        conservesCardsAcrossDealsAndDiscards();
+        restoresTheSameOrder();
+        System.out.println("ContinuousShuffleDeckTest passed");
+    }
+
+    /**
+     * Emptying a fresh machine deals each card once per deck loaded.
+     */
+    private static void dealsEveryCardOnce() {
+        for (int decks = 1; decks <= 8; decks++) {
+            ContinuousShuffleDeck machine = new ContinuousShuffleDeck(decks, decks);
+            int[] dealt = new int[Card.DECK_SIZE];
+            for (int i = decks * Card.DECK_SIZE; i > 0; i--) {
+                check(machine.size() == i, "size " + machine.size() + " with " + i + " cards left");
+                dealt[machine.dealCard().getCode()]++;
+            }
+            for (int code = 0; code < Card.DECK_SIZE; code++) {
+                check(dealt[code] == decks, "card " + code + " dealt " + dealt[code] + " times from " + decks + " decks");
+            }
+            for (int count : machine.getComposition()) {
+                check(count == 0, "empty machine reports cards");
+            }
+        }
+    }
+
+    /**
+     * Random deals and discards, tree rebuilds by shuffle() included:
+     * the machine plus the cards out always make up whole decks, and the
+     * machine's size and composition agree with its contents.
+     */
+    private static void conservesCardsAcrossDealsAndDiscards() {
+        int decks = 2;
+        ContinuousShuffleDeck machine = new ContinuousShuffleDeck(decks, 11);
+        Random random = new Random(5);
+        List<Card> out = new ArrayList<>();
+        for (int step = 0; step < 200_000; step++) {
+            int action = random.nextInt(10);
+            if (action < 5 && machine.size() > 0) {
+                out.add(machine.dealCard());
+            } else if (action < 9 && !out.isEmpty()) {
+                int count = 1 + random.nextInt(Math.min(out.size(), 12)); // About a round's worth
+                List<Card> round = new ArrayList<>();
+                for (int i = 0; i < count; i++) {
+                    round.add(out.remove(random.nextInt(out.size())));
+                }
+                machine.discard(round);
+            } else {
+                machine.shuffle();
+            }
+            if (step % 997 == 0) {
+                checkAccounted(machine, out, decks, step);
+            }
+        }
+        checkAccounted(machine, out, decks, -1);
+    }
+
+    /**
+     * A machine rebuilt from its checkpointed contents and random state
+     * deals and shuffles in cards exactly like the original.
+     */
+    private static void restoresTheSameOrder() {
+        ContinuousShuffleDeck machine = new ContinuousShuffleDeck(6, 3);
+        List<Card> hand = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            hand.add(machine.dealCard());
+        }
+        machine.discard(hand.subList(0, 20));
+        ContinuousShuffleDeck copy = new ContinuousShuffleDeck(6, machine.getRemainingCards(), machine.getShuffleSeed());
+        List<Card> rest = hand.subList(20, 40);
+        machine.discard(rest);
+        copy.discard(rest);
+        while (machine.size() > 0) {
+            check(machine.dealCard().getCode() == copy.dealCard().getCode(), "restored machine deals differently");
+        }
+        check(copy.size() == 0, "restored machine has extra cards");
+    }
+
+    private static void checkAccounted(ContinuousShuffleDeck machine, List<Card> out, int decks, int step) {
+        List<Card> inside = machine.getRemainingCards();
+        check(inside.size() == machine.size(), "size disagrees with contents at step " + step);
+        int[] byCode = new int[Card.DECK_SIZE];
+        int[] byValue = new int[12];
+        for (Card card : inside) {
+            byCode[card.getCode()]++;
+            byValue[card.getValue()]++;
+        }
+        check(Arrays.equals(byValue, machine.getComposition()), "composition disagrees at step " + step);
+        for (Card card : out) {
+            byCode[card.getCode()]++;
+        }
+        for (int code = 0; code < Card.DECK_SIZE; code++) {
+            check(byCode[code] == decks, "card " + code + " appears " + byCode[code] + " times at step " + step);
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package blackjack;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Checks that a checkpoint taken at any point of play restores a game
+ * that carries on exactly like the original, and that damaged or
+ * inconsistent checkpoints are rejected before a Game is built.
+ * Run: java blackjack.GameCheckpointTest
+ */
+public class GameCheckpointTest {
+    private static final long SEED = 7;
+    private static final int SEATS = 3;
+    private static final int STATE_AT = 3; // Offset of the state byte
+    private static final int SEAT_AT = 4;  // Offset of the active seat int
+    private static final int SHOE_AT = 24; // Offset of the shoe's deck count, then its flags
+
+    public static void main(String[] args) {
+        roundTripsAtEveryDecision();
+        roundTripsContinuousShuffler();
+        keepsShoeSize();
+        readsVersion3Shoes();
+        rejectsInconsistentTurn();
+        rejectsDamagedBlobs();
+        System.out.println("GameCheckpointTest passed");
+    }
+
+    /**
+     * Restoring at each decision, then playing both games the same way,
+     * gives the same cards and results through the next round.
+     */
+    private static void roundTripsAtEveryDecision() {
+        int decks = Deck.decksFor(SEATS);
+        Game game = new Game(Simulator.seatNames(SEATS), Simulator.seededShoes(SEED, 0, decks));
+        Strategy strategy = new ThresholdStrategy(16);
+        for (int round = 0; round < 200; round++) {
+            while (game.getState() == Game.GameState.PLAYER_TURN) {
+                byte[] blob = GameCheckpoint.save(game);
+                Game copy = GameCheckpoint.restore(blob, Simulator.seededShoes(SEED, game.getRoundNumber() + 1, decks));
+                check(Arrays.equals(GameCheckpoint.save(copy), blob), "re-saved checkpoint differs in round " + round);
+                check(copy.getActingSeat() == game.getActingSeat(), "acting seat differs in round " + round);
+                Game twin = GameCheckpoint.restore(blob, Simulator.seededShoes(SEED, game.getRoundNumber() + 1, decks));
+                playOn(copy, strategy);
+                playOn(twin, strategy);
+                check(Arrays.equals(GameCheckpoint.save(copy), GameCheckpoint.save(twin)), "restored games diverged");
+                step(game, strategy);
+            }
+            byte[] over = GameCheckpoint.save(game);
+            Game copy = GameCheckpoint.restore(over, Simulator.seededShoes(SEED, game.getRoundNumber() + 1, decks));
+            check(copy.getState() == Game.GameState.GAME_OVER, "finished round restored as " + copy.getState());
+            check(copy.determineWinners().equals(game.determineWinners()), "winners differ in round " + round);
+            game.nextRound();
+            copy.nextRound();
+            check(Arrays.equals(GameCheckpoint.save(copy), GameCheckpoint.save(game)), "next round differs after " + round);
+        }
+    }
+
+    /**
+     * A game fed by a continuous shuffler restores with the machine's
+     * contents and random state, so the next cards match.
+     */
+    private static void roundTripsContinuousShuffler() {
+        ContinuousShuffleDeck machine = new ContinuousShuffleDeck(2, SEED);
+        Game game = new Game(Simulator.seatNames(SEATS), () -> machine);
+        Strategy strategy = new ThresholdStrategy(17);
+        for (int round = 0; round < 50; round++) {
+            Simulator.playSeats(game, strategy);
+            game.nextRound();
+        }
+        byte[] blob = GameCheckpoint.save(game);
+        Game copy = GameCheckpoint.restore(blob, null);
+        check(copy.getDeck().isContinuous(), "shuffler restored as a discrete deck");
+        for (int round = 0; round < 50; round++) {
+            Simulator.playSeats(game, strategy);
+            Simulator.playSeats(copy, strategy);
+            check(copy.determineWinners().equals(game.determineWinners()), "shuffler games diverged");
+            game.nextRound();
+            copy.nextRound();
+        }
+    }
+
+    /**
+     * A shoe with less than a deck left comes back with the decks it was
+     * built with, so running out refills it to full size.
+     */
+    private static void keepsShoeSize() {
+        Game game = new Game(Simulator.seatNames(1), Simulator.seededShoes(SEED, 0, 2));
+        byte[] full = GameCheckpoint.save(game);
+        full[SHOE_AT] = 1;
+        check(rejected(full), "more cards than the shoe's decks hold accepted");
+        List<Card> left = game.getDeck().getRemainingCards();
+        while (left.size() > 40) {
+            game.getDeck().dealCard();
+        }
+        Game copy = GameCheckpoint.restore(GameCheckpoint.save(game), Simulator.seededShoes(SEED, 1, 2));
+        Deck deck = copy.getDeck();
+        check(deck.getDecks() == 2, "two-deck shoe restored as " + deck.getDecks());
+        for (int i = 0; i <= 40; i++) {
+            deck.dealCard();
+        }
+        check(deck.getRemainingCards().size() == 2 * Card.DECK_SIZE - 1, "refill was " + deck.getRemainingCards().size());
+
+        byte[] blob = GameCheckpoint.save(game);
+        blob[SHOE_AT] = 0;
+        check(rejected(blob), "shoe of no decks accepted");
+        blob = GameCheckpoint.save(game);
+        blob[SHOE_AT + 1] = 2;
+        check(rejected(blob), "unknown shoe flag accepted");
+    }
+
+    /**
+     * Version 3 stored one shoe byte, 0 for a discrete deck; such blobs
+     * still restore, the deck counting as the fewest decks holding its cards.
+     */
+    private static void readsVersion3Shoes() {
+        Game game = new Game(Simulator.seatNames(SEATS), Simulator.seededShoes(SEED, 0, Deck.decksFor(SEATS)));
+        byte[] blob = GameCheckpoint.save(game);
+        byte[] old = new byte[blob.length - 1];
+        System.arraycopy(blob, 0, old, 0, SHOE_AT + 1);
+        System.arraycopy(blob, SHOE_AT + 2, old, SHOE_AT + 1, blob.length - SHOE_AT - 2);
+        old[2] = 3;
+        old[SHOE_AT] = 0;
+        Game copy = GameCheckpoint.restore(old);
+        check(Arrays.equals(GameCheckpoint.save(copy), blob), "version 3 checkpoint restored differently");
+    }
+
+    /**
+     * An active seat that doesn't fit the state is refused, not left to
+     * fail on the first action.
+     */
+    private static void rejectsInconsistentTurn() {
+        Game game = new Game(Simulator.seatNames(SEATS), Simulator.seededShoes(SEED, 0, Deck.decksFor(SEATS)));
+        game.playerStand(); // Seat 1 is now deciding; seat 0 has stood
+        byte[] blob = GameCheckpoint.save(game);
+        GameCheckpoint.restore(blob); // The unpatched blob is fine
+
+        check(rejected(withSeat(blob, -1)), "negative seat accepted");
+        check(rejected(withSeat(blob, SEATS + 1)), "seat past the table accepted");
+        check(rejected(withSeat(blob, SEATS)), "no active seat during the players' turns accepted");
+        check(rejected(withSeat(blob, 0)), "seat that already stood made active");
+        byte[] over = blob.clone();
+        over[STATE_AT] = (byte) Game.GameState.GAME_OVER.ordinal();
+        check(rejected(over), "finished round with an active seat accepted");
+        byte[] unknown = blob.clone();
+        unknown[STATE_AT] = (byte) Game.GameState.values().length;
+        check(rejected(unknown), "unknown state accepted");
+    }
+
+    /**
+     * Truncating a checkpoint anywhere is rejected; changing any byte is
+     * either rejected or restores a game, never another exception.
+     */
+    private static void rejectsDamagedBlobs() {
+        Game game = new Game(Simulator.seatNames(SEATS), Simulator.seededShoes(SEED, 0, Deck.decksFor(SEATS)));
+        game.playerHit();
+        byte[] blob = GameCheckpoint.save(game);
+        for (int length = 0; length < blob.length; length++) {
+            check(rejected(Arrays.copyOf(blob, length)), "checkpoint cut to " + length + " bytes accepted");
+        }
+        for (int at = 0; at < blob.length; at++) {
+            for (int bit = 0; bit < 8; bit++) {
+                byte[] damaged = blob.clone();
+                damaged[at] ^= 1 << bit;
+                rejected(damaged); // Throws AssertionError on anything but IllegalArgumentException
+            }
+        }
+    }
+
+    /** Plays one decision for the current seat. */
+    private static void step(Game game, Strategy strategy) {
+        Card upcard = game.getDealer().getHand().getCards().get(0);
+        if (strategy.shouldHit(game.getCurrentPlayer().getHand(), upcard)) {
+            game.playerHit();
+        } else {
+            game.playerStand();
+        }
+    }
+
+    /** Finishes the round, then plays one more. */
+    private static void playOn(Game game, Strategy strategy) {
+        Simulator.playSeats(game, strategy);
+        game.nextRound();
+        Simulator.playSeats(game, strategy);
+    }
+
+    private static byte[] withSeat(byte[] blob, int seat) {
+        byte[] patched = blob.clone();
+        for (int i = 0; i < 4; i++) {
+            patched[SEAT_AT + i] = (byte) (seat >>> (24 - 8 * i));
+        }
+        return patched;
+    }
+
+    /**
+     * @return true if restoring throws IllegalArgumentException, false if it succeeds
+     * @throws AssertionError If it fails any other way
+     */
+    private static boolean rejected(byte[] blob) {
+        try {
+            GameCheckpoint.restore(blob);
+            return false;
+        } catch (IllegalArgumentException e) {
+            return true;
+        } catch (RuntimeException e) {
+            throw new AssertionError("damaged checkpoint failed with " + e, e);
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package blackjack;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.Deflater;
+
+/**
+ * Checks that hand histories read back exactly as written, that damaged
+ * files are rejected promptly instead of hanging the reader, and that a
+ * failing writer never throws into the game.
+ * Run: java blackjack.HandHistoryTest
+ */
+public class HandHistoryTest {
+    private static final ExecutorService RUNNER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "hand-history-test");
+        thread.setDaemon(true); // A hung read must not keep the JVM alive
+        return thread;
+    });
+
+    public static void main(String[] args) throws Exception {
+        Path file = Files.createTempFile("hands", ".bjhh");
+        try {
+            List<RoundResult> rounds = HandIndexTest.play(3_000, 3);
+            try (HandHistoryWriter writer = new HandHistoryWriter(file, 1_000, true)) {
+                rounds.forEach(writer::roundCompleted);
+            }
+            readsBackWhatWasWritten(file, rounds);
+            rejectsTruncatedColumn();
+            rejectsDamagedFiles(file);
+            writerFailureStaysOutOfTheGame(rounds);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        System.out.println("HandHistoryTest passed");
+    }
+
+    /**
+     * Every row comes back with the values of its seat.
+     */
+    private static void readsBackWhatWasWritten(Path file, List<RoundResult> rounds) throws IOException {
+        try (HandHistoryReader reader = new HandHistoryReader(file)) {
+            check(reader.getRowCount() == 9_000, "row count " + reader.getRowCount());
+            check(reader.getRowGroupCount() == 9, "group count " + reader.getRowGroupCount());
+            int r = 0;
+            int s = 0;
+            for (int g = 0; g < reader.getRowGroupCount(); g++) {
+                HandHistoryReader.RowGroup group = reader.readRowGroup(g);
+                for (int row = 0; row < group.size(); row++) {
+                    RoundResult round = rounds.get(r);
+                    RoundResult.Seat seat = round.getSeats().get(s);
+                    check(group.getRound(row) == round.getRoundNumber()
+                          && group.getSeat(row) == seat.getIndex()
+                          && group.getFirstCard(row) == seat.getFirstCard()
+                          && group.getSecondCard(row) == seat.getSecondCard()
+                          && group.getActions(row).equals(seat.getActions())
+                          && group.getDealerUpcard(row) == round.getDealerUpcard()
+                          && group.getTotal(row) == seat.getTotal()
+                          && group.getDealerTotal(row) == round.getDealerTotal()
+                          && group.getOutcome(row) == seat.getOutcome()
+                          && group.getPayout(row) == seat.getPayout(),
+                          "row " + row + " of group " + g + " differs from round " + round.getRoundNumber());
+                    if (++s == round.getSeats().size()) {
+                        s = 0;
+                        r++;
+                    }
+                }
+            }
+            check(r == rounds.size(), "rows for " + r + " of " + rounds.size() + " rounds");
+        }
+    }
+
+    /**
+     * A column cut short inside its deflate stream used to spin forever.
+     */
+    private static void rejectsTruncatedColumn() throws Exception {
+        byte[] raw = new byte[1_000];
+        Arrays.fill(raw, (byte) 7);
+        Deflater deflater = new Deflater();
+        deflater.setInput(raw);
+        deflater.finish();
+        byte[] compressed = new byte[2_000];
+        int length = deflater.deflate(compressed);
+        deflater.end();
+
+        for (int cut = 0; cut < length; cut++) {
+            int[] rawLengths = new int[HandHistoryWriter.COLUMN_COUNT];
+            byte[][] chunks = new byte[HandHistoryWriter.COLUMN_COUNT][];
+            Arrays.fill(rawLengths, raw.length);
+            Arrays.fill(chunks, Arrays.copyOf(compressed, cut));
+            HandHistoryReader.RowGroup group = new HandHistoryReader.RowGroup(raw.length, rawLengths, chunks);
+            check(rejects(() -> group.getFirstCard(0)), "column cut to " + cut + " of " + length + " bytes accepted");
+        }
+    }
+
+    /**
+     * Truncating the file anywhere is reported as an error when the file
+     * is opened or read. So is changing any byte of a row group, unless
+     * the change lands in bits the format ignores (the padding after a
+     * column's final deflate block) and every value still reads back
+     * unchanged.
+     */
+    private static void rejectsDamagedFiles(Path file) throws Exception {
+        byte[] good = Files.readAllBytes(file);
+        String values = readAll(file);
+        Path damaged = Files.createTempFile("damaged", ".bjhh");
+        try {
+            for (int length = 0; length < good.length; length += 97) {
+                Files.write(damaged, Arrays.copyOf(good, length));
+                check(rejects(() -> readAll(damaged)), "file cut to " + length + " bytes accepted");
+            }
+            long firstGroupEnd;
+            try (HandHistoryReader reader = new HandHistoryReader(file)) {
+                firstGroupEnd = reader.getRowGroupCount() > 1 ? groupOffset(good, 1) : good.length;
+            }
+            for (int at = HandHistoryWriter.MAGIC.length + 1; at < firstGroupEnd; at++) {
+                byte[] bytes = good.clone();
+                bytes[at] ^= 0x5A;
+                Files.write(damaged, bytes);
+                int position = at;
+                String read = read(() -> readAll(damaged));
+                check(read == null || read.equals(values), "byte " + position + " changed, file accepted");
+            }
+        } finally {
+            Files.deleteIfExists(damaged);
+        }
+    }
+
+    /**
+     * Write errors stop the writer and surface from close(), never from
+     * roundCompleted().
+     */
+    private static void writerFailureStaysOutOfTheGame(List<RoundResult> rounds) throws Exception {
+        OutputStream failing = new OutputStream() {
+            private int written;
+
+            @Override
+            public void write(int b) throws IOException {
+                if (++written > 10_000) {
+                    throw new IOException("disk full");
+                }
+            }
+        };
+        HandHistoryWriter writer = new HandHistoryWriter(failing, 100, false);
+        for (int i = 0; i < 20; i++) {
+            rounds.forEach(writer::roundCompleted); // Must not throw
+        }
+        check(writer.getFailure() != null, "failure not recorded");
+        try {
+            writer.close();
+            throw new AssertionError("close() hid the failure");
+        } catch (IOException e) {
+            // Expected: "disk full", or the writer falling behind if the game side outran it first
+        }
+    }
+
+    /** @return Offset of a row group, read from the footer */
+    private static long groupOffset(byte[] file, int group) {
+        int footer = (int) readLong(file, file.length - 8 - HandHistoryWriter.MAGIC.length);
+        return readLong(file, footer + 4 + 8 * group);
+    }
+
+    private static long readLong(byte[] bytes, int at) {
+        long v = 0;
+        for (int i = 0; i < 8; i++) {
+            v = (v << 8) | (bytes[at + i] & 0xFF);
+        }
+        return v;
+    }
+
+    /**
+     * Opens a file and reads every column of every row group.
+     * @return Every value, one row per line
+     */
+    private static String readAll(Path file) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        try (HandHistoryReader reader = new HandHistoryReader(file)) {
+            for (int g = 0; g < reader.getRowGroupCount(); g++) {
+                HandHistoryReader.RowGroup group = reader.readRowGroup(g);
+                for (int row = 0; row < group.size(); row++) {
+                    sb.append(group.getRound(row)).append(' ')
+                      .append(group.getSeat(row)).append(' ')
+                      .append(group.getFirstCard(row)).append(' ')
+                      .append(group.getSecondCard(row)).append(' ')
+                      .append(group.getActions(row)).append(' ')
+                      .append(group.getDealerUpcard(row)).append(' ')
+                      .append(group.getTotal(row)).append(' ')
+                      .append(group.getDealerTotal(row)).append(' ')
+                      .append(group.getOutcome(row)).append(' ')
+                      .append(group.getPayout(row)).append('\n');
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return true if the read fails with an IOException or IllegalStateException
+     * @throws AssertionError If it takes more than five seconds (hangs)
+     */
+    private static boolean rejects(Callable<?> read) throws Exception {
+        return read(read) == null;
+    }
+
+    /**
+     * @return What the read returned, or null if it failed with an
+     *         IOException or IllegalStateException
+     * @throws AssertionError If it takes more than five seconds (hangs)
+     */
+    private static <T> T read(Callable<T> read) throws Exception {
+        Future<T> result = RUNNER.submit(read);
+        try {
+            T value = result.get(5, TimeUnit.SECONDS);
+            if (value == null) {
+                throw new AssertionError("read returned nothing");
+            }
+            return value;
+        } catch (TimeoutException e) {
+            throw new AssertionError("reader hung on damaged input");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException || cause instanceof IllegalStateException) {
+                return null;
+            }
+            throw new AssertionError("damaged input failed with " + cause, cause);
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package blackjack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checks HandIndex against a row-by-row count, and that queries running
+ * during appends never miss rows. Run: java blackjack.HandIndexTest
+ */
+public class HandIndexTest {
+
+    public static void main(String[] args) throws Exception {
+        matchesRowScan();
+        countsDuringAppends();
+        capKeepsNewestRows();
+        System.out.println("HandIndexTest passed");
+    }
+
+    /**
+     * Every query dimension, alone and combined, agrees with counting
+     * the recorded rounds directly.
+     */
+    private static void matchesRowScan() {
+        List<RoundResult> rounds = play(40_000, 3); // 120,000 rows: one sealed segment and an open one
+        HandIndex index = new HandIndex();
+        rounds.forEach(index::roundCompleted);
+        check(index.size() == 120_000, "size " + index.size());
+
+        List<Filter> filters = new ArrayList<>();
+        filters.add(new Filter(0, 0, null, null, null));
+        for (int upcard = 2; upcard <= 11; upcard++) {
+            filters.add(new Filter(upcard, 0, null, null, null));
+        }
+        for (int total = 4; total <= 21; total++) {
+            filters.add(new Filter(0, total, false, null, null));
+            filters.add(new Filter(0, total, true, true, null));
+        }
+        for (Game.Outcome outcome : Game.Outcome.values()) {
+            filters.add(new Filter(10, 0, null, false, outcome));
+        }
+        for (Filter filter : filters) {
+            HandIndex.Query query = filter.toQuery();
+            long[] expected = scan(rounds, filter);
+            HandIndex.Result result = index.query(query);
+            check(result.getWins() == expected[0] && result.getLosses() == expected[1]
+                  && result.getPushes() == expected[2],
+                  query + ": index " + result + ", scan " + Arrays.toString(expected));
+        }
+    }
+
+    /**
+     * Readers query while a writer appends across segment boundaries;
+     * every count must include at least the rows added before the query
+     * began and at most those added by the time it returned, plus the
+     * round the writer may be in the middle of.
+     */
+    private static void countsDuringAppends() throws Exception {
+        List<RoundResult> rounds = play(2_000, 4);
+        HandIndex index = new HandIndex();
+        AtomicLong added = new AtomicLong();
+        AtomicBoolean done = new AtomicBoolean();
+        List<String> failures = new ArrayList<>();
+
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 250_000; i++) { // 1,000,000 rows, 15 segments sealed mid-query
+                index.roundCompleted(rounds.get(i % rounds.size()));
+                added.addAndGet(4);
+            }
+            done.set(true);
+        });
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 2; r++) {
+            readers.add(new Thread(() -> {
+                while (!done.get()) {
+                    long before = added.get();
+                    long hands = index.query(HandIndex.Query.all()).getHands();
+                    long after = added.get();
+                    if (hands < before || hands > after + 4) {
+                        synchronized (failures) {
+                            failures.add(hands + " rows, expected " + before + ".." + (after + 4));
+                        }
+                    }
+                }
+            }));
+        }
+        readers.forEach(Thread::start);
+        writer.start();
+        writer.join();
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        check(failures.isEmpty(), "query missed rows: " + failures);
+        check(index.query(HandIndex.Query.all()).getHands() == 1_000_000, "final count");
+    }
+
+    /**
+     * A capped index drops whole segments, oldest first.
+     */
+    private static void capKeepsNewestRows() {
+        List<RoundResult> rounds = play(1_000, 4);
+        HandIndex index = new HandIndex(4L * HandIndex.SEGMENT_ROWS);
+        for (int i = 0; i < 200_000; i++) { // 800,000 rows
+            index.roundCompleted(rounds.get(i % rounds.size()));
+        }
+        check(index.size() <= 4L * HandIndex.SEGMENT_ROWS, "cap exceeded: " + index.size());
+        check(index.size() + index.getDropped() == 800_000, "rows lost: " + index.size() + " + " + index.getDropped());
+        check(index.query(HandIndex.Query.all()).getHands() == index.size(), "query disagrees with size");
+    }
+
+    /**
+     * @return Results of playing rounds at basic-threshold strategy
+     */
+    static List<RoundResult> play(int count, int seats) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < seats; i++) {
+            names.add("P" + i);
+        }
+        List<RoundResult> results = new ArrayList<>();
+        Game game = new Game(names, Simulator.seededShoes(1, 0, Deck.decksFor(seats)));
+        game.addRoundListener(results::add);
+        Strategy strategy = new ThresholdStrategy(17);
+        while (results.size() < count) {
+            game.reset();
+            while (game.getState() == Game.GameState.PLAYER_TURN) {
+                Hand hand = game.getCurrentPlayer().getHand();
+                if (strategy.shouldHit(hand, game.getDealer().getHand().getCards().get(0))) {
+                    game.playerHit();
+                } else {
+                    game.playerStand();
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @return Wins, losses and pushes among the rows matching a filter, counted one by one
+     */
+    private static long[] scan(List<RoundResult> rounds, Filter filter) {
+        long[] counts = new long[3];
+        for (RoundResult round : rounds) {
+            int upcard = Card.valueOfCode(round.getDealerUpcard());
+            for (RoundResult.Seat seat : round.getSeats()) {
+                int first = Card.valueOfCode(seat.getFirstCard());
+                int second = Card.valueOfCode(seat.getSecondCard());
+                int total = first + second > 21 ? 12 : first + second; // Pair of aces
+                boolean soft = first == 11 || second == 11;
+                boolean hit = seat.getActions().startsWith("H");
+                if (filter.matches(upcard, total, soft, hit, seat.getOutcome())) {
+                    counts[seat.getOutcome().ordinal()]++;
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * A query's conditions, checkable against a single row.
+     */
+    private static final class Filter {
+        final int upcard;            // 0 for any
+        final int total;             // 0 for any
+        final Boolean soft;          // null for any
+        final Boolean hit;           // null for any
+        final Game.Outcome outcome;  // null for any
+
+        Filter(int upcard, int total, Boolean soft, Boolean hit, Game.Outcome outcome) {
+            this.upcard = upcard;
+            this.total = total;
+            this.soft = soft;
+            this.hit = hit;
+            this.outcome = outcome;
+        }
+
+        HandIndex.Query toQuery() {
+            HandIndex.Query query = HandIndex.Query.all();
+            if (upcard != 0) query.upcard(upcard);
+            if (total != 0) query.startingTotal(total);
+            if (soft != null) query.soft(soft);
+            if (hit != null) query.hit(hit);
+            if (outcome != null) query.outcome(outcome);
+            return query;
+        }
+
+        boolean matches(int rowUpcard, int rowTotal, boolean rowSoft, boolean rowHit, Game.Outcome rowOutcome) {
+            return (upcard == 0 || upcard == rowUpcard)
+                && (total == 0 || total == rowTotal)
+                && (soft == null || soft == rowSoft)
+                && (hit == null || hit == rowHit)
+                && (outcome == null || outcome == rowOutcome);
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package blackjack;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks that every board's top K is exactly what sorting all players
+ * gives: after players are turned away without the lock or evicted and
+ * the members then fall below them, and after many tables on several
+ * threads feed one leaderboard at once.
+ * Run: java blackjack.LeaderboardTest
+ */
+public class LeaderboardTest {
+    private static final int TOP = 5;
+    private static final int THREADS = 4;
+    private static final int TABLES_PER_THREAD = 40;
+    private static final int SEATS = 3;
+    private static final int ROUNDS = 400; // Every player passes MIN_HANDS_FOR_RATE
+
+    public static void main(String[] args) throws InterruptedException {
+        membersFallingBelowOutsiders();
+        multiThreadedMatchesFullSort();
+        System.out.println("LeaderboardTest passed");
+    }
+
+    /**
+     * A one-place board (two kept): C is turned away on the lock-free
+     * path, B is evicted by D, then the two members lose. B and C, who
+     * never play again, now lead.
+     */
+    private static void membersFallingBelowOutsiders() {
+        Leaderboard board = new Leaderboard(1);
+        List<RoundResult> rounds = new ArrayList<>();
+        hands(rounds, "A", Game.Outcome.WIN, 3);
+        hands(rounds, "B", Game.Outcome.WIN, 2);
+        hands(rounds, "C", Game.Outcome.WIN, 1); // At most the lowest score: rejected without the lock
+        hands(rounds, "D", Game.Outcome.WIN, 4); // Passes B on its third win and evicts it
+        rounds.forEach(board::roundCompleted);
+        checkTop(board, 1, rounds);
+        check(board.getTop(Leaderboard.Metric.NET_WINNINGS).get(0).getName().equals("D"), "D not leading");
+
+        List<RoundResult> more = new ArrayList<>();
+        hands(more, "A", Game.Outcome.LOSE, 6);
+        hands(more, "D", Game.Outcome.LOSE, 6);
+        more.forEach(board::roundCompleted);
+        rounds.addAll(more);
+        checkTop(board, 1, rounds);
+        check(board.getTop(Leaderboard.Metric.NET_WINNINGS).get(0).getName().equals("B"), "B not back in the lead");
+
+        List<RoundResult> tie = new ArrayList<>();
+        hands(tie, "E", Game.Outcome.WIN, 2); // Ties B: rejected on score, but ranks above on name
+        hands(tie, "E", Game.Outcome.PUSH, 1);
+        tie.forEach(board::roundCompleted);
+        rounds.addAll(tie);
+        checkTop(board, 1, rounds);
+    }
+
+    /**
+     * Several threads play their own tables into one leaderboard; once
+     * they finish, each board's top K matches sorting every player.
+     */
+    private static void multiThreadedMatchesFullSort() throws InterruptedException {
+        Leaderboard board = new Leaderboard(TOP);
+        List<List<RoundResult>> byThread = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            List<RoundResult> results = new ArrayList<>();
+            byThread.add(results);
+            int thread = t;
+            threads.add(new Thread(() -> play(board, thread, results), "leaderboard-test-" + t));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        List<RoundResult> all = new ArrayList<>();
+        byThread.forEach(all::addAll);
+        check(board.getRounds() == (long) THREADS * TABLES_PER_THREAD * ROUNDS, "rounds " + board.getRounds());
+        check(board.getPlayerCount() == THREADS * TABLES_PER_THREAD * SEATS, "players " + board.getPlayerCount());
+        checkTop(board, TOP, all);
+    }
+
+    /**
+     * One thread's tables, taking turns so they are all live at once.
+     */
+    private static void play(Leaderboard board, int thread, List<RoundResult> results) {
+        List<Game> games = new ArrayList<>();
+        List<List<Strategy>> strategies = new ArrayList<>();
+        for (int i = 0; i < TABLES_PER_THREAD; i++) {
+            int table = thread * TABLES_PER_THREAD + i;
+            List<String> names = new ArrayList<>();
+            List<Strategy> bySeat = new ArrayList<>();
+            for (int s = 0; s < SEATS; s++) {
+                names.add("T" + table + "-S" + s);
+                bySeat.add(new ThresholdStrategy(12 + (table * SEATS + s) % 7));
+            }
+            Game game = new Game(names, Simulator.seededShoes(table, 0, Deck.decksFor(SEATS)));
+            game.addRoundListener(board);
+            game.addRoundListener(results::add);
+            games.add(game);
+            strategies.add(bySeat);
+        }
+        for (int r = 0; r < ROUNDS; r++) {
+            for (int i = 0; i < games.size(); i++) {
+                Simulator.playSeats(games.get(i), strategies.get(i));
+                games.get(i).nextRound();
+            }
+        }
+    }
+
+    /**
+     * Compares every metric's top K with sorting all players' totals
+     * from the results: best score first, then name.
+     */
+    private static void checkTop(Leaderboard board, int top, List<RoundResult> rounds) {
+        Map<String, long[]> totals = new HashMap<>(); // hands, wins, net, streak, best streak
+        for (RoundResult round : rounds) {
+            for (RoundResult.Seat seat : round.getSeats()) {
+                long[] t = totals.computeIfAbsent(seat.getName(), k -> new long[5]);
+                t[0]++;
+                t[2] += seat.getPayout();
+                if (seat.getOutcome() == Game.Outcome.WIN) {
+                    t[1]++;
+                    t[4] = Math.max(t[4], ++t[3]);
+                } else {
+                    t[3] = 0;
+                }
+            }
+        }
+        for (Leaderboard.Metric metric : Leaderboard.Metric.values()) {
+            List<String> names = new ArrayList<>();
+            Map<String, Double> scores = new HashMap<>();
+            for (Map.Entry<String, long[]> e : totals.entrySet()) {
+                long[] t = e.getValue();
+                double score = metric == Leaderboard.Metric.NET_WINNINGS ? t[2]
+                    : metric == Leaderboard.Metric.BEST_STREAK ? t[4]
+                    : t[0] < Leaderboard.MIN_HANDS_FOR_RATE ? Double.NaN : (double) t[1] / t[0];
+                if (!Double.isNaN(score)) {
+                    names.add(e.getKey());
+                    scores.put(e.getKey(), score);
+                }
+            }
+            names.sort(Comparator.comparing((String name) -> scores.get(name)).reversed()
+                                 .thenComparing(Comparator.naturalOrder()));
+            List<String> expected = names.subList(0, Math.min(names.size(), top));
+            List<String> got = new ArrayList<>();
+            for (Leaderboard.Entry entry : board.getTop(metric)) {
+                got.add(entry.getName());
+                check(entry.getScore() == scores.get(entry.getName()), metric + ": stale score for " + entry);
+                check(entry.getHands() == totals.get(entry.getName())[0], metric + ": hands for " + entry);
+            }
+            check(got.equals(expected), metric + ": board " + got + ", full sort " + expected);
+        }
+    }
+
+    /** Adds count one-seat rounds in which a player gets the outcome. */
+    private static void hands(List<RoundResult> rounds, String name, Game.Outcome outcome, int count) {
+        for (int i = 0; i < count; i++) {
+            RoundResult.Seat seat = new RoundResult.Seat(0, name, 0, 1, "S", 18, false, outcome);
+            rounds.add(new RoundResult(rounds.size(), 0, 18, false, Collections.singletonList(seat)));
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
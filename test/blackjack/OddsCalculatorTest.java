@@ -0,0 +1,183 @@
+package blackjack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Checks OddsCalculator's exact figures against playing the same
+ * position out many times with the real Game and Dealer: bust
+ * probability, the EV of standing, and the EV of hitting and then
+ * following the calculator's own advice.
+ * Run: java blackjack.OddsCalculatorTest
+ */
+public class OddsCalculatorTest {
+    private static final int TRIALS = 100_000; // Per position and decision
+    private static final double TOLERANCE = 4.5; // Standard errors allowed
+
+    public static void main(String[] args) {
+        // Player's two cards and the dealer's upcard, as Blackjack values
+        check(new int[] {10, 6}, 10);
+        check(new int[] {11, 6}, 7);
+        check(new int[] {10, 2}, 4);
+        check(new int[] {5, 4}, 11);
+        check(new int[] {10, 10}, 6);
+        System.out.println("OddsCalculatorTest passed");
+    }
+
+    private static void check(int[] playerValues, int upcardValue) {
+        Position position = new Position(playerValues, upcardValue);
+        OddsCalculator.Odds odds = OddsCalculator.compute(position.total(), position.soft(), upcardValue,
+                                                          position.unseen());
+        Random random = new Random(upcardValue * 31L + playerValues[0] * 7L + playerValues[1]);
+        Map<String, Boolean> advice = new HashMap<>();
+
+        Sample stand = new Sample();
+        Sample hit = new Sample();
+        Sample bust = new Sample();
+        for (int i = 0; i < TRIALS; i++) {
+            Game game = position.deal(random);
+            game.playerStand();
+            stand.add(payout(game));
+
+            game = position.deal(random);
+            game.playerHit();
+            bust.add(game.getPlayers().get(0).isBusted() ? 1 : 0);
+            while (game.getState() == Game.GameState.PLAYER_TURN) {
+                if (shouldHit(game, upcardValue, advice)) {
+                    game.playerHit();
+                } else {
+                    game.playerStand();
+                }
+            }
+            hit.add(payout(game));
+        }
+        String where = Arrays.toString(playerValues) + " vs " + upcardValue;
+        agree(where + " bust", odds.getBustProbability(), bust);
+        agree(where + " stand EV", odds.getStandEv(), stand);
+        agree(where + " hit EV", odds.getHitEv(), hit);
+    }
+
+    /**
+     * @return Whether the calculator says hitting beats standing for the
+     *         current hand and unseen cards (memoized per position)
+     */
+    private static boolean shouldHit(Game game, int upcardValue, Map<String, Boolean> advice) {
+        Hand hand = game.getPlayers().get(0).getHand();
+        int[] unseen = game.getUnseenComposition();
+        String key = hand.calculateValue() + (hand.isSoft() ? "s" : "h") + Arrays.toString(unseen);
+        return advice.computeIfAbsent(key, k -> {
+            OddsCalculator.Odds odds = OddsCalculator.compute(hand.calculateValue(), hand.isSoft(), upcardValue, unseen);
+            return odds.getHitEv() > odds.getStandEv();
+        });
+    }
+
+    private static int payout(Game game) {
+        Game.Outcome outcome = game.determineOutcome(game.getPlayers().get(0));
+        return outcome == Game.Outcome.WIN ? 1 : outcome == Game.Outcome.LOSE ? -1 : 0;
+    }
+
+    private static void agree(String what, double exact, Sample simulated) {
+        double error = Math.abs(simulated.mean() - exact);
+        if (error > TOLERANCE * simulated.standardError()) {
+            throw new AssertionError(String.format("%s: calculator %.4f, simulation %.4f +/- %.4f",
+                what, exact, simulated.mean(), simulated.standardError()));
+        }
+    }
+
+    /**
+     * One seat's two cards and the dealer's upcard, dealt from a single
+     * deck; every other card is unseen and shuffled afresh for each trial.
+     */
+    private static final class Position {
+        private final int[] playerCodes;
+        private final int upcardCode;
+        private final List<Integer> unseenCodes = new ArrayList<>();
+
+        Position(int[] playerValues, int upcardValue) {
+            playerCodes = new int[] {code(playerValues[0], 0), code(playerValues[1], 1)};
+            upcardCode = code(upcardValue, 2);
+            for (int c = 0; c < Card.DECK_SIZE; c++) {
+                if (c != playerCodes[0] && c != playerCodes[1] && c != upcardCode) {
+                    unseenCodes.add(c);
+                }
+            }
+        }
+
+        /** @return Card code of a value in a suit (ace for 11, ten for 10) */
+        private static int code(int value, int suit) {
+            return suit * 13 + (value == 11 ? 12 : value - 2);
+        }
+
+        int total() { return hand().calculateValue(); }
+
+        boolean soft() { return hand().isSoft(); }
+
+        int[] unseen() {
+            int[] counts = new int[12];
+            for (int c : unseenCodes) {
+                counts[Card.valueOfCode(c)]++;
+            }
+            return counts;
+        }
+
+        private Hand hand() {
+            Hand hand = new Hand();
+            for (int c : playerCodes) {
+                hand.addCard(Card.fromCode(c));
+            }
+            return hand;
+        }
+
+        /**
+         * @return A one-seat game at this position, seat 0 to act, with
+         *         the hole card and the shoe drawn from the shuffled unseen cards
+         */
+        Game deal(Random random) {
+            List<Integer> order = new ArrayList<>(unseenCodes);
+            Collections.shuffle(order, random);
+            Player player = new Player("P");
+            player.restore(hand(), false, false, "");
+            Dealer dealer = new Dealer();
+            Hand dealerHand = new Hand();
+            dealerHand.addCard(Card.fromCode(upcardCode));
+            Card hole = Card.fromCode(order.get(0));
+            hole.flip();
+            dealerHand.addCard(hole);
+            dealer.restore(dealerHand, false, false, "");
+            List<Card> shoe = new ArrayList<>();
+            for (int i = 1; i < order.size(); i++) {
+                shoe.add(Card.fromCode(order.get(i)));
+            }
+            return new Game(() -> new Deck(random.nextLong()), new Deck(shoe, 0), Arrays.asList(player), dealer,
+                            0, Game.GameState.PLAYER_TURN, 0);
+        }
+    }
+
+    /**
+     * Running mean and standard error of a sample.
+     */
+    private static final class Sample {
+        private long n;
+        private double sum;
+        private double squares;
+
+        void add(double x) {
+            n++;
+            sum += x;
+            squares += x * x;
+        }
+
+        double mean() { return sum / n; }
+
+        double standardError() {
+            double mean = mean();
+            double variance = Math.max(0, squares / n - mean * mean) * n / (n - 1);
+            return Math.max(Math.sqrt(variance / n), 1e-9);
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package blackjack;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Checks that profiles survive closing and reopening, that a log cut
+ * anywhere by a crash loses at most its last batch, that a crash during
+ * compaction neither loses nor repeats hands, and that the bankroll
+ * history keeps evenly spaced samples as it halves.
+ * Run: java blackjack.ProfileStoreTest
+ */
+public class ProfileStoreTest {
+    private static final List<String> NAMES = Arrays.asList("Ann", "Bob", "Cal"); // Same length: fixed-size records
+    private static final int RECORD_BYTES = 2 + 3 + 1; // UTF length, name, outcome
+    private static final int LOG_HEADER = 8;           // Generation
+    private static final int SNAPSHOT_GENERATION_AT = 5; // After magic and version
+
+    public static void main(String[] args) throws Exception {
+        Path root = Files.createTempDirectory("profiles");
+        try {
+            List<RoundResult> rounds = play(60);
+            reopensWithTotals(root.resolve("reopen"), rounds);
+            losesOnlyTheTornBatch(root.resolve("torn"), rounds);
+            skipsLogAlreadyCompacted(root.resolve("compacted"), rounds);
+            rejectsLogNewerThanSnapshot(root.resolve("newer"), rounds);
+            halvesHistoryEvenly();
+        } finally {
+            delete(root);
+        }
+        System.out.println("ProfileStoreTest passed");
+    }
+
+    /**
+     * Totals and histories read back after every close, and each close
+     * compacts: a new snapshot generation and an empty log that follows it.
+     */
+    private static void reopensWithTotals(Path dir, List<RoundResult> rounds) throws IOException {
+        Map<String, ProfileStore.Profile> expected = new HashMap<>();
+        for (int part = 0; part < 3; part++) {
+            try (ProfileStore store = new ProfileStore(dir)) {
+                checkSame(store, expected, "reopened before part " + part);
+                for (RoundResult round : rounds.subList(part * 20, part * 20 + 20)) {
+                    store.roundCompleted(round);
+                    apply(expected, round);
+                }
+                checkSame(store, expected, "cache in part " + part);
+            }
+            byte[] snapshot = Files.readAllBytes(dir.resolve(ProfileStore.SNAPSHOT_FILE));
+            byte[] log = Files.readAllBytes(dir.resolve(ProfileStore.LOG_FILE));
+            long generation = ByteBuffer.wrap(snapshot).getLong(SNAPSHOT_GENERATION_AT);
+            check(generation == part + 1, "snapshot generation " + generation + " after part " + part);
+            check(log.length == LOG_HEADER && ByteBuffer.wrap(log).getLong(0) == generation,
+                  "log not restarted for generation " + generation);
+        }
+    }
+
+    /**
+     * Cutting the log at any byte keeps every batch that ends before the
+     * cut and drops the torn one; the store then carries on after the
+     * last good batch.
+     */
+    private static void losesOnlyTheTornBatch(Path dir, List<RoundResult> rounds) throws IOException {
+        Map<String, ProfileStore.Profile> base = new HashMap<>();
+        try (ProfileStore store = new ProfileStore(dir)) { // Leaves a snapshot for the log to follow
+            for (RoundResult round : rounds.subList(0, 10)) {
+                store.roundCompleted(round);
+                apply(base, round);
+            }
+        }
+        List<RoundResult> logged = rounds.subList(10, 40);
+        byte[] snapshot;
+        byte[] log = null;
+        try (ProfileStore store = new ProfileStore(dir)) {
+            int entries = 0;
+            for (RoundResult round : logged) {
+                store.roundCompleted(round);
+                entries += round.getSeats().size();
+                log = awaitLogged(dir, entries); // One or more batches per round; as a crash would leave it
+            }
+            snapshot = Files.readAllBytes(dir.resolve(ProfileStore.SNAPSHOT_FILE));
+        }
+        List<int[]> batches = batches(log);
+        check(batches.size() >= logged.size(), "only " + batches.size() + " batches for " + logged.size() + " rounds");
+
+        Path crashed = dir.resolveSibling("crashed");
+        for (int cut = 0; cut <= log.length; cut++) {
+            int kept = 0;
+            for (int[] batch : batches) {
+                if (batch[0] <= cut) {
+                    kept = batch[1];
+                }
+            }
+            Map<String, ProfileStore.Profile> expected = copy(base);
+            applyEntries(expected, logged, kept);
+            Files.createDirectories(crashed);
+            Files.write(crashed.resolve(ProfileStore.SNAPSHOT_FILE), snapshot);
+            Files.write(crashed.resolve(ProfileStore.LOG_FILE), Arrays.copyOf(log, cut));
+            try (ProfileStore store = new ProfileStore(crashed)) {
+                checkSame(store, expected, "log cut to " + cut + " bytes");
+                if (cut % 97 == 0) {
+                    store.roundCompleted(rounds.get(50)); // Appended after the good batches, not the torn one
+                    apply(expected, rounds.get(50));
+                }
+            }
+            try (ProfileStore store = new ProfileStore(crashed)) {
+                checkSame(store, expected, "reopened after a cut to " + cut + " bytes");
+            }
+            delete(crashed);
+        }
+    }
+
+    /**
+     * A crash after the new snapshot is in place but before the log is
+     * restarted leaves the previous generation's log; its batches are
+     * already in the snapshot and must not count twice.
+     */
+    private static void skipsLogAlreadyCompacted(Path dir, List<RoundResult> rounds) throws IOException {
+        Map<String, ProfileStore.Profile> expected = new HashMap<>();
+        byte[] log;
+        try (ProfileStore store = new ProfileStore(dir)) {
+            int entries = 0;
+            for (RoundResult round : rounds.subList(0, 15)) {
+                store.roundCompleted(round);
+                apply(expected, round);
+                entries += round.getSeats().size();
+            }
+            log = awaitLogged(dir, entries);
+        }
+        Files.write(dir.resolve(ProfileStore.LOG_FILE), log); // Generation 0 log beside the generation 1 snapshot
+        try (ProfileStore store = new ProfileStore(dir)) {
+            checkSame(store, expected, "stale log replayed");
+        }
+    }
+
+    /**
+     * A log claiming a later generation than the snapshot means the
+     * snapshot is out of date; opening fails instead of losing hands.
+     */
+    private static void rejectsLogNewerThanSnapshot(Path dir, List<RoundResult> rounds) throws IOException {
+        try (ProfileStore store = new ProfileStore(dir)) {
+            store.roundCompleted(rounds.get(0));
+        }
+        Path logFile = dir.resolve(ProfileStore.LOG_FILE);
+        byte[] log = Files.readAllBytes(logFile);
+        ByteBuffer.wrap(log).putLong(0, ByteBuffer.wrap(log).getLong(0) + 1);
+        Files.write(logFile, log);
+        try {
+            new ProfileStore(dir).close();
+            throw new AssertionError("log newer than the snapshot accepted");
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+
+    /**
+     * However many hands, the history holds the bankroll after every
+     * stride-th hand, and no more than HISTORY_POINTS samples.
+     */
+    private static void halvesHistoryEvenly() {
+        ProfileStore.Profile profile = new ProfileStore.Profile("Ann");
+        int hands = ProfileStore.Profile.HISTORY_POINTS * 9 + 5; // Through several halvings
+        long[] bankroll = new long[hands + 1];
+        Game.Outcome[] outcomes = Game.Outcome.values();
+        for (int n = 1; n <= hands; n++) {
+            Game.Outcome outcome = outcomes[(n * 7 + n / 3) % outcomes.length];
+            profile.record(outcome);
+            bankroll[n] = bankroll[n - 1] + (outcome == Game.Outcome.WIN ? 1 : outcome == Game.Outcome.LOSE ? -1 : 0);
+            long stride = profile.getHistoryStride();
+            List<Long> history = profile.getBankrollHistory();
+            check(history.size() <= ProfileStore.Profile.HISTORY_POINTS, history.size() + " samples after " + n);
+            check(history.size() == n / stride, history.size() + " samples at stride " + stride + " after " + n);
+            for (int i = 0; i < history.size(); i++) {
+                check(history.get(i) == bankroll[(int) ((i + 1) * stride)], "sample " + i + " wrong after " + n);
+            }
+        }
+        check(profile.getHistoryStride() == 16, "stride " + profile.getHistoryStride() + " after " + hands + " hands");
+    }
+
+    /**
+     * Waits until the writer has appended the given number of records.
+     * @return The log's bytes at that point
+     * @throws AssertionError If it takes more than ten seconds
+     */
+    private static byte[] awaitLogged(Path dir, int entries) throws IOException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (true) {
+            byte[] log = Files.readAllBytes(dir.resolve(ProfileStore.LOG_FILE));
+            List<int[]> batches = batches(log);
+            if (!batches.isEmpty() && batches.get(batches.size() - 1)[1] == entries) {
+                return log;
+            }
+            check(System.nanoTime() < deadline, "writer never logged " + entries + " records");
+            Thread.yield();
+        }
+    }
+
+    /** @return End offset and records so far, for each complete batch in a log */
+    private static List<int[]> batches(byte[] log) {
+        List<int[]> ends = new ArrayList<>();
+        ByteBuffer data = ByteBuffer.wrap(log);
+        int at = LOG_HEADER;
+        int records = 0;
+        while (at + 8 <= log.length) {
+            int length = data.getInt(at);
+            if (at + 8 + length > log.length) {
+                break;
+            }
+            at += 8 + length;
+            records += length / RECORD_BYTES;
+            ends.add(new int[] {at, records});
+        }
+        return ends;
+    }
+
+    /**
+     * Plays rounds at a three-seat table.
+     * @return Their results, in order
+     */
+    private static List<RoundResult> play(int count) {
+        List<RoundResult> rounds = new ArrayList<>();
+        Game game = new Game(NAMES, Simulator.seededShoes(5, 0, Deck.decksFor(NAMES.size())));
+        game.addRoundListener(rounds::add);
+        Strategy strategy = new ThresholdStrategy(16);
+        for (int i = 0; i < count; i++) {
+            Simulator.playSeats(game, strategy);
+            game.nextRound();
+        }
+        return rounds;
+    }
+
+    private static void apply(Map<String, ProfileStore.Profile> profiles, RoundResult round) {
+        for (RoundResult.Seat seat : round.getSeats()) {
+            profiles.computeIfAbsent(seat.getName(), ProfileStore.Profile::new).record(seat.getOutcome());
+        }
+    }
+
+    /** Applies the first count seat records of the rounds, in order. */
+    private static void applyEntries(Map<String, ProfileStore.Profile> profiles, List<RoundResult> rounds, int count) {
+        for (RoundResult round : rounds) {
+            for (RoundResult.Seat seat : round.getSeats()) {
+                if (count-- == 0) {
+                    return;
+                }
+                profiles.computeIfAbsent(seat.getName(), ProfileStore.Profile::new).record(seat.getOutcome());
+            }
+        }
+    }
+
+    private static Map<String, ProfileStore.Profile> copy(Map<String, ProfileStore.Profile> profiles) {
+        Map<String, ProfileStore.Profile> copy = new HashMap<>();
+        profiles.forEach((name, profile) -> copy.put(name, profile.copy()));
+        return copy;
+    }
+
+    /** Checks the store holds exactly the expected profiles, field by field. */
+    private static void checkSame(ProfileStore store, Map<String, ProfileStore.Profile> expected, String where) {
+        check(store.getAll().size() == expected.size(), where + ": " + store.getAll().size() + " profiles");
+        for (ProfileStore.Profile want : expected.values()) {
+            ProfileStore.Profile got = store.get(want.getName());
+            check(got != null, where + ": " + want.getName() + " missing");
+            check(got.getHands() == want.getHands() && got.getWins() == want.getWins()
+                  && got.getLosses() == want.getLosses() && got.getPushes() == want.getPushes()
+                  && got.getBankroll() == want.getBankroll() && got.getPeakBankroll() == want.getPeakBankroll()
+                  && got.getLowBankroll() == want.getLowBankroll()
+                  && got.getHistoryStride() == want.getHistoryStride()
+                  && got.getBankrollHistory().equals(want.getBankrollHistory()),
+                  where + ": got " + got + ", expected " + want);
+        }
+    }
+
+    private static void delete(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(dir)) {
+            paths = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList()); // Files before their directory
+        }
+        for (Path path : paths) {
+            Files.delete(path);
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
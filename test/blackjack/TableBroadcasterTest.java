@@ -0,0 +1,312 @@
+package blackjack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks TableDelta packing, SpectatorTable decoding, and that a
+ * TableBroadcaster delivers every spectator the game's deltas in order:
+ * late joiners start from the mirror's snapshot, slow consumers are
+ * resynced, and each ends with the game's table.
+ * Run: java blackjack.TableBroadcasterTest
+ */
+public class TableBroadcasterTest {
+    private static final long SEED = 3;
+    private static final int SEATS = 3;
+    private static final List<String> NAMES = Simulator.seatNames(SEATS);
+
+    public static void main(String[] args) throws Exception {
+        packsAndUnpacksDeltas();
+        spectatorTableDecodesARound();
+        deliversInOrderToEveryone();
+        resyncsSlowConsumer();
+        dropsFailingSpectator();
+        System.out.println("TableBroadcasterTest passed");
+    }
+
+    /**
+     * Every field survives packing at its extremes.
+     */
+    private static void packsAndUnpacksDeltas() {
+        int[] seats = {0, 1, SEATS, 0xFFFE, TableDelta.DEALER};
+        int[] cards = {0, 51, TableDelta.HIDDEN};
+        int[] values = {0, 1, -1, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        for (int type = TableDelta.ROUND_START; type <= TableDelta.RESULT; type++) {
+            for (int seat : seats) {
+                for (int card : cards) {
+                    for (int value : values) {
+                        long delta = TableDelta.encode(type, seat, card, value);
+                        check(TableDelta.type(delta) == type && TableDelta.seat(delta) == seat
+                              && TableDelta.card(delta) == card && TableDelta.value(delta) == value,
+                              "fields lost in " + TableDelta.toString(delta));
+                    }
+                }
+            }
+        }
+        check(TableDelta.toString(TableDelta.encode(TableDelta.CARD, TableDelta.DEALER, 17, 0))
+                  .equals("CARD seat=dealer card=17 value=0"), "readable form");
+    }
+
+    /**
+     * A hand-written round: deals, a long hand, the reveal, results, an
+     * unknown delta, and the reset at the next round start.
+     */
+    private static void spectatorTableDecodesARound() {
+        SpectatorTable table = new SpectatorTable(NAMES);
+        table.apply(TableDelta.encode(TableDelta.ROUND_START, 0, 0, -1));
+        check(table.getRoundNumber() == 0xFFFFFFFFL, "round number not read as unsigned");
+        for (int card = 0; card < 10; card++) { // More cards than the initial array holds
+            table.apply(TableDelta.encode(TableDelta.CARD, 1, card, 0));
+        }
+        table.apply(TableDelta.encode(TableDelta.CARD, TableDelta.DEALER, 12, 0));
+        table.apply(TableDelta.encode(TableDelta.CARD, TableDelta.DEALER, TableDelta.HIDDEN, 0));
+        table.apply(TableDelta.encode(TableDelta.TURN, 2, 0, 0));
+        table.apply(TableDelta.encode(TableDelta.STAND, 2, 0, 0));
+        table.apply(TableDelta.encode(TableDelta.TURN, TableDelta.DEALER, 0, 0));
+        check(Arrays.equals(table.getDealerCards(), new int[] {12, TableDelta.HIDDEN}), "hole card shown early");
+        SpectatorTable before = table.copy();
+
+        table.apply(TableDelta.encode(TableDelta.REVEAL, TableDelta.DEALER, 30, 0));
+        table.apply(TableDelta.encode(TableDelta.RESULT, 1, 0, Game.Outcome.PUSH.ordinal()));
+        table.apply(TableDelta.encode(15, 0, 0, 0)); // Unknown type: ignored
+        check(Arrays.equals(table.getCards(1), new int[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9}), "seat 1 cards");
+        check(table.getCards(0).length == 0, "seat 0 has cards");
+        check(table.isStanding(2) && !table.isStanding(1), "standing flags");
+        check(table.getTurn() == TableDelta.DEALER, "turn " + table.getTurn());
+        check(Arrays.equals(table.getDealerCards(), new int[] {12, 30}), "hole card not revealed");
+        check(table.getOutcome(1) == Game.Outcome.PUSH && table.getOutcome(0) == null, "outcomes");
+        check(Arrays.equals(before.getDealerCards(), new int[] {12, TableDelta.HIDDEN}) && before.getOutcome(1) == null,
+              "copy shares state with the original");
+        check(!before.equals(table), "tables with different results are equal");
+
+        table.apply(TableDelta.encode(TableDelta.ROUND_START, 0, 0, 5));
+        check(table.equals(fresh(5)), "round start didn't clear the table");
+    }
+
+    /**
+     * Many spectators from the start and one joining halfway each get a
+     * snapshot first, then exactly the deltas after it.
+     */
+    private static void deliversInOrderToEveryone() throws InterruptedException {
+        Game game = new Game(NAMES, Simulator.seededShoes(SEED, 0, Deck.decksFor(SEATS)));
+        try (TableBroadcaster broadcaster = new TableBroadcaster(game, 2)) {
+            Log log = new Log(game); // Attached right after the broadcaster: same description, same deltas
+            List<Recorder> recorders = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                recorders.add(new Recorder(null));
+                broadcaster.subscribe(recorders.get(i));
+            }
+            Strategy strategy = new ThresholdStrategy(16);
+            for (int round = 0; round < 2_000; round++) {
+                if (round == 1_000) {
+                    recorders.add(new Recorder(null));
+                    broadcaster.subscribe(recorders.get(recorders.size() - 1));
+                }
+                Simulator.playSeats(game, strategy);
+                game.nextRound();
+            }
+            check(broadcaster.getSpectatorCount() == 21, "spectators " + broadcaster.getSpectatorCount());
+            for (Recorder recorder : recorders) {
+                awaitConsistent(recorder, log);
+            }
+            Recorder late = recorders.get(recorders.size() - 1);
+            check(late.table().getRoundNumber() == 2_000, "late joiner on round " + late.table().getRoundNumber());
+        }
+    }
+
+    /**
+     * A spectator stuck while more than half a ring is published skips
+     * the backlog: it is resynced from the mirror, then carries on.
+     */
+    private static void resyncsSlowConsumer() throws InterruptedException {
+        Game game = new Game(NAMES, Simulator.seededShoes(SEED + 1, 0, Deck.decksFor(SEATS)));
+        try (TableBroadcaster broadcaster = new TableBroadcaster(game, 2)) {
+            Log log = new Log(game);
+            CountDownLatch release = new CountDownLatch(1);
+            Recorder slow = new Recorder(release);
+            Recorder fast = new Recorder(null);
+            TableBroadcaster.Subscription subscription = broadcaster.subscribe(slow);
+            broadcaster.subscribe(fast);
+            Strategy strategy = new ThresholdStrategy(16);
+            while (!slow.stuck.await(10, TimeUnit.MILLISECONDS)) {
+                Simulator.playSeats(game, strategy);
+                game.nextRound();
+            }
+            long stuckAt = broadcaster.getDeltaCount();
+            while (broadcaster.getDeltaCount() - stuckAt < 40_000) { // Past LAG_LIMIT
+                Simulator.playSeats(game, strategy);
+                game.nextRound();
+            }
+            release.countDown();
+            awaitConsistent(slow, log);
+            awaitConsistent(fast, log);
+            check(subscription.getResyncCount() > 0, "slow spectator worked through the backlog");
+            check(slow.snapshots() > 1, "slow spectator got no fresh snapshot");
+        }
+    }
+
+    /**
+     * A spectator whose callback throws is unsubscribed; the rest carry on.
+     */
+    private static void dropsFailingSpectator() throws InterruptedException {
+        Game game = new Game(NAMES, Simulator.seededShoes(SEED + 2, 0, Deck.decksFor(SEATS)));
+        try (TableBroadcaster broadcaster = new TableBroadcaster(game, 1)) {
+            Log log = new Log(game);
+            Recorder good = new Recorder(null);
+            broadcaster.subscribe(new TableBroadcaster.Spectator() {
+                @Override
+                public void onSnapshot(SpectatorTable table) {}
+
+                @Override
+                public void onDeltas(long[] deltas, int count) {
+                    throw new IllegalStateException("spectator bug");
+                }
+            });
+            broadcaster.subscribe(good);
+            Strategy strategy = new ThresholdStrategy(16);
+            for (int round = 0; round < 100; round++) {
+                Simulator.playSeats(game, strategy);
+                game.nextRound();
+            }
+            awaitConsistent(good, log);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (broadcaster.getSpectatorCount() > 1 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            check(broadcaster.getSpectatorCount() == 1, "failing spectator still subscribed");
+        }
+    }
+
+    /**
+     * Waits until the recorder has caught up, then checks its last
+     * snapshot was the table as of some point of the log and everything
+     * since arrived exactly as logged.
+     * @throws AssertionError If it hasn't caught up within ten seconds
+     */
+    private static void awaitConsistent(Recorder recorder, Log log) throws InterruptedException {
+        List<Long> all = log.deltas();
+        SpectatorTable expected = replay(all, all.size());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!recorder.caughtUp(expected, all)) {
+            check(System.nanoTime() < deadline, "spectator never caught up");
+            Thread.sleep(10);
+        }
+        synchronized (recorder) {
+            check(!recorder.deltasBeforeSnapshot, "deltas delivered before the first snapshot");
+            int from = all.size() - recorder.received.size();
+            check(recorder.snapshot.equals(replay(all, from)), "snapshot isn't the table as of delta " + from);
+        }
+    }
+
+    /** @return Table after applying the first count deltas */
+    private static SpectatorTable replay(List<Long> deltas, int count) {
+        SpectatorTable table = new SpectatorTable(NAMES);
+        for (int i = 0; i < count; i++) {
+            table.apply(deltas.get(i));
+        }
+        return table;
+    }
+
+    /** @return An empty table at the start of a round */
+    private static SpectatorTable fresh(int round) {
+        SpectatorTable table = new SpectatorTable(NAMES);
+        table.apply(TableDelta.encode(TableDelta.ROUND_START, 0, 0, round));
+        return table;
+    }
+
+    /**
+     * Every delta the game sends, straight from the game.
+     */
+    private static final class Log implements TableListener {
+        private final List<Long> deltas = new ArrayList<>();
+
+        Log(Game game) {
+            game.attachTableListener(this);
+        }
+
+        @Override
+        public synchronized void onDelta(long delta) {
+            deltas.add(delta);
+        }
+
+        synchronized List<Long> deltas() {
+            return new ArrayList<>(deltas);
+        }
+    }
+
+    /**
+     * A spectator keeping its last snapshot, the deltas received since,
+     * and the table they add up to. Optionally stuck in its first batch
+     * until released.
+     */
+    private static final class Recorder implements TableBroadcaster.Spectator {
+        final CountDownLatch stuck = new CountDownLatch(1); // Counted down on entering the held batch
+        private final CountDownLatch release;               // Holds the first batch, or null
+        private final List<Long> received = new ArrayList<>();
+        private SpectatorTable snapshot;
+        private SpectatorTable table;
+        private int snapshots;
+        private boolean deltasBeforeSnapshot;
+
+        Recorder(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public synchronized void onSnapshot(SpectatorTable from) {
+            snapshot = from.copy();
+            table = from;
+            received.clear();
+            snapshots++;
+        }
+
+        @Override
+        public void onDeltas(long[] deltas, int count) {
+            synchronized (this) {
+                if (table == null) {
+                    deltasBeforeSnapshot = true;
+                    return;
+                }
+                for (int i = 0; i < count; i++) {
+                    table.apply(deltas[i]);
+                    received.add(deltas[i]);
+                }
+            }
+            if (release != null && stuck.getCount() > 0) {
+                stuck.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        synchronized SpectatorTable table() { return table; }
+
+        synchronized int snapshots() { return snapshots; }
+
+        /** @return Whether the table matches and the deltas since the snapshot end the log */
+        synchronized boolean caughtUp(SpectatorTable expected, List<Long> all) {
+            if (table == null || !table.equals(expected) || received.size() > all.size()) {
+                return false;
+            }
+            int from = all.size() - received.size();
+            for (int i = 0; i < received.size(); i++) {
+                if (received.get(i).longValue() != all.get(from + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}
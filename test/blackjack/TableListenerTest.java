@@ -0,0 +1,123 @@
+package blackjack;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks that table listeners see the game exactly as it is: a listener
+ * following from the start and one attached at any later point agree
+ * with the table, including a listener attached while another thread is
+ * still delivering earlier changes.
+ * Run: java blackjack.TableListenerTest
+ */
+public class TableListenerTest {
+    private static final long SEED = 11;
+    private static final int SEATS = 3;
+
+    public static void main(String[] args) throws Exception {
+        followerMatchesLateJoiners();
+        attachBeforeLastStandSeesResults();
+        System.out.println("TableListenerTest passed");
+    }
+
+    /**
+     * A listener added before the first deal and one attached at any
+     * decision hold the same table.
+     */
+    private static void followerMatchesLateJoiners() {
+        Game game = new Game(Simulator.seatNames(SEATS), Simulator.seededShoes(SEED, 0, Deck.decksFor(SEATS)));
+        Recorder follower = new Recorder();
+        game.attachTableListener(follower);
+        Strategy strategy = new ThresholdStrategy(15);
+        for (int round = 0; round < 300; round++) {
+            while (game.getState() == Game.GameState.PLAYER_TURN) {
+                check(follower.table.equals(joiner(game).table), "late joiner differs mid-round " + round);
+                Card upcard = game.getDealer().getHand().getCards().get(0);
+                if (strategy.shouldHit(game.getCurrentPlayer().getHand(), upcard)) {
+                    game.playerHit();
+                } else {
+                    game.playerStand();
+                }
+            }
+            check(follower.table.equals(joiner(game).table), "late joiner differs after round " + round);
+            for (int seat = 0; seat < SEATS; seat++) {
+                Game.Outcome outcome = game.determineOutcome(game.getPlayers().get(seat));
+                check(follower.table.getOutcome(seat) == outcome, "seat " + seat + " result in round " + round);
+            }
+            game.nextRound();
+        }
+    }
+
+    /**
+     * A listener attached while another thread is still delivering the
+     * previous round only joins the listener list when that delivery
+     * reaches it. If the last seat stands in between, the dealer's
+     * reveal and the results must still be sent to it.
+     */
+    private static void attachBeforeLastStandSeesResults() throws Exception {
+        Game game = new Game(Simulator.seatNames(SEATS), Simulator.seededShoes(SEED, 0, Deck.decksFor(SEATS)));
+        CountDownLatch delivering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        game.addRoundListener(result -> {
+            if (result.getRoundNumber() == 0) {
+                delivering.countDown();
+                await(release); // Holds up every later delivery
+            }
+        });
+        Thread player = new Thread(() -> Simulator.playSeats(game, new ThresholdStrategy(0)), "round-0");
+        player.start();
+        check(delivering.await(5, TimeUnit.SECONDS), "round 0 never delivered");
+
+        game.nextRound();
+        while (game.getActingSeat() < SEATS - 1) {
+            game.playerStand();
+        }
+        Recorder late = new Recorder();
+        game.attachTableListener(late); // Queued behind round 0's delivery
+        game.playerStand();             // Last seat: the dealer plays and the round is decided
+        check(game.getState() == Game.GameState.GAME_OVER, "round 1 not decided");
+
+        release.countDown();
+        player.join();
+        check(late.table.getRoundNumber() == 1, "late listener on round " + late.table.getRoundNumber());
+        for (int seat = 0; seat < SEATS; seat++) {
+            check(late.table.getOutcome(seat) == game.determineOutcome(game.getPlayers().get(seat)),
+                  "late listener missed seat " + seat + "'s result");
+        }
+        check(late.table.equals(joiner(game).table), "late listener's table differs from the game");
+    }
+
+    /** @return A listener attached now and detached again, holding the table as it is */
+    private static Recorder joiner(Game game) {
+        Recorder recorder = new Recorder();
+        game.attachTableListener(recorder);
+        game.removeTableListener(recorder);
+        return recorder;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Keeps a SpectatorTable current from the deltas it receives.
+     */
+    private static final class Recorder implements TableListener {
+        final SpectatorTable table = new SpectatorTable(Simulator.seatNames(SEATS));
+
+        @Override
+        public void onDelta(long delta) {
+            table.apply(delta);
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+}